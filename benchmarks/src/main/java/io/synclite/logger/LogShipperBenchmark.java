@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//
+//LogShipper throughput to a local FS destination. Lives in the logger package as LogShipper
+//is package private. One op = shipping segmentCount closed log segments of segmentSize bytes.
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class LogShipperBenchmark {
+
+	@Param({"10"})
+	public int segmentCount;
+
+	@Param({"1048576", "16777216"})
+	public int segmentSize;
+
+	private Path workDir;
+	private MetadataManager metadataMgr;
+	private LogShipper shipper;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		workDir = Files.createTempDirectory("synclite-bench");
+		Path dbPath = workDir.resolve("bench.db");
+		Path stageDir = Files.createDirectories(workDir.resolve("stage"));
+		Files.createDirectories(Path.of(dbPath + ".synclite"));
+
+		SyncLiteOptions options = new SyncLiteOptions();
+		options.SetDeviceType(DeviceType.SQLITE);
+		options.setDestinationType(1, DestinationType.FS);
+		options.setLocalDataStageDirectory(1, stageDir);
+		//Drive ship() from the benchmark only
+		options.setLogSegmentShippingFrequencyMs(TimeUnit.DAYS.toMillis(1));
+
+		LogSegmentPlacer placer = new TxnLoggerLogSegmentPlacer();
+		byte[] content = new byte[segmentSize];
+		new Random(0).nextBytes(content);
+		for (long i = 0; i < segmentCount; ++i) {
+			Files.write(placer.getLogSegmentPath(dbPath, 0, i), content);
+		}
+
+		String writeArchiveName = "bench";
+		Files.createDirectories(stageDir.resolve(writeArchiveName));
+		metadataMgr = new MetadataManager(SyncLite.getMetadataFilePath(dbPath), options.getMetadataFlushIntervalMs());
+		Logger tracer = Logger.getLogger(LogShipperBenchmark.class);
+		shipper = new LogShipper(dbPath, 0, writeArchiveName, placer, metadataMgr, options, 1, null, tracer);
+		//Segments below the current sequence number are the closed ones to be shipped
+		shipper.logSegmentSequenceNumber.set(segmentCount);
+	}
+
+	@Setup(Level.Invocation)
+	public void rewind() {
+		shipper.shippedLogSegmentSequenceNumber.set(-1L);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		shipper.stop();
+		metadataMgr.close();
+		try (Stream<Path> paths = Files.walk(workDir)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		} catch (IOException e) {
+			//Best effort
+		}
+	}
+
+	@Benchmark
+	public long ship() {
+		shipper.ship();
+		return shipper.getShippedLogSegmentSequenceNumber();
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.synclite.logger.ColumnBatch;
+import io.synclite.logger.DeviceType;
+import io.synclite.logger.SyncLiteAppenderConnection;
+import io.synclite.logger.TelemetryConnection;
+
+//
+//Row at a time PreparedStatement.addBatch vs columnar appendRows for the same rows.
+//One op = one committed batch of batchSize rows.
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AppendRowsBenchmark {
+
+	private static final String INSERT_SQL = "INSERT INTO t1(a, b, c) VALUES(?, ?, ?)";
+
+	@Param({"TELEMETRY", "SQLITE_APPENDER", "STREAMING"})
+	public String deviceType;
+
+	@Param({"true", "false"})
+	public boolean asyncLogging;
+
+	@Param({"100", "10000"})
+	public int batchSize;
+
+	private BenchmarkDevice device;
+	private Connection conn;
+	private PreparedStatement pstmt;
+	private long[] a;
+	private String[] b;
+	private double[] c;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		device = new BenchmarkDevice(DeviceType.valueOf(deviceType), BenchmarkDevice.defaultOptions(asyncLogging));
+		device.createTable("CREATE TABLE IF NOT EXISTS t1(a INTEGER, b TEXT, c REAL)");
+		conn = device.connect();
+		conn.setAutoCommit(false);
+		pstmt = conn.prepareStatement(INSERT_SQL);
+		a = new long[batchSize];
+		b = new String[batchSize];
+		c = new double[batchSize];
+		for (int i = 0; i < batchSize; ++i) {
+			a[i] = i;
+			b[i] = "value-" + i;
+			c[i] = i;
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		pstmt.close();
+		conn.close();
+		device.close();
+	}
+
+	@Benchmark
+	public void addBatch() throws Exception {
+		for (int i = 0; i < batchSize; ++i) {
+			pstmt.setLong(1, a[i]);
+			pstmt.setString(2, b[i]);
+			pstmt.setDouble(3, c[i]);
+			pstmt.addBatch();
+		}
+		pstmt.executeBatch();
+		conn.commit();
+	}
+
+	@Benchmark
+	public void appendRows() throws Exception {
+		ColumnBatch batch = new ColumnBatch(batchSize).addColumn(a).addColumn(b).addColumn(c);
+		if (conn instanceof TelemetryConnection) {
+			((TelemetryConnection) conn).appendRows(INSERT_SQL, batch);
+		} else {
+			((SyncLiteAppenderConnection) conn).appendRows(INSERT_SQL, batch);
+		}
+		conn.commit();
+	}
+}
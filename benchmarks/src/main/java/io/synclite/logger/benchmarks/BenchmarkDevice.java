@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import io.synclite.logger.DestinationType;
+import io.synclite.logger.DeviceType;
+import io.synclite.logger.SyncLite;
+import io.synclite.logger.SyncLiteOptions;
+
+//
+//A throwaway device with a local FS destination under a temp directory
+//
+final class BenchmarkDevice {
+
+	final Path workDir;
+	final Path dbPath;
+	final DeviceType deviceType;
+	final String url;
+
+	BenchmarkDevice(DeviceType deviceType, SyncLiteOptions options) throws SQLException, IOException {
+		this.deviceType = deviceType;
+		this.workDir = Files.createTempDirectory("synclite-bench");
+		Path stageDir = Files.createDirectories(workDir.resolve("stage"));
+		this.dbPath = workDir.resolve("bench.db");
+		this.url = urlPrefix(deviceType) + dbPath;
+		options.setDestinationType(1, DestinationType.FS);
+		options.setLocalDataStageDirectory(1, stageDir);
+		options.setDeviceName("bench");
+		SyncLite.initialize(deviceType, dbPath, options);
+	}
+
+	static SyncLiteOptions defaultOptions(boolean asyncLogging) {
+		SyncLiteOptions options = new SyncLiteOptions();
+		options.disableAsyncLoggingForTxnDevice(!asyncLogging);
+		options.enableAsyncLoggingForAppenderDevice(asyncLogging);
+		return options;
+	}
+
+	static String urlPrefix(DeviceType deviceType) {
+		switch (deviceType) {
+		case SQLITE:
+			return "jdbc:synclite_sqlite:";
+		case SQLITE_APPENDER:
+			return "jdbc:synclite_sqlite_appender:";
+		case DUCKDB:
+			return "jdbc:synclite_duckdb:";
+		case TELEMETRY:
+			return "jdbc:synclite_telemetry:";
+		case STREAMING:
+			return "jdbc:synclite_streaming:";
+		default:
+			throw new IllegalArgumentException("Unsupported benchmark device type : " + deviceType);
+		}
+	}
+
+	Connection connect() throws SQLException {
+		return DriverManager.getConnection(url);
+	}
+
+	void createTable(String createTableSql) throws SQLException {
+		try (Connection conn = connect()) {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(createTableSql);
+			}
+		}
+	}
+
+	void close() throws SQLException, IOException {
+		SyncLite.closeDevice(dbPath);
+		try (Stream<Path> paths = Files.walk(workDir)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+}
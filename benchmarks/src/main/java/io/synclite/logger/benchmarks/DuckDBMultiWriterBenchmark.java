@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.synclite.logger.DeviceType;
+
+//
+//Concurrent committers on a multi-writer DuckDB device, each thread with its own connection.
+//One op = one committed 10 row transaction.
+//
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class DuckDBMultiWriterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Device {
+		BenchmarkDevice device;
+		final AtomicLong nextId = new AtomicLong();
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			device = new BenchmarkDevice(DeviceType.DUCKDB, BenchmarkDevice.defaultOptions(true));
+			device.createTable("CREATE TABLE IF NOT EXISTS t1(a BIGINT, b TEXT)");
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws Exception {
+			device.close();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Writer {
+		Connection conn;
+		PreparedStatement pstmt;
+
+		@Setup(Level.Trial)
+		public void setup(Device device) throws Exception {
+			conn = device.device.connect();
+			conn.setAutoCommit(false);
+			pstmt = conn.prepareStatement("INSERT INTO t1(a, b) VALUES(?, ?)");
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws Exception {
+			pstmt.close();
+			conn.close();
+		}
+	}
+
+	@Benchmark
+	public void commit(Device device, Writer writer) throws Exception {
+		for (int i = 0; i < 10; ++i) {
+			long id = device.nextId.getAndIncrement();
+			writer.pstmt.setLong(1, id);
+			writer.pstmt.setString(2, "value-" + id);
+			writer.pstmt.addBatch();
+		}
+		writer.pstmt.executeBatch();
+		writer.conn.commit();
+	}
+}
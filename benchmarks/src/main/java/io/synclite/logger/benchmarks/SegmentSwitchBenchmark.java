@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.synclite.logger.DeviceType;
+import io.synclite.logger.SyncLiteOptions;
+
+//
+//Cost of log segment switching on the commit path : small thresholds switch every few commits, 
+//the default threshold practically never switches within a measurement iteration.
+//
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SegmentSwitchBenchmark {
+
+	@Param({"1000", "1000000"})
+	public long switchLogCountThreshold;
+
+	@Param({"true", "false"})
+	public boolean asyncLogging;
+
+	private BenchmarkDevice device;
+	private Connection conn;
+	private PreparedStatement pstmt;
+	private long nextId;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		SyncLiteOptions options = BenchmarkDevice.defaultOptions(asyncLogging);
+		options.setLogSegmentSwitchLogCountThreshold(switchLogCountThreshold);
+		device = new BenchmarkDevice(DeviceType.SQLITE, options);
+		device.createTable("CREATE TABLE IF NOT EXISTS t1(a INTEGER, b TEXT)");
+		conn = device.connect();
+		conn.setAutoCommit(false);
+		pstmt = conn.prepareStatement("INSERT INTO t1(a, b) VALUES(?, ?)");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		pstmt.close();
+		conn.close();
+		device.close();
+	}
+
+	@Benchmark
+	public void insertAndCommit() throws Exception {
+		for (int i = 0; i < 100; ++i) {
+			pstmt.setLong(1, nextId);
+			pstmt.setString(2, "value-" + nextId);
+			pstmt.addBatch();
+			++nextId;
+		}
+		pstmt.executeBatch();
+		conn.commit();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.synclite.logger.DeviceType;
+
+//
+//Concurrent committers on a multi-writer DuckDB device, run on platform vs virtual threads.
+//One op = `committers` concurrent tasks each committing one row on a connection of its own, so that 
+//the tasks contend on the logger and not on a connection pool.
+//Virtual threads need a Java 21+ JVM, they are created reflectively so the module builds on 11.
+//The carrier count is printed at setup, set it with -jvmArgs -Djdk.virtualThreadScheduler.parallelism=<n>.
+//Add -jvmArgs -Djdk.tracePinnedThreads=short to report any carrier pinning left on the path.
+//
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadCommitBenchmark {
+
+	@Param({"PLATFORM", "VIRTUAL"})
+	public String threadKind;
+
+	@Param({"64", "512", "2048"})
+	public int committers;
+
+	private BenchmarkDevice device;
+	private List<Connection> connections;
+	private ExecutorService executor;
+	private final AtomicLong nextId = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		device = new BenchmarkDevice(DeviceType.DUCKDB, BenchmarkDevice.defaultOptions(true));
+		device.createTable("CREATE TABLE IF NOT EXISTS t1(a BIGINT, b TEXT)");
+		connections = new ArrayList<Connection>(committers);
+		for (int i = 0; i < committers; ++i) {
+			Connection conn = device.connect();
+			conn.setAutoCommit(false);
+			connections.add(conn);
+		}
+		if (threadKind.equals("VIRTUAL")) {
+			executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			System.out.println("Virtual thread carriers : " + Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors()));
+		} else {
+			executor = Executors.newFixedThreadPool(Math.min(committers, 1024));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		for (Connection conn : connections) {
+			conn.close();
+		}
+		device.close();
+	}
+
+	@Benchmark
+	public void concurrentCommits() throws Exception {
+		List<Future<?>> futures = new ArrayList<Future<?>>(committers);
+		for (int i = 0; i < committers; ++i) {
+			Connection conn = connections.get(i);
+			futures.add(executor.submit(() -> {
+				long id = nextId.getAndIncrement();
+				try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO t1(a, b) VALUES(?, ?)")) {
+					pstmt.setLong(1, id);
+					pstmt.setString(2, "value-" + id);
+					pstmt.executeUpdate();
+				}
+				conn.commit();
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+}
@@ -36,14 +36,7 @@ public class AsyncEventLogger extends EventLogger {
 		if (dbPath == null) {
 			return null;
 		}
-		return (EventLogger) loggers.computeIfAbsent(dbPath, s -> {
-			try {
-				return new AsyncEventLogger(s, options, tracer);
-			} catch (SQLException e) {
-				tracer.error("Failed to create/get a SQL logger instance for device : " + dbPath, e);
-				throw new RuntimeException(e);
-			}
-		});
+		return (EventLogger) getOrCreateInstance(dbPath, tracer, s -> new AsyncEventLogger(s, options, tracer));
 	}
 
 	@Override
@@ -56,6 +49,10 @@ public class AsyncEventLogger extends EventLogger {
 		this.logQueue = new LinkedBlockingQueue<CommandLogRecord>(options.getLogQueueSize());
 	}
 
+	@Override
+	final long getLogQueueDepth() {
+		return logQueue.size();
+	}
 
 	@Override
 	void log(long commitId, String sql, Object[] args) throws SQLException {
@@ -66,6 +63,15 @@ public class AsyncEventLogger extends EventLogger {
 		}
 	}
 
+	@Override
+	void logRows(long commitId, String sql, ColumnBatch batch) throws SQLException {
+		try {
+			logQueue.put(new ColumnBatchLogRecord(commitId, sql, batch));
+		} catch (InterruptedException e) {
+			Thread.interrupted();
+		}
+	}
+
 	@Override
 	void flush(long commitId) throws SQLException {
 		FlushLogRecord flushRecord = new FlushLogRecord(commitId);
@@ -77,20 +83,50 @@ public class AsyncEventLogger extends EventLogger {
 		}
 	}
 
+	//Fail the futures of all async commits still queued once the logger thread is gone
+	private final void failPendingFlushes(Throwable cause) {
+		CommandLogRecord record;
+		while ((record = logQueue.poll()) != null) {
+			if (record instanceof FlushLogRecord) {
+				((FlushLogRecord) record).setFailed(cause);
+			}
+		}
+	}
+
 	@Override
-	protected void terminateInternal() {
+	protected void terminateInternal(long deadlineNanos) {
 		//If thread is running then terminate
 		if (this.isAlive()) {
 			try {
-				//Wait until queue is drained
-				while(!logQueue.isEmpty()) {
-					Thread.sleep(1000);
+				//Let the logger thread drain the queue and close the log segment, bounded by the deadline
+				DrainLogRecord drainRecord = new DrainLogRecord();
+				long remainingMs = 0;
+				if (logQueue.offer(drainRecord, Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+					remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+					if (remainingMs > 0) {
+						join(remainingMs);
+					}
+				}
+				if (this.isAlive()) {
+					//Records still queued are given up. Txns they belong to are either not yet committed 
+					//on the device or get resolved by restart recovery on the next start of the device.
+					tracer.error("SyncLite logger for device " + dbPath + " did not drain within the device close timeout, " + logQueue.size() + " queued log records are given up");
+					interrupt();
+					remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+					join(Math.max(1, remainingMs));
+					if (this.isAlive()) {
+						//Logger thread closes the log segment by itself once its current statement returns
+						tracer.error("SyncLite logger for device " + dbPath + " did not stop within the device close timeout");
+					} else {
+						closeCurrentLogSegment();
+					}
 				}
-				interrupt();
-				join();
 			} catch (InterruptedException e) {
 				stop();
+			} catch (SQLException e) {
+				tracer.error("SyncLite log segment log segment could not be closed properly for device " + dbPath + ", failed with exception : " +  e);
 			}
+			failPendingFlushes(new SQLException("SyncLite device " + dbPath + " is closed"));
 		} else {
 			//Close current log segment
 			try {
@@ -115,11 +151,20 @@ public class AsyncEventLogger extends EventLogger {
 					executeLogBatch();
 					currentBatchLogCount = 0;
 				}
+				if (record instanceof DrainLogRecord) {
+					checkups();
+					closeCurrentLogSegment();
+					((DrainLogRecord) record).setFlushed();
+					break;
+				}
 				if (record instanceof FlushLogRecord) {
 					FlushLogRecord flushRecord = (FlushLogRecord) record;
+					traceCommitStage(flushRecord.commitId, CommitStage.LOG_DEQUEUED);
 					if (currentBatchLogCount > 0) {
 						executeLogBatch();
+						traceCommitStage(flushRecord.commitId, CommitStage.LOG_BATCH_EXECUTED);
 						commitLogSegment();				
+						traceCommitStage(flushRecord.commitId, CommitStage.LOG_SEGMENT_COMMITTED);
 					}
 					currentBatchLogCount = 0;
 					currentTxnLogCount = 0;
@@ -138,7 +183,7 @@ public class AsyncEventLogger extends EventLogger {
 				appendLogRecord(record);
 			} catch (InterruptedException e) {
 				try {
-					checkups();
+					//Device close ran past its deadline, leave the log segment switch to the next start of the device
 					closeCurrentLogSegment();					
 					break;
 				} catch (SQLException e1) {
@@ -148,6 +193,7 @@ public class AsyncEventLogger extends EventLogger {
 			} catch (Exception e) {
 				tracer.error("SyncLite Event Logger failed with exception : " +  e);
 				isHealthy.set(false);
+				failPendingFlushes(e);
 				break;
 			}
 		}
@@ -19,6 +19,7 @@ package io.synclite.logger;
 import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -39,27 +40,30 @@ final class AsyncTxnLogger extends TxnLogger {
 		if (dbPath == null) {
 			return null;
 		}
-		return (AsyncTxnLogger) loggers.computeIfAbsent(dbPath, s -> {
-			try {
-				return new AsyncTxnLogger(s, options, tracer);
-			} catch (SQLException e) {
-				tracer.error("Failed to create/get SQL Logger instance for device : " + dbPath, e); 
-				throw new RuntimeException(e);
-			}
-		});
+		return (AsyncTxnLogger) getOrCreateInstance(dbPath, tracer, s -> new AsyncTxnLogger(s, options, tracer));
 	}
 
 
 	protected final void logCommitAndFlush(long commitId) throws SQLException {
 		try {
+			long commitStartTime = System.nanoTime();
 			CommitAndFlushLogRecord rec = new CommitAndFlushLogRecord(commitId);
 			logQueue.put(rec);
 			rec.waitForFlush();
+			recordCommitLatency(commitStartTime);
 		} catch (InterruptedException e) {
 			Thread.interrupted();
 		}
 	}
 
+	@Override
+	protected final CompletableFuture<Void> logCommitAndFlushAsync(long commitId) throws SQLException {
+		long commitStartTime = System.nanoTime();
+		CompletableFuture<Void> onFlushed = new CompletableFuture<Void>();
+		onFlushed.thenRun(() -> recordCommitLatency(commitStartTime));
+		return enqueueAsyncFlush(new CommitAndFlushLogRecord(commitId, onFlushed), onFlushed);
+	}
+
 	protected final void logRollbackAndFlush(long commitId) throws SQLException {
 		try {
 			RollbackAndFlushLogRecord rec = new RollbackAndFlushLogRecord(commitId);
@@ -71,6 +75,11 @@ final class AsyncTxnLogger extends TxnLogger {
 	}
 
 
+	@Override
+	final long getLogQueueDepth() {
+		return logQueue.size();
+	}
+
 	@Override
 	final void log(long commitId, String sql, Object[] args) throws SQLException {
 		/*
@@ -113,12 +122,21 @@ final class AsyncTxnLogger extends TxnLogger {
 					executeLogBatch();
 					currentBatchLogCount = 0;
 				}
+				if (record instanceof DrainLogRecord) {
+					checkups();
+					closeCurrentLogSegment();
+					((DrainLogRecord) record).setFlushed();
+					break;
+				}
 				if (record instanceof FlushLogRecord) {
 					FlushLogRecord flushRecord = (FlushLogRecord) record;
+					traceCommitStage(flushRecord.commitId, CommitStage.LOG_DEQUEUED);
 					if (record instanceof CommitAndFlushLogRecord) {
 						logCommitTran(new CommandLogRecord(flushRecord.commitId, "COMMIT", null));
 						executeLogBatch();
+						traceCommitStage(flushRecord.commitId, CommitStage.LOG_BATCH_EXECUTED);
 						commitLogSegment();
+						traceCommitStage(flushRecord.commitId, CommitStage.LOG_SEGMENT_COMMITTED);
 						currentBatchLogCount = 0;
 						currentTxnLogCount = 0;
 						flushRecord.setFlushed();
@@ -134,7 +152,9 @@ final class AsyncTxnLogger extends TxnLogger {
 					} else {
 						if (currentBatchLogCount > 0) {
 							executeLogBatch();
+							traceCommitStage(flushRecord.commitId, CommitStage.LOG_BATCH_EXECUTED);
 							commitLogSegment();							
+							traceCommitStage(flushRecord.commitId, CommitStage.LOG_SEGMENT_COMMITTED);
 						}
 						flushRecord.setFlushed();
 					}
@@ -151,7 +171,7 @@ final class AsyncTxnLogger extends TxnLogger {
 				appendLogRecord(record);
 			} catch (InterruptedException e) {
 				try {
-					checkups();
+					//Device close ran past its deadline, leave the log segment switch to the next start of the device
 					closeCurrentLogSegment();					
 					break;
 				} catch (SQLException e1) {
@@ -161,6 +181,7 @@ final class AsyncTxnLogger extends TxnLogger {
 			} catch (Exception e) {
 				tracer.error("SyncLite Transactional Logger failed with exception : " +  e);
 				isHealthy.set(false);
+				failPendingFlushes(e);
 				break;
 			}
 		}
@@ -172,20 +193,66 @@ final class AsyncTxnLogger extends TxnLogger {
 	}
 
 
+	//Fail the futures of all async commits still queued once the logger thread is gone
+	private final void failPendingFlushes(Throwable cause) {
+		CommandLogRecord record;
+		while ((record = logQueue.poll()) != null) {
+			if (record instanceof FlushLogRecord) {
+				((FlushLogRecord) record).setFailed(cause);
+			}
+		}
+	}
+
+	private final CompletableFuture<Void> enqueueAsyncFlush(FlushLogRecord rec, CompletableFuture<Void> onFlushed) throws SQLException {
+		if (!isHealthy.get()) {
+			throw new SQLException("SyncLite logger is not healthy for device : " + dbPath + ". Please check device trace file for more details. Please close and initialize the device again.");
+		}
+		try {
+			logQueue.put(rec);
+		} catch (InterruptedException e) {
+			Thread.interrupted();
+		}
+		if (!isHealthy.get()) {
+			//Logger thread may have failed after it drained the queue
+			failPendingFlushes(new SQLException("SyncLite logger is not healthy for device : " + dbPath));
+		}
+		return onFlushed;
+	}
+
 	@Override
-	protected void terminateInternal() {
+	protected void terminateInternal(long deadlineNanos) {
 		//If thread is running then terminate
 		if (this.isAlive()) {
 			try {
-				//Wait until queue is drained
-				while(!logQueue.isEmpty()) {
-					Thread.sleep(1000);
+				//Let the logger thread drain the queue and close the log segment, bounded by the deadline
+				DrainLogRecord drainRecord = new DrainLogRecord();
+				long remainingMs = 0;
+				if (logQueue.offer(drainRecord, Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+					remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+					if (remainingMs > 0) {
+						join(remainingMs);
+					}
+				}
+				if (this.isAlive()) {
+					//Records still queued are given up. Txns they belong to are either not yet committed 
+					//on the device or get resolved by restart recovery on the next start of the device.
+					tracer.error("SyncLite logger for device " + dbPath + " did not drain within the device close timeout, " + logQueue.size() + " queued log records are given up");
+					interrupt();
+					remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+					join(Math.max(1, remainingMs));
+					if (this.isAlive()) {
+						//Logger thread closes the log segment by itself once its current statement returns
+						tracer.error("SyncLite logger for device " + dbPath + " did not stop within the device close timeout");
+					} else {
+						closeCurrentLogSegment();
+					}
 				}
-				interrupt();
-				join();
 			} catch (InterruptedException e) {
 				stop();
+			} catch (SQLException e) {
+				tracer.error("SyncLite log segment log segment could not be closed properly for device " + dbPath + ", failed with exception : " +  e);
 			}
+			failPendingFlushes(new SQLException("SyncLite device " + dbPath + " is closed"));
 		} else {
 			//Close current log segment
 			try {
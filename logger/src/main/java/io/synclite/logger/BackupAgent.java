@@ -36,10 +36,10 @@ class BackupAgent {
 	protected final HashMap<Integer, FSArchiver> archivers = new HashMap<Integer, FSArchiver>();
 
 	protected final MetadataManager metadataMgr;
-	protected long backupTaken;
+	protected volatile long backupTaken;
 	protected final SyncLiteOptions options;
 	protected ExecutorService backupExecutor;
-	protected long backupShipped;
+	protected volatile long backupShipped;
 	//protected SQLLogger sqlLogger;
 	protected final String dataBackupSuffix;
 	protected final Path dataBackupPath;
@@ -105,6 +105,10 @@ class BackupAgent {
 		backupExecutor.submit(this::backupAndShip);
 	}
 
+	final long getBackupTaken() {
+		return this.backupTaken;
+	}
+
 	final long getBackupShipped() {
 		return this.backupShipped;
 	}
@@ -197,14 +201,11 @@ class BackupAgent {
 		reader.processBackupDB(this.dataBackupPath, options);
 	}
 
-	final void terminate() {
+	final void terminate(long deadlineNanos) {
 		if ((backupExecutor != null) && (!backupExecutor.isTerminated())) {
 			backupExecutor.shutdown();
-			try {
-				backupExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-			} catch (InterruptedException e) {
-				//Ignore
-			}
+			//An interrupted backup is taken again on the next start as backup_shipped is not yet recorded
+			SyncLiteUtils.awaitTermination(backupExecutor, deadlineNanos);
 		}
 	}
 
@@ -347,7 +348,11 @@ class BackupAgent {
 		while(!Thread.interrupted()) {
 			try {
 				metadataMgr.updateProperty(propertyName, propertyValue);
-				this.backupShipped = 1L;
+				if (propertyName.equals("backup_taken")) {
+					this.backupTaken = propertyValue;
+				} else {
+					this.backupShipped = propertyValue;
+				}
 				break;
 			} catch (Exception e) {
 				this.tracer.error("SyncLite backup agent failed to update metadata property with exception : ", e);
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//
+//Immutable outcome of classifying a SQL string : its sub statements, each classified on its own, 
+//leading tokens, kind and the table name if it is a table DDL. The telemetry/appender syntax 
+//checks run only for devices asking for them, the first time they pass is remembered. 
+//Instances are shared across threads through SQLClassifier.
+//
+final class ClassifiedSQL {
+
+	private final String sql;
+	private final String strippedSql;
+	private final List<String> subSqls;
+	private final List<ClassifiedSQL> subStatements;
+	private final String[] tokens;
+	private final SQLKind kind;
+	private final String tableNameInDDL;
+	private volatile boolean validTelemetryAppenderSyntax;
+
+	ClassifiedSQL(String sql) {
+		this.sql = sql;
+		this.subSqls = Collections.unmodifiableList(SyncLiteUtils.splitSqls(sql));
+		//For a single statement, classify it without the trailing semicolon if any
+		this.strippedSql = (subSqls.size() == 1) ? subSqls.get(0).strip() : sql.strip();
+		this.tokens = tokenize(strippedSql);
+		this.kind = SQLKind.of(tokens);
+		this.tableNameInDDL = SyncLiteUtils.getTableNameFromDDL(sql);
+		List<ClassifiedSQL> subStatementList = new ArrayList<ClassifiedSQL>(subSqls.size());
+		for (String subSql : subSqls) {
+			subStatementList.add(subSql.equals(sql) ? this : new ClassifiedSQL(subSql));
+		}
+		this.subStatements = Collections.unmodifiableList(subStatementList);
+	}
+
+	//Same as strippedSql.split("\\s+") in one pass without a regex
+	private static String[] tokenize(String strippedSql) {
+		List<String> tokenList = new ArrayList<String>();
+		int start = -1;
+		for (int i = 0; i < strippedSql.length(); ++i) {
+			if (isWhitespace(strippedSql.charAt(i))) {
+				if (start >= 0) {
+					tokenList.add(strippedSql.substring(start, i));
+					start = -1;
+				}
+			} else if (start < 0) {
+				start = i;
+			}
+		}
+		if (start >= 0) {
+			tokenList.add(strippedSql.substring(start));
+		}
+		if (tokenList.isEmpty()) {
+			return new String[] { "" };
+		}
+		return tokenList.toArray(new String[tokenList.size()]);
+	}
+
+	private static boolean isWhitespace(char c) {
+		return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\r') || (c == '\f') || (c == '\u000B');
+	}
+
+	final String getSql() {
+		return sql;
+	}
+
+	final String getStrippedSql() {
+		return strippedSql;
+	}
+
+	final List<String> getSubSqls() {
+		return subSqls;
+	}
+
+	//Sub statements in the order of getSubSqls, a single statement is its own sub statement
+	final List<ClassifiedSQL> getSubStatements() {
+		return subStatements;
+	}
+
+	//Returns a copy, callers are free to modify it
+	final String[] getTokens() {
+		return tokens.clone();
+	}
+
+	final int getTokenCount() {
+		return tokens.length;
+	}
+
+	final SQLKind getKind() {
+		return kind;
+	}
+
+	final String getTableNameInDDL() {
+		return tableNameInDDL;
+	}
+
+	//
+	//Throws the same exception as the SyncLiteUtils validator for INSERT, UPDATE and DELETE 
+	//statements not in the syntax supported by telemetry and appender devices.
+	//
+	final void validateForTelemetryAndAppender() throws SQLException {
+		if (validTelemetryAppenderSyntax) {
+			return;
+		}
+		switch (kind) {
+		case INSERT:
+			SyncLiteUtils.validateInsertForTelemetryAndAppender(strippedSql);
+			break;
+		case UPDATE:
+			SyncLiteUtils.validateUpdateForTelemetryAndAppender(strippedSql);
+			break;
+		case DELETE:
+			SyncLiteUtils.validateDeleteForTelemetryAndAppender(strippedSql);
+			break;
+		default:
+			break;
+		}
+		validTelemetryAppenderSyntax = true;
+	}
+}
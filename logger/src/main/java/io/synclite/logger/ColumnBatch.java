@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+//
+//Columnar batch of rows for bulk appends on telemetry, streaming and appender devices.
+//Columns are added in the order of the positional args of the INSERT they are appended with.
+//Primitive columns are bound straight from their arrays on the logger side, no per row boxing
+//or JDBC parameter binding happens in the caller. An optional nulls array marks null values.
+//
+public final class ColumnBatch {
+
+	private final int rowCount;
+	private final List<Column> columns = new ArrayList<Column>();
+
+	public ColumnBatch(int rowCount) {
+		if (rowCount < 0) {
+			throw new IllegalArgumentException("SyncLite : Invalid row count " + rowCount + " specified for a column batch");
+		}
+		this.rowCount = rowCount;
+	}
+
+	public final ColumnBatch addColumn(long[] values) {
+		return addColumn(values, null);
+	}
+
+	public final ColumnBatch addColumn(long[] values, boolean[] nulls) {
+		checkLength(values.length, nulls);
+		columns.add(new LongColumn(values, nulls));
+		return this;
+	}
+
+	public final ColumnBatch addColumn(int[] values) {
+		return addColumn(values, null);
+	}
+
+	public final ColumnBatch addColumn(int[] values, boolean[] nulls) {
+		checkLength(values.length, nulls);
+		columns.add(new IntColumn(values, nulls));
+		return this;
+	}
+
+	public final ColumnBatch addColumn(double[] values) {
+		return addColumn(values, null);
+	}
+
+	public final ColumnBatch addColumn(double[] values, boolean[] nulls) {
+		checkLength(values.length, nulls);
+		columns.add(new DoubleColumn(values, nulls));
+		return this;
+	}
+
+	//Null elements are logged as NULL
+	public final ColumnBatch addColumn(String[] values) {
+		checkLength(values.length, null);
+		columns.add(new StringColumn(values));
+		return this;
+	}
+
+	//Null elements are logged as NULL
+	public final ColumnBatch addColumn(byte[][] values) {
+		checkLength(values.length, null);
+		columns.add(new BytesColumn(values));
+		return this;
+	}
+
+	//Any other type supported by the device, bound with setObject
+	public final ColumnBatch addColumn(Object[] values) {
+		checkLength(values.length, null);
+		columns.add(new ObjectColumn(values));
+		return this;
+	}
+
+	public final int getRowCount() {
+		return rowCount;
+	}
+
+	public final int getColumnCount() {
+		return columns.size();
+	}
+
+	private final void checkLength(int length, boolean[] nulls) {
+		if (length != rowCount) {
+			throw new IllegalArgumentException("SyncLite : Column with " + length + " values specified for a column batch of " + rowCount + " rows");
+		}
+		if ((nulls != null) && (nulls.length != rowCount)) {
+			throw new IllegalArgumentException("SyncLite : Nulls array with " + nulls.length + " values specified for a column batch of " + rowCount + " rows");
+		}
+	}
+
+	//Binds all columns of given row to pstmt parameters starting at firstParamIndex
+	final void bindRow(PreparedStatement pstmt, int row, int firstParamIndex) throws SQLException {
+		for (int col = 0; col < columns.size(); ++col) {
+			columns.get(col).bind(pstmt, row, firstParamIndex + col);
+		}
+	}
+
+	final Object[] getRow(int row) {
+		Object[] args = new Object[columns.size()];
+		for (int col = 0; col < columns.size(); ++col) {
+			args[col] = columns.get(col).get(row);
+		}
+		return args;
+	}
+
+	//Same estimate as SyncLiteUtils.estimateLogRecordSize for the args of given row
+	final long estimateRowSize(int row) {
+		long size = 0;
+		for (int col = 0; col < columns.size(); ++col) {
+			size += columns.get(col).estimateSize(row);
+		}
+		return size;
+	}
+
+	private static abstract class Column {
+		abstract void bind(PreparedStatement pstmt, int row, int paramIndex) throws SQLException;
+
+		abstract Object get(int row);
+
+		long estimateSize(int row) {
+			return 8;
+		}
+	}
+
+	private static final class LongColumn extends Column {
+		private final long[] values;
+		private final boolean[] nulls;
+
+		LongColumn(long[] values, boolean[] nulls) {
+			this.values = values;
+			this.nulls = nulls;
+		}
+
+		@Override
+		final void bind(PreparedStatement pstmt, int row, int paramIndex) throws SQLException {
+			if ((nulls != null) && nulls[row]) {
+				pstmt.setNull(paramIndex, Types.BIGINT);
+			} else {
+				pstmt.setLong(paramIndex, values[row]);
+			}
+		}
+
+		@Override
+		final Object get(int row) {
+			return ((nulls != null) && nulls[row]) ? null : values[row];
+		}
+	}
+
+	private static final class IntColumn extends Column {
+		private final int[] values;
+		private final boolean[] nulls;
+
+		IntColumn(int[] values, boolean[] nulls) {
+			this.values = values;
+			this.nulls = nulls;
+		}
+
+		@Override
+		final void bind(PreparedStatement pstmt, int row, int paramIndex) throws SQLException {
+			if ((nulls != null) && nulls[row]) {
+				pstmt.setNull(paramIndex, Types.INTEGER);
+			} else {
+				pstmt.setInt(paramIndex, values[row]);
+			}
+		}
+
+		@Override
+		final Object get(int row) {
+			return ((nulls != null) && nulls[row]) ? null : values[row];
+		}
+	}
+
+	private static final class DoubleColumn extends Column {
+		private final double[] values;
+		private final boolean[] nulls;
+
+		DoubleColumn(double[] values, boolean[] nulls) {
+			this.values = values;
+			this.nulls = nulls;
+		}
+
+		@Override
+		final void bind(PreparedStatement pstmt, int row, int paramIndex) throws SQLException {
+			if ((nulls != null) && nulls[row]) {
+				pstmt.setNull(paramIndex, Types.DOUBLE);
+			} else {
+				pstmt.setDouble(paramIndex, values[row]);
+			}
+		}
+
+		@Override
+		final Object get(int row) {
+			return ((nulls != null) && nulls[row]) ? null : values[row];
+		}
+	}
+
+	private static final class StringColumn extends Column {
+		private final String[] values;
+
+		StringColumn(String[] values) {
+			this.values = values;
+		}
+
+		@Override
+		final void bind(PreparedStatement pstmt, int row, int paramIndex) throws SQLException {
+			pstmt.setString(paramIndex, values[row]);
+		}
+
+		@Override
+		final Object get(int row) {
+			return values[row];
+		}
+
+		@Override
+		final long estimateSize(int row) {
+			return (values[row] == null) ? 1 : values[row].length();
+		}
+	}
+
+	private static final class BytesColumn extends Column {
+		private final byte[][] values;
+
+		BytesColumn(byte[][] values) {
+			this.values = values;
+		}
+
+		@Override
+		final void bind(PreparedStatement pstmt, int row, int paramIndex) throws SQLException {
+			pstmt.setBytes(paramIndex, values[row]);
+		}
+
+		@Override
+		final Object get(int row) {
+			return values[row];
+		}
+
+		@Override
+		final long estimateSize(int row) {
+			return (values[row] == null) ? 1 : values[row].length;
+		}
+	}
+
+	private static final class ObjectColumn extends Column {
+		private final Object[] values;
+
+		ObjectColumn(Object[] values) {
+			this.values = values;
+		}
+
+		@Override
+		final void bind(PreparedStatement pstmt, int row, int paramIndex) throws SQLException {
+			pstmt.setObject(paramIndex, values[row]);
+		}
+
+		@Override
+		final Object get(int row) {
+			return values[row];
+		}
+
+		@Override
+		final long estimateSize(int row) {
+			return SyncLiteUtils.estimateLogRecordSize(null, new Object[] { values[row] }) - 16;
+		}
+	}
+}
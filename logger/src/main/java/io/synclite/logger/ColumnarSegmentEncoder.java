@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+//
+//Moves runs of INSERT rows of a finished log segment into typed, compressed column blocks.
+//
+//A run is a sequence of commandlog rows with consecutive change numbers logged by the same INSERT statement
+//with the same argument count. A row with a null sql repeats the sql of the preceding record, be it a row or a block.
+//Each run becomes one block :
+//  commandlog_block(block_id, row_count, sql, arg_cnt) where block_id is the change number of the first row
+//  commandlog_block_column(block_id, column_index, encoding, null_count, min_value, max_value, data)
+//Row i of a block has change number block_id + i, column 0 holds the commit id of each row and column k the k-th argument.
+//
+//data is a null bitmap (only if null_count > 0, one bit per row, LSB first) followed by the non null values :
+//  NULL          : all values are null, no values
+//  RLE           : integers as (zigzag varint value, varint run length) pairs
+//  DELTA_BITPACK : integers as zigzag varint first value, zigzag varint min delta, bit width byte and 
+//                  (delta - min delta) of subsequent values bit packed LSB first
+//  DICTIONARY    : strings as varint entry count, (varint length, utf-8 bytes) per entry, bit width byte and
+//                  entry index of each value bit packed LSB first
+//  PLAIN         : doubles as 8 byte big endian IEEE 754, strings as (varint length, utf-8 bytes)
+//
+//Runs holding blobs or mixed value types, args stored in extended arg tables and the rows of the last txn of 
+//the log segment (which restart recovery may have to undo) are left as rows.
+//
+final class ColumnarSegmentEncoder {
+
+	private static final int MIN_BLOCK_ROWS = 64;
+	private static final int MAX_BLOCK_ROWS = 65536;
+	private static final String createBlockTableSql = "CREATE TABLE IF NOT EXISTS commandlog_block(block_id INTEGER PRIMARY KEY, row_count INTEGER, sql TEXT, arg_cnt INTEGER)";
+	private static final String createBlockColumnTableSql = "CREATE TABLE IF NOT EXISTS commandlog_block_column(block_id INTEGER, column_index INTEGER, encoding TEXT, null_count INTEGER, min_value, max_value, data BLOB, PRIMARY KEY(block_id, column_index))";
+	private static final String insertBlockSql = "INSERT INTO commandlog_block(block_id, row_count, sql, arg_cnt) VALUES(?, ?, ?, ?)";
+	private static final String insertBlockColumnSql = "INSERT INTO commandlog_block_column(block_id, column_index, encoding, null_count, min_value, max_value, data) VALUES(?, ?, ?, ?, ?, ?, ?)";
+	private static final String deleteEncodedRowsSql = "DELETE FROM commandlog WHERE change_number >= ? AND change_number < ?";
+	private static final String updateEncodingSql = "INSERT OR REPLACE INTO metadata(key, value) VALUES('encoding', '" + LogSegmentEncoding.COLUMNAR + "')";
+
+	private ColumnarSegmentEncoder() {
+	}
+
+	private static final class Run {
+		private final long startChangeNumber;
+		private final String sql;
+		private final int argCnt;
+		private final List<Object[]> rows = new ArrayList<Object[]>();
+
+		private Run(long startChangeNumber, String sql, int argCnt) {
+			this.startChangeNumber = startChangeNumber;
+			this.sql = sql;
+			this.argCnt = argCnt;
+		}
+
+		private final long nextChangeNumber() {
+			return startChangeNumber + rows.size();
+		}
+	}
+
+	private static final class EncodedColumn {
+		private String encoding;
+		private long nullCount;
+		private Object minValue;
+		private Object maxValue;
+		private byte[] data;
+	}
+
+	//
+	//Returns the number of rows moved into column blocks, caller commits or rolls back.
+	//
+	static final long encode(Connection conn, long inlinedArgCnt) throws SQLException {
+		long lastCommitId;
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT commit_id FROM commandlog ORDER BY change_number DESC LIMIT 1")) {
+				if (!rs.next()) {
+					return 0;
+				}
+				lastCommitId = rs.getLong(1);
+			}
+			stmt.execute(createBlockTableSql);
+			stmt.execute(createBlockColumnTableSql);
+		}
+
+		long encodedRows = 0;
+		List<long[]> encodedRanges = new ArrayList<long[]>();
+		try (Statement stmt = conn.createStatement();
+				PreparedStatement insertBlockPstmt = conn.prepareStatement(insertBlockSql);
+				PreparedStatement insertBlockColumnPstmt = conn.prepareStatement(insertBlockColumnSql)) {
+			String selectSql = "SELECT change_number, commit_id, sql, arg_cnt" + ((inlinedArgCnt > 0) ? ", " + SyncLiteUtils.prepareArgList(inlinedArgCnt) : "") + " FROM commandlog ORDER BY change_number";
+			try (ResultSet rs = stmt.executeQuery(selectSql)) {
+				Run run = null;
+				String prevSql = null;
+				while (rs.next()) {
+					long changeNumber = rs.getLong(1);
+					long commitId = rs.getLong(2);
+					String loggedSql = rs.getString(3);
+					String sql = (loggedSql != null) ? loggedSql : prevSql;
+					prevSql = sql;
+					int argCnt = rs.getInt(4);
+					boolean eligible = (sql != null) && (commitId != lastCommitId) && (argCnt > 0) && (argCnt <= inlinedArgCnt);
+					boolean extendsRun = eligible && (run != null) && (changeNumber == run.nextChangeNumber()) && (argCnt == run.argCnt) && sql.equals(run.sql) && (run.rows.size() < MAX_BLOCK_ROWS);
+					if (!extendsRun) {
+						encodedRows += writeBlock(run, insertBlockPstmt, insertBlockColumnPstmt, encodedRanges);
+						run = null;
+						if (!eligible || (SQLClassifier.classify(sql).getKind() != SQLKind.INSERT)) {
+							continue;
+						}
+						run = new Run(changeNumber, sql, argCnt);
+					}
+					Object[] values = new Object[argCnt + 1];
+					values[0] = commitId;
+					for (int i = 1; i <= argCnt; ++i) {
+						values[i] = rs.getObject(i + 4);
+					}
+					run.rows.add(values);
+				}
+				encodedRows += writeBlock(run, insertBlockPstmt, insertBlockColumnPstmt, encodedRanges);
+			}
+		}
+
+		if (encodedRows > 0) {
+			try (PreparedStatement deletePstmt = conn.prepareStatement(deleteEncodedRowsSql)) {
+				for (long[] range : encodedRanges) {
+					deletePstmt.setLong(1, range[0]);
+					deletePstmt.setLong(2, range[1]);
+					deletePstmt.addBatch();
+				}
+				deletePstmt.executeBatch();
+			}
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(updateEncodingSql);
+			}
+		}
+		return encodedRows;
+	}
+
+	private static final long writeBlock(Run run, PreparedStatement insertBlockPstmt, PreparedStatement insertBlockColumnPstmt, List<long[]> encodedRanges) throws SQLException {
+		if ((run == null) || (run.rows.size() < MIN_BLOCK_ROWS)) {
+			return 0;
+		}
+		EncodedColumn[] columns = new EncodedColumn[run.argCnt + 1];
+		for (int col = 0; col <= run.argCnt; ++col) {
+			columns[col] = encodeColumn(run.rows, col);
+			if (columns[col] == null) {
+				//Unsupported value types, leave the run as rows
+				return 0;
+			}
+		}
+
+		insertBlockPstmt.setLong(1, run.startChangeNumber);
+		insertBlockPstmt.setInt(2, run.rows.size());
+		insertBlockPstmt.setString(3, run.sql);
+		insertBlockPstmt.setInt(4, run.argCnt);
+		insertBlockPstmt.execute();
+		for (int col = 0; col <= run.argCnt; ++col) {
+			insertBlockColumnPstmt.setLong(1, run.startChangeNumber);
+			insertBlockColumnPstmt.setInt(2, col);
+			insertBlockColumnPstmt.setString(3, columns[col].encoding);
+			insertBlockColumnPstmt.setLong(4, columns[col].nullCount);
+			insertBlockColumnPstmt.setObject(5, columns[col].minValue);
+			insertBlockColumnPstmt.setObject(6, columns[col].maxValue);
+			insertBlockColumnPstmt.setBytes(7, columns[col].data);
+			insertBlockColumnPstmt.addBatch();
+		}
+		insertBlockColumnPstmt.executeBatch();
+		encodedRanges.add(new long[] { run.startChangeNumber, run.nextChangeNumber() });
+		return run.rows.size();
+	}
+
+	private static final EncodedColumn encodeColumn(List<Object[]> rows, int col) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EncodedColumn column = new EncodedColumn();
+		List<Object> values = new ArrayList<Object>(rows.size());
+		boolean allIntegers = true;
+		boolean allDoubles = true;
+		boolean allStrings = true;
+		for (Object[] row : rows) {
+			Object value = row[col];
+			if (value == null) {
+				++column.nullCount;
+				continue;
+			}
+			allIntegers &= (value instanceof Long) || (value instanceof Integer);
+			allDoubles &= (value instanceof Double);
+			allStrings &= (value instanceof String);
+			values.add(value);
+		}
+
+		if (column.nullCount > 0) {
+			byte[] nullBitmap = new byte[(rows.size() + 7) / 8];
+			for (int i = 0; i < rows.size(); ++i) {
+				if (rows.get(i)[col] == null) {
+					nullBitmap[i / 8] |= (byte) (1 << (i % 8));
+				}
+			}
+			out.write(nullBitmap, 0, nullBitmap.length);
+		}
+
+		if (values.isEmpty()) {
+			column.encoding = "NULL";
+		} else if (allIntegers) {
+			long[] longs = new long[values.size()];
+			for (int i = 0; i < longs.length; ++i) {
+				longs[i] = ((Number) values.get(i)).longValue();
+			}
+			encodeIntegers(longs, column, out);
+		} else if (allDoubles) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (Object value : values) {
+				double d = (Double) value;
+				min = Math.min(min, d);
+				max = Math.max(max, d);
+				long bits = Double.doubleToLongBits(d);
+				for (int shift = 56; shift >= 0; shift -= 8) {
+					out.write((int) (bits >>> shift));
+				}
+			}
+			column.encoding = "PLAIN";
+			column.minValue = min;
+			column.maxValue = max;
+		} else if (allStrings) {
+			encodeStrings(values, column, out);
+		} else {
+			return null;
+		}
+		column.data = out.toByteArray();
+		return column;
+	}
+
+	private static final void encodeIntegers(long[] values, EncodedColumn column, ByteArrayOutputStream out) {
+		long min = values[0];
+		long max = values[0];
+		int runCnt = 1;
+		for (int i = 1; i < values.length; ++i) {
+			min = Math.min(min, values[i]);
+			max = Math.max(max, values[i]);
+			if (values[i] != values[i - 1]) {
+				++runCnt;
+			}
+		}
+		column.minValue = min;
+		column.maxValue = max;
+
+		if (runCnt * 4 <= values.length) {
+			column.encoding = "RLE";
+			int runStart = 0;
+			for (int i = 1; i <= values.length; ++i) {
+				if ((i == values.length) || (values[i] != values[runStart])) {
+					writeVarLong(out, zigZag(values[runStart]));
+					writeVarLong(out, i - runStart);
+					runStart = i;
+				}
+			}
+			return;
+		}
+
+		column.encoding = "DELTA_BITPACK";
+		long minDelta = Long.MAX_VALUE;
+		for (int i = 1; i < values.length; ++i) {
+			minDelta = Math.min(minDelta, values[i] - values[i - 1]);
+		}
+		if (minDelta == Long.MAX_VALUE) {
+			minDelta = 0;
+		}
+		long[] packed = new long[values.length - 1];
+		long maxPacked = 0;
+		for (int i = 1; i < values.length; ++i) {
+			//Wraps around on overflow, decoding adds back with the same wrap around
+			packed[i - 1] = (values[i] - values[i - 1]) - minDelta;
+			if (Long.compareUnsigned(packed[i - 1], maxPacked) > 0) {
+				maxPacked = packed[i - 1];
+			}
+		}
+		int bitWidth = 64 - Long.numberOfLeadingZeros(maxPacked);
+		writeVarLong(out, zigZag(values[0]));
+		writeVarLong(out, zigZag(minDelta));
+		out.write(bitWidth);
+		writeBitPacked(out, packed, bitWidth);
+	}
+
+	private static final void encodeStrings(List<Object> values, EncodedColumn column, ByteArrayOutputStream out) {
+		LinkedHashMap<String, Integer> dictionary = new LinkedHashMap<String, Integer>();
+		String min = (String) values.get(0);
+		String max = min;
+		for (Object value : values) {
+			String s = (String) value;
+			if (s.compareTo(min) < 0) {
+				min = s;
+			}
+			if (s.compareTo(max) > 0) {
+				max = s;
+			}
+			dictionary.putIfAbsent(s, dictionary.size());
+		}
+		column.minValue = min;
+		column.maxValue = max;
+
+		if (dictionary.size() * 2 <= values.size()) {
+			column.encoding = "DICTIONARY";
+			writeVarLong(out, dictionary.size());
+			for (String entry : dictionary.keySet()) {
+				writeString(out, entry);
+			}
+			long[] indexes = new long[values.size()];
+			for (int i = 0; i < indexes.length; ++i) {
+				indexes[i] = dictionary.get((String) values.get(i));
+			}
+			int bitWidth = 64 - Long.numberOfLeadingZeros(dictionary.size() - 1);
+			out.write(bitWidth);
+			writeBitPacked(out, indexes, bitWidth);
+		} else {
+			column.encoding = "PLAIN";
+			for (Object value : values) {
+				writeString(out, (String) value);
+			}
+		}
+	}
+
+	private static final long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static final void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static final void writeString(ByteArrayOutputStream out, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static final void writeBitPacked(ByteArrayOutputStream out, long[] values, int bitWidth) {
+		if (bitWidth == 0) {
+			return;
+		}
+		int acc = 0;
+		int accBits = 0;
+		for (long value : values) {
+			for (int bit = 0; bit < bitWidth; ++bit) {
+				acc |= (int) ((value >>> bit) & 1L) << accBits;
+				if (++accBits == 8) {
+					out.write(acc);
+					acc = 0;
+					accBits = 0;
+				}
+			}
+		}
+		if (accBits > 0) {
+			out.write(acc);
+		}
+	}
+}
@@ -40,6 +40,8 @@ public class CommandHandler {
     protected final FSArchiver reader;
     protected final ScheduledExecutorService cmdHandlerService;
     protected final Integer destIndex;
+    //Timestamp of the oldest command seen but not yet processed, -1 if none
+    private volatile long oldestPendingCommandTS = -1L;
 
     CommandHandler(Path dbPath, String readArchieveName, MetadataManager metadataMgr, SyncLiteOptions options, Integer destIndex, Logger tracer) throws SQLException {
         this.readArchieveName = readArchieveName;
@@ -94,6 +96,7 @@ public class CommandHandler {
         try {
         	List<Path> commandFiles = this.reader.getObjectsInReadArchive();
         	if ((commandFiles == null) || (commandFiles.isEmpty())) {
+        		this.oldestPendingCommandTS = -1L;
         		return;
         	}
 			TreeMap<Long, List<Object>> cmdsToExecute = new TreeMap<Long, List<Object>>();
@@ -117,6 +120,9 @@ public class CommandHandler {
 				}
 			}
 			
+			Long firstPendingTS = cmdsToExecute.higherKey(lastProcessedCommandTS.get());
+			this.oldestPendingCommandTS = (firstPendingTS == null) ? -1L : firstPendingTS;
+
 			//Execute cmds in order of cmdTS
 			String commandHandler = options.getExternalCommandHandler();
 			for (Map.Entry<Long, List<Object>> entry : cmdsToExecute.entrySet()) {
@@ -145,20 +151,23 @@ public class CommandHandler {
 	                this.lastProcessedCommandTS.set(cmdTS);
 				}
 			}
+			this.oldestPendingCommandTS = -1L;
         } catch (Exception e) {
         	tracer.error("SyncLite CommandHandler failed to handle commands with exception : ", e);
         	//We will keep retrying
         }
     }
     
-    final void terminate() {
+    //How long the oldest pending command has been waiting, command timestamps are epoch millis
+    final long getCommandLagMs() {
+    	long pendingTS = this.oldestPendingCommandTS;
+    	return (pendingTS < 0) ? 0 : Math.max(0, System.currentTimeMillis() - pendingTS);
+    }
+
+    final void terminate(long deadlineNanos) {
     	if ((cmdHandlerService != null) && (!cmdHandlerService.isTerminated())) {
     		cmdHandlerService.shutdown();
-    		try {
-    			cmdHandlerService.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-    		} catch (InterruptedException e) {
-    			//Ignore
-    		}
+    		SyncLiteUtils.awaitTermination(cmdHandlerService, deadlineNanos);
     		//Terminate archivers
     		
     		if (reader != null) {
@@ -16,10 +16,16 @@
 
 package io.synclite.logger;
 
+import java.util.concurrent.CompletableFuture;
+
 public class CommitAndFlushLogRecord extends FlushLogRecord {
 
 	CommitAndFlushLogRecord(long commitId) {
 		super(commitId);
 	}
 
+	CommitAndFlushLogRecord(long commitId, CompletableFuture<Void> onFlushed) {
+		super(commitId, onFlushed);
+	}
+
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+//
+//Stages of a traced commit in the order they are reached. LOG_* stages are the flush of the 
+//txn's log records ahead of the database commit and COMMIT_LOG_* are the same stages for the 
+//COMMIT record logged after it. Event devices only go up to DB_COMMITTED. 
+//
+public enum CommitStage {
+	RECORD_COMMIT,
+	LOG_DEQUEUED,
+	LOG_BATCH_EXECUTED,
+	LOG_SEGMENT_COMMITTED,
+	LOG_FLUSHED,
+	DB_COMMITTED,
+	COMMIT_LOG_DEQUEUED,
+	COMMIT_LOG_BATCH_EXECUTED,
+	COMMIT_LOG_SEGMENT_COMMITTED,
+	COMMIT_LOGGED
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+//
+//Per stage timestamps of one sampled commit. Logger side stages may be recorded on the logger 
+//thread, they are visible to the committing thread once the flush it waits on completes.
+//
+public final class CommitTrace {
+
+	private static final long NOT_REACHED = -1L;
+
+	private final Path devicePath;
+	private final long commitId;
+	private final long startTime;
+	private final long startNanos;
+	private final long[] stageNanos = new long[CommitStage.values().length];
+	private long endNanos = NOT_REACHED;
+
+	CommitTrace(Path devicePath, long commitId) {
+		this.devicePath = devicePath;
+		this.commitId = commitId;
+		this.startTime = System.currentTimeMillis();
+		for (int i = 0; i < stageNanos.length; ++i) {
+			stageNanos[i] = NOT_REACHED;
+		}
+		this.startNanos = System.nanoTime();
+	}
+
+	final void mark(CommitStage stage) {
+		stageNanos[stage.ordinal()] = System.nanoTime();
+	}
+
+	//Log stages reached after the database commit belong to the COMMIT record
+	final void markLog(CommitStage stage) {
+		if (stageNanos[CommitStage.DB_COMMITTED.ordinal()] == NOT_REACHED) {
+			mark(stage);
+			return;
+		}
+		switch (stage) {
+		case LOG_DEQUEUED:
+			mark(CommitStage.COMMIT_LOG_DEQUEUED);
+			break;
+		case LOG_BATCH_EXECUTED:
+			mark(CommitStage.COMMIT_LOG_BATCH_EXECUTED);
+			break;
+		case LOG_SEGMENT_COMMITTED:
+			mark(CommitStage.COMMIT_LOG_SEGMENT_COMMITTED);
+			break;
+		default:
+			mark(stage);
+		}
+	}
+
+	final void end() {
+		this.endNanos = System.nanoTime();
+	}
+
+	public final Path getDevicePath() {
+		return devicePath;
+	}
+
+	public final long getCommitId() {
+		return commitId;
+	}
+
+	//Wall clock time the commit started at, in epoch millis
+	public final long getStartTime() {
+		return startTime;
+	}
+
+	public final long getTotalNanos() {
+		return (endNanos == NOT_REACHED) ? NOT_REACHED : endNanos - startNanos;
+	}
+
+	public final boolean isReached(CommitStage stage) {
+		return stageNanos[stage.ordinal()] != NOT_REACHED;
+	}
+
+	//Time spent since the previous reached stage (or the commit start), -1 if the stage was not reached
+	public final long getStageNanos(CommitStage stage) {
+		long at = stageNanos[stage.ordinal()];
+		if (at == NOT_REACHED) {
+			return NOT_REACHED;
+		}
+		long prev = startNanos;
+		for (int i = stage.ordinal() - 1; i >= 0; --i) {
+			if (stageNanos[i] != NOT_REACHED) {
+				prev = stageNanos[i];
+				break;
+			}
+		}
+		return at - prev;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("commit_id=").append(commitId);
+		builder.append(" device=").append(devicePath);
+		builder.append(" total_us=").append(TimeUnit.NANOSECONDS.toMicros(getTotalNanos()));
+		for (CommitStage stage : CommitStage.values()) {
+			if (isReached(stage)) {
+				builder.append(" ").append(stage.toString().toLowerCase()).append("_us=");
+				builder.append(TimeUnit.NANOSECONDS.toMicros(getStageNanos(stage)));
+			}
+		}
+		return builder.toString();
+	}
+}
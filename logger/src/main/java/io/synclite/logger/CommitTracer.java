@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.Logger;
+
+//
+//Samples one in every commit-trace-sampling-interval commits of a device. In flight traces are 
+//looked up by commit id from the logger side, completed ones go to the listener (if any) and 
+//to a fixed size ring buffer of the most recent traces.
+//
+final class CommitTracer {
+
+	private final Path dbPath;
+	private final long samplingInterval;
+	private final AtomicLong commitCount = new AtomicLong(0);
+	private final ConcurrentHashMap<Long, CommitTrace> activeTraces = new ConcurrentHashMap<Long, CommitTrace>();
+	private final AtomicReferenceArray<CommitTrace> recentTraces;
+	private final AtomicLong recentTraceCount = new AtomicLong(0);
+	private final CommitTraceListener listener;
+	private final Logger tracer;
+
+	private CommitTracer(Path dbPath, SyncLiteOptions options, Logger tracer) {
+		this.dbPath = dbPath;
+		this.samplingInterval = options.getCommitTraceSamplingInterval();
+		this.recentTraces = new AtomicReferenceArray<CommitTrace>(options.getCommitTraceBufferSize());
+		this.listener = options.getCommitTraceListener();
+		this.tracer = tracer;
+	}
+
+	//Returns null when commit tracing is disabled for the device
+	static final CommitTracer create(Path dbPath, SyncLiteOptions options, Logger tracer) {
+		if (options.getCommitTraceSamplingInterval() <= 0) {
+			return null;
+		}
+		return new CommitTracer(dbPath, options, tracer);
+	}
+
+	final CommitTrace begin(long commitId) {
+		if ((commitCount.getAndIncrement() % samplingInterval) != 0) {
+			return null;
+		}
+		CommitTrace trace = new CommitTrace(dbPath, commitId);
+		activeTraces.put(commitId, trace);
+		return trace;
+	}
+
+	final void mark(long commitId, CommitStage stage) {
+		if (activeTraces.isEmpty()) {
+			return;
+		}
+		CommitTrace trace = activeTraces.get(commitId);
+		if (trace != null) {
+			trace.markLog(stage);
+		}
+	}
+
+	final void end(CommitTrace trace) {
+		trace.end();
+		activeTraces.remove(trace.getCommitId());
+		long slot = recentTraceCount.getAndIncrement() % recentTraces.length();
+		recentTraces.set((int) slot, trace);
+		if (listener != null) {
+			try {
+				listener.onCommitTrace(trace);
+			} catch (Exception e) {
+				tracer.error("SyncLite commit trace listener failed with exception : ", e);
+			}
+		}
+	}
+
+	//Oldest first
+	final List<CommitTrace> getRecentTraces() {
+		int size = recentTraces.length();
+		long count = recentTraceCount.get();
+		List<CommitTrace> traces = new ArrayList<CommitTrace>();
+		for (long i = Math.max(0, count - size); i < count; ++i) {
+			CommitTrace trace = recentTraces.get((int) (i % size));
+			if (trace != null) {
+				traces.add(trace);
+			}
+		}
+		return traces;
+	}
+}
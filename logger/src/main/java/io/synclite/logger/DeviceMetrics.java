@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+//
+//Per device metrics, created only when enable-metrics is set so that the logging hot path 
+//pays a null check otherwise. Hot path recording is limited to LongAdder increments and
+//LatencyHistogram records, everything else is read on demand from the logger components.
+//
+public final class DeviceMetrics implements DeviceMetricsMBean {
+
+	private static final String JMX_DOMAIN = "io.synclite.logger";
+
+	private final SQLLogger sqlLogger;
+	private final Rate logRecords = new Rate();
+	private final Rate logBatches = new Rate();
+	private final LatencyHistogram commitLatency = new LatencyHistogram();
+	private final LatencyHistogram logSegmentSwitchLatency = new LatencyHistogram();
+	private volatile long lastLogSegmentBytes;
+	private ObjectName objectName;
+	private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<MetricsExporter>();
+
+	DeviceMetrics(SQLLogger sqlLogger) {
+		this.sqlLogger = sqlLogger;
+	}
+
+	final void recordLogRecord() {
+		logRecords.mark();
+	}
+
+	final void recordLogRecords(long n) {
+		logRecords.mark(n);
+	}
+
+	final void recordLogBatch() {
+		logBatches.mark();
+	}
+
+	final void recordCommit(long startNanos) {
+		commitLatency.recordSince(startNanos);
+	}
+
+	final void recordLogSegmentSwitch(long startNanos, long finishedLogSegmentBytes) {
+		logSegmentSwitchLatency.recordSince(startNanos);
+		this.lastLogSegmentBytes = finishedLogSegmentBytes;
+	}
+
+	final void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			this.objectName = new ObjectName(JMX_DOMAIN + ":type=Device,name=" + ObjectName.quote(sqlLogger.dbPath.toString()));
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(this, objectName);
+			}
+		} catch (Exception e) {
+			sqlLogger.tracer.error("SyncLite failed to register metrics MBean for device : " + sqlLogger.dbPath, e);
+			this.objectName = null;
+		}
+		try {
+			for (MetricsExporter exporter : ServiceLoader.load(MetricsExporter.class)) {
+				exporter.register(this);
+				exporters.add(exporter);
+			}
+		} catch (Exception e) {
+			sqlLogger.tracer.error("SyncLite failed to register metrics exporters for device : " + sqlLogger.dbPath, e);
+		}
+	}
+
+	final void unregister() {
+		for (MetricsExporter exporter : exporters) {
+			try {
+				exporter.unregister(this);
+			} catch (Exception e) {
+				sqlLogger.tracer.error("SyncLite failed to unregister metrics exporter for device : " + sqlLogger.dbPath, e);
+			}
+		}
+		exporters.clear();
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (Exception e) {
+				//Ignore
+			}
+			objectName = null;
+		}
+	}
+
+	public final void describe(MetricsVisitor visitor) {
+		Map<String, String> deviceTags = Collections.singletonMap("device", getDevicePath());
+		visitor.gauge("synclite.logger.queue.depth", deviceTags, this::getLogQueueDepth);
+		visitor.counter("synclite.logger.records", deviceTags, this::getLogRecordCount);
+		visitor.counter("synclite.logger.batches", deviceTags, this::getLogBatchCount);
+		visitor.histogram("synclite.logger.commit.latency", deviceTags, commitLatency);
+		visitor.histogram("synclite.logger.segment.switch.latency", deviceTags, logSegmentSwitchLatency);
+		visitor.gauge("synclite.logger.segment.sequence", deviceTags, this::getLogSegmentSequenceNumber);
+		visitor.gauge("synclite.logger.segment.bytes", deviceTags, this::getCurrentLogSegmentBytes);
+		visitor.gauge("synclite.logger.segment.last.bytes", deviceTags, this::getLastLogSegmentBytes);
+		visitor.gauge("synclite.cleaner.cleaned.sequence", deviceTags, this::getCleanedLogSegmentSequenceNumber);
+		visitor.gauge("synclite.backup.taken", deviceTags, () -> isBackupTaken() ? 1 : 0);
+		visitor.gauge("synclite.backup.shipped", deviceTags, () -> isBackupShipped() ? 1 : 0);
+		for (LogShipper shipper : sqlLogger.logShippers) {
+			Map<String, String> destTags = destinationTags(shipper.destIndex);
+			visitor.gauge("synclite.shipper.shipped.sequence", destTags, () -> shipper.getShippedLogSegmentSequenceNumber());
+			visitor.gauge("synclite.shipper.lag.segments", destTags, shipper::getLogSegmentBacklog);
+			visitor.gauge("synclite.shipper.lag.seconds", destTags, () -> shipper.getShippingLagMs() / 1000.0);
+			visitor.counter("synclite.shipper.bytes", destTags, shipper::getBytesShipped);
+		}
+		for (CommandHandler cmdHandler : sqlLogger.cmdHandlers) {
+			visitor.gauge("synclite.command.handler.lag.seconds", destinationTags(cmdHandler.destIndex), () -> cmdHandler.getCommandLagMs() / 1000.0);
+		}
+	}
+
+	private final Map<String, String> destinationTags(Integer destIndex) {
+		Map<String, String> tags = new HashMap<String, String>();
+		tags.put("device", getDevicePath());
+		tags.put("destination", String.valueOf(destIndex));
+		return tags;
+	}
+
+	@Override
+	public final String getDevicePath() {
+		return sqlLogger.dbPath.toString();
+	}
+
+	@Override
+	public final long getLogQueueDepth() {
+		return sqlLogger.getLogQueueDepth();
+	}
+
+	@Override
+	public final long getLogRecordCount() {
+		return logRecords.getCount();
+	}
+
+	@Override
+	public final double getLogRecordsPerSec() {
+		return logRecords.getRate();
+	}
+
+	@Override
+	public final long getLogBatchCount() {
+		return logBatches.getCount();
+	}
+
+	@Override
+	public final double getLogBatchesPerSec() {
+		return logBatches.getRate();
+	}
+
+	@Override
+	public final long getCommitCount() {
+		return commitLatency.getCount();
+	}
+
+	@Override
+	public final long getCommitLatencyP50Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(commitLatency.getPercentileNanos(50));
+	}
+
+	@Override
+	public final long getCommitLatencyP99Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(commitLatency.getPercentileNanos(99));
+	}
+
+	@Override
+	public final long getCommitLatencyMaxMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(commitLatency.getMaxNanos());
+	}
+
+	@Override
+	public final long getLogSegmentSwitchCount() {
+		return logSegmentSwitchLatency.getCount();
+	}
+
+	@Override
+	public final long getLogSegmentSwitchP99Micros() {
+		return TimeUnit.NANOSECONDS.toMicros(logSegmentSwitchLatency.getPercentileNanos(99));
+	}
+
+	@Override
+	public final long getLogSegmentSequenceNumber() {
+		return sqlLogger.getCurrentLogSegmentSequenceNumber();
+	}
+
+	@Override
+	public final long getCurrentLogSegmentBytes() {
+		return sqlLogger.logSegmentByteCount;
+	}
+
+	@Override
+	public final long getLastLogSegmentBytes() {
+		return lastLogSegmentBytes;
+	}
+
+	@Override
+	public final long[] getShippedLogSegmentSequenceNumbers() {
+		return perDestination(LogShipper::getShippedLogSegmentSequenceNumber);
+	}
+
+	@Override
+	public final long getCleanedLogSegmentSequenceNumber() {
+		if (sqlLogger.logCleaner != null) {
+			return sqlLogger.logCleaner.getCleanedLogSegmentSequenceNumber();
+		}
+		//A single destination LogMover cleans as it ships
+		long cleaned = -1;
+		for (LogShipper shipper : sqlLogger.logShippers) {
+			cleaned = shipper.getShippedLogSegmentSequenceNumber();
+		}
+		return cleaned;
+	}
+
+	@Override
+	public final long[] getShippingLagSegments() {
+		return perDestination(LogShipper::getLogSegmentBacklog);
+	}
+
+	@Override
+	public final long[] getShippingLagMs() {
+		return perDestination(LogShipper::getShippingLagMs);
+	}
+
+	@Override
+	public final long[] getBytesShipped() {
+		return perDestination(LogShipper::getBytesShipped);
+	}
+
+	@Override
+	public final boolean isBackupTaken() {
+		BackupAgent backupAgent = sqlLogger.backupAgent;
+		return (backupAgent == null) || (backupAgent.getBackupTaken() == 1);
+	}
+
+	@Override
+	public final boolean isBackupShipped() {
+		BackupAgent backupAgent = sqlLogger.backupAgent;
+		return (backupAgent == null) || (backupAgent.getBackupShipped() == 1);
+	}
+
+	@Override
+	public final long[] getCommandHandlerLagMs() {
+		List<CommandHandler> cmdHandlers = sqlLogger.cmdHandlers;
+		long[] values = new long[cmdHandlers.size()];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = cmdHandlers.get(i).getCommandLagMs();
+		}
+		return values;
+	}
+
+	private final long[] perDestination(ToLongFunction<LogShipper> fn) {
+		List<LogShipper> shippers = sqlLogger.logShippers;
+		long[] values = new long[shippers.size()];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = fn.applyAsLong(shippers.get(i));
+		}
+		return values;
+	}
+
+	//
+	//Event counter with a rate computed over the interval since the previous rate read, 
+	//at least one second apart.
+	//
+	private static final class Rate {
+		private final LongAdder count = new LongAdder();
+		private long lastCount;
+		private long lastNanos = System.nanoTime();
+		private double lastRate;
+
+		final void mark() {
+			count.increment();
+		}
+
+		final void mark(long n) {
+			count.add(n);
+		}
+
+		final long getCount() {
+			return count.sum();
+		}
+
+		final synchronized double getRate() {
+			long now = System.nanoTime();
+			long elapsed = now - lastNanos;
+			if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+				long current = count.sum();
+				lastRate = (current - lastCount) * 1000000000.0 / elapsed;
+				lastCount = current;
+				lastNanos = now;
+			}
+			return lastRate;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+//
+//JMX view of DeviceMetrics, registered as io.synclite.logger:type=Device,name=<db path>
+//Per destination values are indexed by destination index - 1.
+//
+public interface DeviceMetricsMBean {
+
+	String getDevicePath();
+
+	long getLogQueueDepth();
+
+	long getLogRecordCount();
+
+	double getLogRecordsPerSec();
+
+	long getLogBatchCount();
+
+	double getLogBatchesPerSec();
+
+	long getCommitCount();
+
+	long getCommitLatencyP50Micros();
+
+	long getCommitLatencyP99Micros();
+
+	long getCommitLatencyMaxMicros();
+
+	long getLogSegmentSwitchCount();
+
+	long getLogSegmentSwitchP99Micros();
+
+	long getLogSegmentSequenceNumber();
+
+	long getCurrentLogSegmentBytes();
+
+	long getLastLogSegmentBytes();
+
+	long[] getShippedLogSegmentSequenceNumbers();
+
+	long getCleanedLogSegmentSequenceNumber();
+
+	long[] getShippingLagSegments();
+
+	long[] getShippingLagMs();
+
+	long[] getBytesShipped();
+
+	boolean isBackupTaken();
+
+	boolean isBackupShipped();
+
+	long[] getCommandHandlerLagMs();
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.nio.file.Path;
+
+//
+//One device to bring up with SyncLite.initializeAll, mirrors the arguments of SyncLite.initialize.
+//
+public final class DeviceSpec {
+
+	private final DeviceType deviceType;
+	private final Path dbPath;
+	private final SyncLiteOptions options;
+	private final Path propsPath;
+	private final String deviceName;
+
+	public DeviceSpec(DeviceType deviceType, Path dbPath) {
+		this(deviceType, dbPath, null, null, null);
+	}
+
+	public DeviceSpec(DeviceType deviceType, Path dbPath, String deviceName) {
+		this(deviceType, dbPath, null, null, deviceName);
+	}
+
+	public DeviceSpec(DeviceType deviceType, Path dbPath, SyncLiteOptions options) {
+		this(deviceType, dbPath, options, null, null);
+	}
+
+	public DeviceSpec(DeviceType deviceType, Path dbPath, SyncLiteOptions options, String deviceName) {
+		this(deviceType, dbPath, options, null, deviceName);
+	}
+
+	public DeviceSpec(DeviceType deviceType, Path dbPath, Path propsPath) {
+		this(deviceType, dbPath, null, propsPath, null);
+	}
+
+	public DeviceSpec(DeviceType deviceType, Path dbPath, Path propsPath, String deviceName) {
+		this(deviceType, dbPath, null, propsPath, deviceName);
+	}
+
+	private DeviceSpec(DeviceType deviceType, Path dbPath, SyncLiteOptions options, Path propsPath, String deviceName) {
+		if ((deviceType == null) || (dbPath == null)) {
+			throw new IllegalArgumentException("SyncLite : device type and db path must be specified for a device");
+		}
+		this.deviceType = deviceType;
+		this.dbPath = dbPath;
+		this.options = options;
+		this.propsPath = propsPath;
+		this.deviceName = deviceName;
+	}
+
+	public final DeviceType getDeviceType() {
+		return deviceType;
+	}
+
+	public final Path getDbPath() {
+		return dbPath;
+	}
+
+	//null if the device is initialized from a properties file or with default options
+	public final SyncLiteOptions getOptions() {
+		return options;
+	}
+
+	//null if the device is initialized with given or default options
+	public final Path getPropsPath() {
+		return propsPath;
+	}
+
+	//null to keep the device name from the options
+	public final String getDeviceName() {
+		return deviceName;
+	}
+}
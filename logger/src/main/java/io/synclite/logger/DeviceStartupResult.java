@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+//
+//Outcome of bringing up one device with SyncLite.initializeAll. The device accepts writes once its 
+//initialization is done, deferred components (command handlers, backup agent) start after that.
+//
+public final class DeviceStartupResult {
+
+	private static final long NOT_STARTED = -1L;
+
+	private final Path dbPath;
+	private final long initializationNanos;
+	private final Exception exception;
+	private volatile long deferredStartupNanos = NOT_STARTED;
+	private volatile Exception deferredStartupException;
+
+	DeviceStartupResult(Path dbPath, long initializationNanos, Exception exception) {
+		this.dbPath = dbPath;
+		this.initializationNanos = initializationNanos;
+		this.exception = exception;
+	}
+
+	final void setDeferredStartup(long deferredStartupNanos, Exception deferredStartupException) {
+		this.deferredStartupNanos = deferredStartupNanos;
+		this.deferredStartupException = deferredStartupException;
+	}
+
+	public final Path getDbPath() {
+		return dbPath;
+	}
+
+	public final boolean isInitialized() {
+		return exception == null;
+	}
+
+	//null if the device was initialized
+	public final Exception getException() {
+		return exception;
+	}
+
+	//Time taken until the device was accepting writes
+	public final long getInitializationNanos() {
+		return initializationNanos;
+	}
+
+	//Time taken to start the deferred components, -1 if not started
+	public final long getDeferredStartupNanos() {
+		return deferredStartupNanos;
+	}
+
+	//null unless starting the deferred components failed, the device keeps accepting writes regardless
+	public final Exception getDeferredStartupException() {
+		return deferredStartupException;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("device=").append(dbPath);
+		builder.append(" initialization_ms=").append(TimeUnit.NANOSECONDS.toMillis(initializationNanos));
+		if (deferredStartupNanos != NOT_STARTED) {
+			builder.append(" deferred_startup_ms=").append(TimeUnit.NANOSECONDS.toMillis(deferredStartupNanos));
+		}
+		if (exception != null) {
+			builder.append(" failed=").append(exception.getMessage());
+		} else if (deferredStartupException != null) {
+			builder.append(" deferred_startup_failed=").append(deferredStartupException.getMessage());
+		}
+		return builder.toString();
+	}
+}
@@ -19,9 +19,7 @@ package io.synclite.logger;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 import org.apache.log4j.Logger;
 
@@ -52,6 +50,7 @@ public abstract class EventLogger extends SQLLogger {
 				if (this.allowsConcurrentWrites) {
 					//Delete txn file if present for this commit ID
 					EventSQLStager.removeTxnFile(this.dbPath, this.logSegmentSequenceNumber.get(), restartSlaveCommitID);
+					this.logSegmentPlacer.getTxnFileCatalog().remove(this.logSegmentSequenceNumber.get(), Telemetry.getTxnFilePath(this.dbPath, this.logSegmentSequenceNumber.get(), restartSlaveCommitID));
 				}
 			} else {                
 				//Nothing to do as both restartSlaveCommitID and restartMasterCommitID matched.
@@ -61,33 +60,29 @@ public abstract class EventLogger extends SQLLogger {
 
 	@Override
 	protected final void undoLogsForCommit(long commitId) throws SQLException {
-		try (Statement stmt = logTableConn.createStatement()) {
-			stmt.executeUpdate("DELETE FROM commandlog WHERE commit_id = " + commitId);
-			try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM commandlog;")) {
-				if (rs.next()) {
-					this.logSegmentLogCount = rs.getLong(1);
-				}
-			}            
-		}        
+		truncateLogsForCommit(commitId);
 	}
 
+	//Logs all rows of the batch for given INSERT sql as part of given txn
+	abstract void logRows(long commitId, String sql, ColumnBatch batch) throws SQLException;
+
 	final void commit(long commitId) throws SQLException {
+		long commitStartTime = System.nanoTime();
 		flush(commitId);
-		//Reset current txn log count to 0 to enable log switching on commit boundary
-		this.currentTxnLogCount = 0;
-		this.currentBatchLogCount = 0;
+		recordCommitLatency(commitStartTime);
 		checkups();
 	}   
 
 	final void rollback(long commitId) throws SQLException {
-		doRollback();
-		this.currentTxnLogCount = 0;
-		this.currentBatchLogCount = 0;
+		doRollback(commitId);
 		checkups();
 	}   
 	
-	protected void doRollback() throws SQLException {
+	//Txn log counts are reset by whoever appends to the log segment, the logger thread or the sync logger under its append lock
+	protected void doRollback(long commitId) throws SQLException {
 		rollbackLogSegment();
+		this.currentTxnLogCount = 0;
+		this.currentBatchLogCount = 0;
 	}
 
 	@Override
@@ -149,6 +144,11 @@ public abstract class EventLogger extends SQLLogger {
 		return new EventLoggerLogSegmentPlacer();		
 	}
 
+	@Override
+	protected boolean supportsColumnarEncoding() {
+		return (options.getDeviceType() == DeviceType.TELEMETRY) || options.getDeviceType().toString().endsWith("_APPENDER");
+	}
+
 	@Override
 	protected void startLogging() {
 		start();
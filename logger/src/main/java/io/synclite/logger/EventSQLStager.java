@@ -23,17 +23,17 @@ import java.sql.SQLException;
 
 public class EventSQLStager extends SQLStager {
 
-	EventSQLStager(Path dbPath, SyncLiteOptions options, long txnID) throws SQLException {
-		super(dbPath, options, txnID);
+	EventSQLStager(Path dbPath, SQLLogger sqlLogger, long txnID) throws SQLException {
+		super(dbPath, sqlLogger, txnID);
 	}
 
 	@Override
 	protected void publishTxn(long logSeqNum, long commitID) throws SQLException {
-		commit();
-		close();
+		finish();
 		try {
 			Path publishFilePath = Telemetry.getTxnFilePath(dbPath, logSeqNum, commitID);
 			Files.move(this.txnFilePath, publishFilePath);
+			sqlLogger.logSegmentPlacer.getTxnFileCatalog().add(logSeqNum, publishFilePath);
 		} catch (IOException e) {
 			throw new SQLException("Failed to publish transaction file : " + this.txnFilePath  + " for log sequence number :" + logSeqNum + ", commit id : " + commitID + " : " + e.getMessage(), e);
 		}
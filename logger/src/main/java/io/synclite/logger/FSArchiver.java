@@ -36,6 +36,7 @@ import java.security.spec.X509EncodedKeySpec;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import javax.crypto.BadPaddingException;
@@ -57,6 +58,7 @@ class FSArchiver {
 	protected final Logger tracer;
 	private final Path encryptionKeyFile;
 	private final FileCopier fileCopier;
+	private final ReentrantLock archiveLock = new ReentrantLock();
 
 	private abstract class FileCopier {
 		protected abstract void moveFile(Path sourcePath, Path targetPath) throws SQLException;
@@ -258,7 +260,8 @@ class FSArchiver {
 	}
 
 	void moveToWriteArchive(Path sourceArtifactPath, String targetArtifactName) throws SQLException {
-		synchronized(this) {
+		archiveLock.lock();
+		try {
 			Path targetPath = getTargetPathForArtifact(sourceArtifactPath, targetArtifactName);
 			try {
 				doMoveToWriteArchive(sourceArtifactPath, targetPath);
@@ -269,11 +272,14 @@ class FSArchiver {
 				//}
 				throw new SQLException("SyncLite FSArchiver failed to move " + sourceArtifactPath + " to archive path : " + writeArchivePath.toString(), e);
 			}
+		} finally {
+			archiveLock.unlock();
 		}
 	}
 
 	void copyToWriteArchive(Path sourceArtifactPath, String newArtifactName) throws SQLException {
-		synchronized(this) {
+		archiveLock.lock();
+		try {
 			try {
 				Path targetPath = getTargetPathForArtifact(sourceArtifactPath, newArtifactName);
 				doCopyToWriteArchive(sourceArtifactPath, targetPath);
@@ -281,6 +287,8 @@ class FSArchiver {
 				//e.printStackTrace();
 				throw new SQLException("SyncLite FSArchiver failed to copy " + sourceArtifactPath + " to archive path : " + writeArchivePath.toString(), e);
 			}
+		} finally {
+			archiveLock.unlock();
 		}
 	}
 
@@ -308,7 +316,8 @@ class FSArchiver {
 	}
 
 	void createLocalWriteArchiveIfNotExists() throws SQLException {
-		synchronized (this) {
+		archiveLock.lock();
+		try {
 			if (!localArchiveExists()) {
 				try {
 					Files.createDirectories(writeArchivePath);
@@ -317,6 +326,8 @@ class FSArchiver {
 					throw new SQLException("SyncLite FSArchiver failed to create directory : " + writeArchivePath.toString() + " : " + e.getMessage(), e);
 				}
 			}
+		} finally {
+			archiveLock.unlock();
 		}
 	}
 
@@ -16,15 +16,24 @@
 
 package io.synclite.logger;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 
 class FlushLogRecord extends CommandLogRecord {
 
+	private final CompletableFuture<Void> onFlushed;
+
 	FlushLogRecord(long commitId) {
+		this(commitId, null);
+	}
+
+	//Flush record whose completion is also signalled to the given future by the logger thread
+	FlushLogRecord(long commitId, CompletableFuture<Void> onFlushed) {
 		super(commitId, null, null);
         CountDownLatch[] latches = new CountDownLatch[1];
         latches[0] = new CountDownLatch(1);
         this.args = latches;		
+        this.onFlushed = onFlushed;
 	}
 
 
@@ -36,6 +45,16 @@ class FlushLogRecord extends CommandLogRecord {
     final void setFlushed() {
         CountDownLatch isFlushed = (CountDownLatch) args[0];
         isFlushed.countDown();
+        if (onFlushed != null) {
+        	onFlushed.complete(null);
+        }
+    }
+
+    //Logger thread gave up before flushing this record
+    final void setFailed(Throwable cause) {
+        if (onFlushed != null) {
+        	onFlushed.completeExceptionally(cause);
+        }
     }
 
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//
+//Lock free log-linear latency histogram in nanoseconds : each power of 2 range is split into 
+//SUB_BUCKETS linear buckets, bounding the relative error of reported percentiles to ~6%.
+//Recording is a couple of bit operations and one atomic increment.
+//
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	final void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets.incrementAndGet(bucketIndex(nanos));
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	final void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	private static int bucketIndex(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	//Midpoint of the value range covered by a bucket
+	private static long bucketValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long low = ((long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1)))) << shift;
+		return low + ((1L << shift) >>> 1);
+	}
+
+	public final long getCount() {
+		return count.sum();
+	}
+
+	public final long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	public final long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	public final long getMeanNanos() {
+		long cnt = count.sum();
+		return (cnt == 0) ? 0 : totalNanos.sum() / cnt;
+	}
+
+	//percentile in (0, 100]
+	public final long getPercentileNanos(double percentile) {
+		long total = 0;
+		long[] snapshot = new long[NUM_BUCKETS];
+		for (int i = 0; i < NUM_BUCKETS; ++i) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil((percentile / 100.0) * total);
+		long seen = 0;
+		for (int i = 0; i < NUM_BUCKETS; ++i) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(bucketValue(i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+public enum LogArgLayout {
+	//All arguments are stored in arg columns of commandlog table, widened on demand
+	INLINED,
+	//Rows wider than log-max-inlined-arg-count are stored in power-of-2 sized arg<N> tables keyed by change_number.
+	//Consumers must read the arg<N> tables of such log segments, ones reading only commandlog see those rows without arguments.
+	EXTENDED_ARG_TABLES
+}
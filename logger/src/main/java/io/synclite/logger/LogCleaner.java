@@ -37,13 +37,15 @@ public class LogCleaner {
 	private final ScheduledExecutorService cleanerService;
 	private final MetadataManager metadataMgr;
 	private final LogSegmentPlacer logSegmentPlacer;
+	private final LogFanOut fanOut;
 	private final Logger tracer;
 
-	LogCleaner(Path dbPath, long databaseID, List<LogShipper> logShippers, LogSegmentPlacer logSegmentPlacer, MetadataManager metadataMgr, SyncLiteOptions options, Logger tracer) throws SQLException  {
+	LogCleaner(Path dbPath, long databaseID, List<LogShipper> logShippers, LogSegmentPlacer logSegmentPlacer, LogFanOut fanOut, MetadataManager metadataMgr, SyncLiteOptions options, Logger tracer) throws SQLException  {
 		this.dbPath = dbPath;
 		this.databaseID = databaseID;
 		this.logShippers = logShippers;
 		this.logSegmentPlacer = logSegmentPlacer;
+		this.fanOut = fanOut;
 		this.metadataMgr = metadataMgr;
 		this.tracer = tracer;
 
@@ -68,6 +70,10 @@ public class LogCleaner {
 
 	}
 
+	final long getCleanedLogSegmentSequenceNumber() {
+		return this.cleanedLogSegmentSequenceNumber.get();
+	}
+
 	private void clean() {
 		//Find minimum shipped log position across all shippers
 		try {
@@ -79,17 +85,28 @@ public class LogCleaner {
 				}
 			}
 
+			if (cleanLogsUpto > cleanedLogSegmentSequenceNumber.get()) {
+				//Persist shipped watermarks of all shippers in one go before deleting what they have shipped
+				metadataMgr.flushWatermarks();
+			}
 			boolean cleaned = false;
 			for (long seq = cleanedLogSegmentSequenceNumber.get() + 1; seq <= cleanLogsUpto; ++seq) {
 				Path logFilePath = logSegmentPlacer.getLogSegmentPath(this.dbPath, this.databaseID, seq);
 				if (Files.exists(logFilePath)) {
 					Files.delete(logFilePath);
 				}
+				fanOut.releaseTxnFiles(seq);
+				fanOut.release(logFilePath);
+				//Txn files of the log segment are shipped by all destinations as well
+				for (Path txnFilePath : logSegmentPlacer.getTxnFileCatalog().get(seq)) {
+					Files.deleteIfExists(txnFilePath);
+				}
+				logSegmentPlacer.getTxnFileCatalog().removeSegment(seq);
 				cleaned = true;
 			}
 
 			if (cleaned) {
-				metadataMgr.updateProperty("cleaned_log_segment_sequence_number", cleanLogsUpto);
+				metadataMgr.updateWatermarkProperty("cleaned_log_segment_sequence_number", cleanLogsUpto);
 				this.cleanedLogSegmentSequenceNumber.set(cleanLogsUpto);
 			}
 		} catch (Exception e) {
@@ -107,17 +124,21 @@ public class LogCleaner {
 				}
 			}
 
+			if (cleanDataFilesUpto > cleanedDataFileSequenceNumber.get()) {
+				metadataMgr.flushWatermarks();
+			}
 			boolean cleaned = false;
 			for (long seq = cleanedDataFileSequenceNumber.get() + 1; seq <= cleanDataFilesUpto; ++seq) {
 				Path dataFilePath = logSegmentPlacer.getDataFilePath(this.dbPath, this.databaseID, seq);
 				if (Files.exists(dataFilePath)) {
 					Files.delete(dataFilePath);
 				}
+				fanOut.release(dataFilePath);
 				cleaned = true;
 			}
 
 			if (cleaned) {
-				metadataMgr.updateProperty("cleaned_data_file_sequence_number", cleanDataFilesUpto);
+				metadataMgr.updateWatermarkProperty("cleaned_data_file_sequence_number", cleanDataFilesUpto);
 				this.cleanedDataFileSequenceNumber.set(cleanDataFilesUpto);
 			}
 		} catch (Exception e) {
@@ -127,14 +148,10 @@ public class LogCleaner {
 		
 	}
 	
-    final void terminate() {
+    final void terminate(long deadlineNanos) {
     	if ((cleanerService != null) && (!cleanerService.isTerminated())) {
     		cleanerService.shutdown();
-    		try {
-    			cleanerService.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-    		} catch (InterruptedException e) {
-    			//Ignore
-    		}
+    		SyncLiteUtils.awaitTermination(cleanerService, deadlineNanos);
     	}
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+
+//
+//Shared by all LogShippers of a device with multiple destinations.
+//Each artifact (log segment, txn file, data file) is read and transformed (encrypted) once into 
+//a prepared artifact which all destinations then ship concurrently, each at its own pace.
+//Prepared artifacts are released by LogCleaner once all destinations have shipped them.
+//
+class LogFanOut {
+
+	private final Path preparedDirPath;
+	private final FSArchiver transformer;
+	private final LogSegmentPlacer logSegmentPlacer;
+	private final ConcurrentHashMap<String, ReentrantLock> prepareLocks = new ConcurrentHashMap<String, ReentrantLock>();
+	private final Logger tracer;
+
+	LogFanOut(Path dbPath, LogSegmentPlacer logSegmentPlacer, SyncLiteOptions options, Logger tracer) throws SQLException {
+		this.preparedDirPath = Path.of(dbPath.toString() + ".synclite", "fanout");
+		this.logSegmentPlacer = logSegmentPlacer;
+		this.tracer = tracer;
+		if (options.getEncryptionKeyFile() != null) {
+			this.transformer = new FSArchiver(dbPath, "fanout", this.preparedDirPath, null, null, tracer, options.getEncryptionKeyFile());
+			this.transformer.createLocalWriteArchiveIfNotExists();
+		} else {
+			//Nothing to transform, destinations read the source artifact directly
+			this.transformer = null;
+		}
+	}
+
+	//
+	//Destination archivers must not transform artifacts again
+	//
+	final boolean transformsArtifacts() {
+		return (this.transformer != null);
+	}
+
+	final Path prepare(Path sourcePath) throws SQLException {
+		if (transformer == null) {
+			return sourcePath;
+		}
+		String artifactName = sourcePath.getFileName().toString();
+		Path preparedPath = preparedDirPath.resolve(artifactName);
+		ReentrantLock lock = prepareLocks.computeIfAbsent(artifactName, k -> new ReentrantLock());
+		lock.lock();
+		try {
+			if (!Files.exists(preparedPath)) {
+				//Transform into a temp file and rename so that a crash never leaves a partial prepared artifact behind
+				String tmpArtifactName = artifactName + ".tmp";
+				transformer.copyToWriteArchive(sourcePath, tmpArtifactName);
+				try {
+					Files.move(preparedDirPath.resolve(tmpArtifactName), preparedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) {
+					throw new SQLException("SyncLite LogFanOut failed to prepare artifact : " + sourcePath, e);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		return preparedPath;
+	}
+
+	final void release(Path sourcePath) {
+		if (transformer == null) {
+			return;
+		}
+		String artifactName = sourcePath.getFileName().toString();
+		try {
+			Files.deleteIfExists(preparedDirPath.resolve(artifactName));
+		} catch (IOException e) {
+			tracer.error("SyncLite LogFanOut failed to delete prepared artifact : " + artifactName, e);
+		}
+		prepareLocks.remove(artifactName);
+	}
+
+	final void releaseTxnFiles(long logSeqNum) {
+		if (transformer == null) {
+			return;
+		}
+		for (Path txnFilePath : logSegmentPlacer.getTxnFileCatalog().get(logSeqNum)) {
+			release(txnFilePath);
+		}
+	}
+}
@@ -25,7 +25,7 @@ public class LogMover extends LogShipper {
 
 	public LogMover(Path dbPath, long databaseID, String writeArchieveName, LogSegmentPlacer logSegmentPlacer, MetadataManager metadataMgr,
 			SyncLiteOptions options, Integer destIndex, Logger tracer) throws SQLException {
-		super(dbPath, databaseID, writeArchieveName, logSegmentPlacer, metadataMgr, options, destIndex, tracer);
+		super(dbPath, databaseID, writeArchieveName, logSegmentPlacer, metadataMgr, options, destIndex, null, tracer);
 	}
 
 	@Override
@@ -37,5 +37,10 @@ public class LogMover extends LogShipper {
     protected final void doClean(Path logFilePath) throws SQLException {
 		archiver.deleteLocalObject(logFilePath);
     }
+
+	@Override
+	protected final boolean cleansShippedArtifacts() {
+		return true;
+	}
 	
 }
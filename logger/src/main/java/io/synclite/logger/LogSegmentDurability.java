@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public enum LogSegmentDurability {
+	//Legacy settings : rollback journal, synchronous = normal
+	DEFAULT("normal", "normal", "normal", 0),
+	//WAL, no fsync : recent commits may be lost on OS crash/power failure, maximum throughput
+	RELAXED("wal", "off", "exclusive", -16384),
+	//WAL, fsync on checkpoint : recent commits may be lost on power failure, never corrupts the segment
+	BALANCED("wal", "normal", "exclusive", -16384),
+	//WAL, fsync on every commit
+	DURABLE("wal", "full", "normal", -2000);
+
+	private final String journalMode;
+	private final String synchronous;
+	private final String lockingMode;
+	private final long cacheSize;
+
+	private LogSegmentDurability(String journalMode, String synchronous, String lockingMode, long cacheSize) {
+		this.journalMode = journalMode;
+		this.synchronous = synchronous;
+		this.lockingMode = lockingMode;
+		this.cacheSize = cacheSize;
+	}
+
+	final boolean usesWAL() {
+		return journalMode.equals("wal");
+	}
+
+	//
+	//page_size must be set before the file is created and before switching to WAL  
+	//
+	final void applyOnCreate(Statement stmt, long pageSize) throws SQLException {
+		stmt.execute("pragma page_size = " + pageSize + ";");
+		applyOnOpen(stmt);
+		stmt.execute("pragma journal_mode = " + journalMode + ";");
+	}
+
+	final void applyOnOpen(Statement stmt) throws SQLException {
+		stmt.execute("pragma locking_mode = " + lockingMode + ";");
+		stmt.execute("pragma synchronous = " + synchronous + ";");
+		if (cacheSize != 0) {
+			stmt.execute("pragma cache_size = " + cacheSize + ";");
+		}
+	}
+
+	//
+	//Shipped files must be self contained, switch a finished WAL file back to rollback journal 
+	//which checkpoints the WAL into the main file and removes the -wal file.
+	//
+	final void applyOnFinish(Connection conn) throws SQLException {
+		if (usesWAL()) {
+			conn.setAutoCommit(true);
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute("pragma journal_mode = delete;");
+			}
+		}
+	}
+}
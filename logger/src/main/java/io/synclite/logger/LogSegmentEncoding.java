@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+public enum LogSegmentEncoding {
+	//All log records are stored as rows of commandlog table
+	ROW,
+	//Runs of INSERT rows of the same statement are moved into typed, compressed column blocks when a log segment is finished.
+	//Applies to telemetry and appender devices only.
+	COLUMNAR
+}
@@ -20,9 +20,15 @@ import java.nio.file.Path;
 
 public abstract class LogSegmentPlacer {
 
+	private final TxnFileCatalog txnFileCatalog = new TxnFileCatalog();
+
 	protected abstract Path getLogSegmentPath(Path dbPath, long dbID, long seqNum);
 	protected abstract Path getDataFilePath(Path dbPath, long dbID, long seqNum);
 	protected abstract Path getTxnStageFilePath(Path dbPath, long txnID);
 	protected abstract boolean isTxnFileForLogSegment(long logSeqNum, Path p);
+
+	final TxnFileCatalog getTxnFileCatalog() {
+		return this.txnFileCatalog;
+	}
 	
 }
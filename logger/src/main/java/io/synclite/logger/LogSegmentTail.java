@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//
+//Tail of the current log segment : the last logged change number, its commit id, the first change 
+//number that commit id got in the segment and the estimated bytes logged so far. It is persisted as a single row of the segment 
+//metadata table as part of each log segment commit, so restart recovery and undo of the last txn seek straight to the tail rows 
+//instead of scanning the whole commandlog table. Only the last txn survives a reload, other txns of a reloaded 
+//segment are looked up from its beginning.
+//
+final class LogSegmentTail {
+
+	private static final int MAX_TRACKED_TXNS = 1024;
+	private static final String upsertTailSql = "INSERT OR REPLACE INTO metadata(key, value) VALUES ('tail', ?)";
+	private static final String selectTailSql = "SELECT value FROM metadata WHERE key = 'tail'";
+
+	//First change number of recently logged commit ids, several txns interleave on concurrent writer devices
+	private final LinkedHashMap<Long, Long> txnStartChangeNumbers = new LinkedHashMap<Long, Long>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+			if (size() > MAX_TRACKED_TXNS) {
+				maxEvictedCommitId = Math.max(maxEvictedCommitId, eldest.getKey());
+				return true;
+			}
+			return false;
+		}
+	};
+	private long lastCommitId = -1;
+	private long lastChangeNumber = -1;
+	private long maxEvictedCommitId = -1;
+	//Set for a reloaded segment holding rows of txns not tracked since
+	private boolean hasUntrackedTxns;
+	//Estimated bytes of the rows logged in the segment, -1 if not known after a reload
+	private long byteCount;
+	private boolean dirty;
+
+	//Called for a new log segment
+	final void reset() {
+		reset(-1, 0, -1);
+		this.byteCount = 0;
+		this.dirty = false;
+	}
+
+	private final void reset(long commitId, long txnStartChangeNumber, long changeNumber) {
+		txnStartChangeNumbers.clear();
+		if (commitId >= 0) {
+			txnStartChangeNumbers.put(commitId, txnStartChangeNumber);
+		}
+		this.lastCommitId = commitId;
+		this.lastChangeNumber = changeNumber;
+		this.maxEvictedCommitId = -1;
+		this.hasUntrackedTxns = false;
+	}
+
+	final void track(long commitId, long firstChangeNumber, long lastChangeNumber, long bytes) {
+		if (commitId != this.lastCommitId) {
+			if (!txnStartChangeNumbers.containsKey(commitId)) {
+				//An evicted txn logging again could have rows anywhere in the segment
+				txnStartChangeNumbers.put(commitId, (commitId <= maxEvictedCommitId) ? 0 : firstChangeNumber);
+			}
+			this.lastCommitId = commitId;
+		}
+		this.lastChangeNumber = lastChangeNumber;
+		this.byteCount += bytes;
+		this.dirty = true;
+	}
+
+	//Lowest change number the given txn may have in the segment, 0 if not known
+	final long getTxnStartChangeNumber(long commitId) {
+		Long startChangeNumber = txnStartChangeNumbers.get(commitId);
+		return (startChangeNumber != null) ? startChangeNumber : 0;
+	}
+
+	//False only if the txn surely has no logs in the segment
+	final boolean mayHaveLogs(long commitId) {
+		return hasUntrackedTxns || txnStartChangeNumbers.containsKey(commitId) || (commitId <= maxEvictedCommitId);
+	}
+
+	final long getByteCount() {
+		return this.byteCount;
+	}
+
+	final void setByteCount(long byteCount) {
+		this.byteCount = byteCount;
+	}
+
+	final void undo(long commitId) {
+		txnStartChangeNumbers.remove(commitId);
+		this.dirty = true;
+	}
+
+	//Log segment transaction rolled back along with the persisted tail
+	final void markDirty() {
+		this.dirty = true;
+	}
+
+	//Writes the tail as part of the ongoing log segment transaction
+	final void persist(Connection logTableConn) throws SQLException {
+		if (!dirty) {
+			return;
+		}
+		try (PreparedStatement pstmt = logTableConn.prepareStatement(upsertTailSql)) {
+			pstmt.setString(1, lastCommitId + "," + lastChangeNumber + "," + getTxnStartChangeNumber(lastCommitId) + "," + byteCount);
+			pstmt.executeUpdate();
+		}
+		this.dirty = false;
+	}
+
+	//
+	//Reloads the tail of a reopened log segment given its last row. The persisted tail is trusted only if it 
+	//describes that very row, else (segments written by older versions, tail lost with a rolled back 
+	//transaction) the txn start falls back to the beginning of the segment and the byte count is not known.
+	//
+	final void load(Statement stmt, long commitId, long changeNumber) throws SQLException {
+		long persistedCommitId = -1;
+		long persistedChangeNumber = -1;
+		long persistedTxnStartChangeNumber = -1;
+		long persistedByteCount = -1;
+		try (ResultSet rs = stmt.executeQuery(selectTailSql)) {
+			if (rs.next()) {
+				String[] tokens = rs.getString(1).split(",");
+				if (tokens.length == 4) {
+					persistedCommitId = Long.parseLong(tokens[0]);
+					persistedChangeNumber = Long.parseLong(tokens[1]);
+					persistedTxnStartChangeNumber = Long.parseLong(tokens[2]);
+					persistedByteCount = Long.parseLong(tokens[3]);
+				}
+			}
+		}
+		long txnStartChangeNumber = 0;
+		boolean trusted = (persistedCommitId == commitId) && (persistedChangeNumber == changeNumber);
+		if (trusted && (persistedTxnStartChangeNumber >= 0)) {
+			txnStartChangeNumber = persistedTxnStartChangeNumber;
+		}
+		if (changeNumber < 0) {
+			reset(-1, 0, -1);
+			this.byteCount = 0;
+		} else {
+			reset(commitId, txnStartChangeNumber, changeNumber);
+			this.byteCount = trusted ? persistedByteCount : -1;
+			//Rows of other txns may precede the tail, a rollback of any of them falls back to a delete from the segment start
+			this.hasUntrackedTxns = true;
+		}
+		this.dirty = false;
+	}
+}
@@ -16,11 +16,12 @@
 
 package io.synclite.logger;
 
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -48,9 +49,16 @@ class LogShipper {
     protected final Integer destIndex;
     protected final Logger tracer;
     private boolean copyTxnFiles = false;
+    protected final LogFanOut fanOut;
+    //Observed log segment shipping throughput in bytes per second, 0 until the first segment is shipped
+    private volatile long shippingBytesPerSec = 0;
+    private final AtomicLong bytesShipped = new AtomicLong(0);
+    //Close time of log segments not yet shipped, segments closed before a restart are not tracked
+    private final ConcurrentSkipListMap<Long, Long> logSegmentCloseTimes = new ConcurrentSkipListMap<Long, Long>();
 
-    LogShipper(Path dbPath, long databaseID, String writeArchieveName, LogSegmentPlacer logSegmentPlacer, MetadataManager metadataMgr, SyncLiteOptions options, Integer destIndex, Logger tracer) throws SQLException {
+    LogShipper(Path dbPath, long databaseID, String writeArchieveName, LogSegmentPlacer logSegmentPlacer, MetadataManager metadataMgr, SyncLiteOptions options, Integer destIndex, LogFanOut fanOut, Logger tracer) throws SQLException {
     	this.destIndex = destIndex;
+    	this.fanOut = fanOut;
         this.dbPath = dbPath;
         this.syncLiteDirPath = Path.of(this.dbPath + ".synclite");
         this.databaseID = databaseID;
@@ -61,23 +69,25 @@ class LogShipper {
         this.logSegmentPlacer = logSegmentPlacer;
         this.options = options;
         this.copyTxnFiles = SyncLiteUtils.deviceAllowsConcurrentWriters(this.options.getDeviceType());
+        //Artifacts are already encrypted once by the fan out, if any
+        Path encryptionKeyFile = ((fanOut != null) && fanOut.transformsArtifacts()) ? null : options.getEncryptionKeyFile();
         switch (options.getDestinationType(destIndex)) {
         case FS:
         case MS_ONEDRIVE:
         case GOOGLE_DRIVE:
-            this.archiver = new FSArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, tracer, options.getEncryptionKeyFile());
+            this.archiver = new FSArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, tracer, encryptionKeyFile);
             break;
         case SFTP:
-            this.archiver = new SFTPArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getHost(destIndex), options.getPort(destIndex), options.getUserName(destIndex), options.getPassword(destIndex), options.getRemoteDataStageDirectory(destIndex), null, tracer, options.getEncryptionKeyFile());
+            this.archiver = new SFTPArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getHost(destIndex), options.getPort(destIndex), options.getUserName(destIndex), options.getPassword(destIndex), options.getRemoteDataStageDirectory(destIndex), null, tracer, encryptionKeyFile);
             break;
         case MINIO:
-            this.archiver = new MinioArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getHost(destIndex), options.getUserName(destIndex), options.getPassword(destIndex), options.getRemoteDataStageDirectory(destIndex), null, tracer, options.getEncryptionKeyFile());
+            this.archiver = new MinioArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getHost(destIndex), options.getUserName(destIndex), options.getPassword(destIndex), options.getRemoteDataStageDirectory(destIndex), null, tracer, encryptionKeyFile);
             break;     
         case KAFKA:
-			this.archiver = new KafkaArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getKafkaProducerProperties(destIndex), null, "log", tracer, options.getEncryptionKeyFile());
+			this.archiver = new KafkaArchiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getKafkaProducerProperties(destIndex), null, "log", tracer, encryptionKeyFile);
 			break;
         case S3:
-        	this.archiver = new S3Archiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getHost(destIndex), options.getUserName(destIndex), options.getPassword(destIndex), options.getRemoteDataStageDirectory(destIndex), null, tracer, options.getEncryptionKeyFile());
+        	this.archiver = new S3Archiver(dbPath, this.writeArchieveName, this.writeArchievePath, null, null, options.getHost(destIndex), options.getUserName(destIndex), options.getPassword(destIndex), options.getRemoteDataStageDirectory(destIndex), null, tracer, encryptionKeyFile);
         	break;
         default:
             throw new RuntimeException("Unsupported destination type : " + options.getLocalDataStageDirectory(destIndex));
@@ -111,6 +121,37 @@ class LogShipper {
     	return this.shippedDataFileSequenceNumber.get();
     }
 
+    //Number of closed log segments not yet shipped to this destination
+    final long getLogSegmentBacklog() {
+    	return Math.max(0, this.logSegmentSequenceNumber.get() - 1 - this.shippedLogSegmentSequenceNumber.get());
+    }
+
+    //Age of the oldest closed log segment not yet shipped to this destination
+    final long getShippingLagMs() {
+    	if (getLogSegmentBacklog() == 0) {
+    		return 0;
+    	}
+    	Map.Entry<Long, Long> oldest = logSegmentCloseTimes.firstEntry();
+    	return (oldest == null) ? 0 : Math.max(0, System.currentTimeMillis() - oldest.getValue());
+    }
+
+    final long getBytesShipped() {
+    	return this.bytesShipped.get();
+    }
+
+    final long getShippingBytesPerSec() {
+    	return this.shippingBytesPerSec;
+    }
+
+    private final void recordShippingThroughput(long bytes, long elapsedNanos) {
+    	if ((bytes <= 0) || (elapsedNanos <= 0)) {
+    		return;
+    	}
+    	long bytesPerSec = (long) (bytes * 1000000000.0 / elapsedNanos);
+    	long prev = this.shippingBytesPerSec;
+    	this.shippingBytesPerSec = (prev == 0) ? bytesPerSec : (3 * prev + bytesPerSec) / 4;
+    }
+
     final void stop() throws InterruptedException {
         if (shipperService != null) {
             shipperService.shutdownNow();
@@ -119,7 +160,14 @@ class LogShipper {
     }
 
     final void setLogSegmentSequenceNumber(AtomicLong logSegmentSequenceNumber) {
-        this.logSegmentSequenceNumber.set(logSegmentSequenceNumber.get());
+        long newSeqNum = logSegmentSequenceNumber.get();
+        long prevSeqNum = this.logSegmentSequenceNumber.getAndSet(newSeqNum);
+        if (prevSeqNum >= 0) {
+        	long closeTime = System.currentTimeMillis();
+        	for (long i = prevSeqNum; i < newSeqNum; ++i) {
+        		logSegmentCloseTimes.put(i, closeTime);
+        	}
+        }
     }
 
     final void setDataFileSequenceNumber(AtomicLong dataFileSequenceNumber) {
@@ -127,12 +175,18 @@ class LogShipper {
     }
 
     protected void doShip(Path logFilePath) throws SQLException {
-    	archiver.copyToWriteArchive(logFilePath, logFilePath.getFileName().toString());
+    	Path sourcePath = (fanOut != null) ? fanOut.prepare(logFilePath) : logFilePath;
+    	archiver.copyToWriteArchive(sourcePath, logFilePath.getFileName().toString());
     }
     
     protected void doClean(Path logFilePath) throws SQLException {
     	//Nothing to do here as cleanup will be done by separate LogCleaner with multiple destinations.
     }
+
+    //Shipped watermarks must be persisted before doClean deletes the shipped artifacts
+    protected boolean cleansShippedArtifacts() {
+    	return false;
+    }
     
     public final void ship() {
         try {
@@ -143,13 +197,18 @@ class LogShipper {
             long shippedUpto = -1;
             for (long i = currentShippedDataFileSequenceNumber + 1; i <= currentDataFileSequenceNumber; ++i) {
                 Path dataFilePath = logSegmentPlacer.getDataFilePath(this.dbPath, this.databaseID, i);
+                long dataFileSize = Files.size(dataFilePath);
                 doShip(dataFilePath);
+                bytesShipped.addAndGet(dataFileSize);
                 moved = true;
                 shippedUpto = i;
             }
             if (moved) {
-                metadataMgr.updateProperty("shipped_data_file_sequence_number-" + destIndex, shippedUpto);
+                metadataMgr.updateWatermarkProperty("shipped_data_file_sequence_number-" + destIndex, shippedUpto);
                 this.shippedDataFileSequenceNumber.set(shippedUpto);
+                if (cleansShippedArtifacts()) {
+                	metadataMgr.flushWatermarks();
+                }
                 
                 //Cleanup shipped data files
                 for (long i = currentShippedDataFileSequenceNumber + 1; i <= shippedUpto; ++i) {
@@ -172,34 +231,39 @@ class LogShipper {
             for (long i = currentShippedLogSegmentSequenceNumber + 1; i < currentLogSegmentSequenceNumber; ++i) {
             	//Copy TxnFiles ahead of log file 
                 if (copyTxnFiles) {
-                	try (DirectoryStream<Path> stream = Files.newDirectoryStream(syncLiteDirPath)) {
-                        for (Path entry : stream) {
-                        	if (logSegmentPlacer.isTxnFileForLogSegment(i, entry)) {
-                                doShip(entry);
-                            }
-                        }
+                	for (Path txnFilePath : logSegmentPlacer.getTxnFileCatalog().get(i)) {
+                		doShip(txnFilePath);
                 	}
                 }
             	Path logFilePath = logSegmentPlacer.getLogSegmentPath(this.dbPath, this.databaseID, i);
+            	long logFileSize = Files.size(logFilePath);
+            	long shipStartTime = System.nanoTime();
                 doShip(logFilePath);
+                recordShippingThroughput(logFileSize, System.nanoTime() - shipStartTime);
+                bytesShipped.addAndGet(logFileSize);
                 moved = true;
                 shippedUpto = i;
             }
             if (moved) {
-                metadataMgr.updateProperty("shipped_log_segment_sequence_number-" + destIndex, shippedUpto);
+                metadataMgr.updateWatermarkProperty("shipped_log_segment_sequence_number-" + destIndex, shippedUpto);
                 this.shippedLogSegmentSequenceNumber.set(shippedUpto);
+                logSegmentCloseTimes.headMap(shippedUpto, true).clear();
+                if (cleansShippedArtifacts()) {
+                	metadataMgr.flushWatermarks();
+                }
 
                 //Cleanup shipped log files
                 for (long i = currentShippedLogSegmentSequenceNumber + 1; i <= shippedUpto; ++i) {
-                	try (DirectoryStream<Path> stream = Files.newDirectoryStream(syncLiteDirPath)) {
-                        for (Path entry : stream) {
-                            if (entry.getFileName().toString().startsWith(String.valueOf(i) + ".")  && entry.getFileName().toString().endsWith(".txn")) {
-                                doClean(entry);
-                            }
-                        }
-                	}                	
+                	if (copyTxnFiles) {
+                		for (Path txnFilePath : logSegmentPlacer.getTxnFileCatalog().get(i)) {
+                			doClean(txnFilePath);
+                		}
+                	}
                 	Path logFilePath = logSegmentPlacer.getLogSegmentPath(this.dbPath, this.databaseID, i);
                 	doClean(logFilePath);
+                	if (copyTxnFiles && cleansShippedArtifacts()) {
+                		logSegmentPlacer.getTxnFileCatalog().removeSegment(i);
+                	}
                 }
             }
         } catch (Exception e) {
@@ -208,21 +272,20 @@ class LogShipper {
         }
     }
 
-    final void terminate() {
+    final void terminate(long deadlineNanos) {
     	if ((shipperService != null) && (!shipperService.isTerminated())) {
     		shipperService.shutdown();
-    		try {
-    			shipperService.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-    		} catch (InterruptedException e) {
-    			//Ignore
-    		}
+    		boolean terminated = SyncLiteUtils.awaitTermination(shipperService, deadlineNanos);
     		//Terminate archivers
     		
     		if (archiver != null) {
     			archiver.terminate();
     		}
-    		//Do one more attempt ship any ready outstanding log segments.
-    		ship();
+    		//Do one more attempt ship any ready outstanding log segments if time permits.
+    		//Segments left over are shipped after the next start of the device.
+    		if (terminated && (System.nanoTime() < deadlineNanos)) {
+    			ship();
+    		}
     	}
     }
 
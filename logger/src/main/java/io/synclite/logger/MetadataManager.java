@@ -23,7 +23,19 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+//
+//Key value store backed by an indexed metadata table with an in-memory write-through cache.
+//Watermark updates are coalesced and written in one transaction per flush interval, 
+//all other updates are written through, optionally with a forced sync.
+//
 final class MetadataManager {
     private Path metadataFilePath;
     private Connection metadataTableConn = null;
@@ -33,21 +45,38 @@ final class MetadataManager {
     private PreparedStatement updateMetadataStmt = null;
     private static final String deleteMetadataSql = "DELETE FROM metadata WHERE key = ?";
     private PreparedStatement deleteMetadataStmt = null;
-    private static final String selectMetadataSql = "SELECT value FROM metadata WHERE key = ?";
-    private PreparedStatement selectMetadataStmt = null;
+    private static final String selectAllMetadataSql = "SELECT key, value FROM metadata";
+    private final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<String, String>();
+    private final HashMap<String, String> pendingWatermarks = new HashMap<String, String>();
+    private final boolean walMode;
+    private ScheduledExecutorService flusherService;
+    private final ReentrantLock lock = new ReentrantLock();
 
     MetadataManager(Path metadataFilePath) throws SQLException {
+    	this(metadataFilePath, 0);
+    }
+
+    //
+    //flushIntervalMs > 0 opens the metadata file in WAL mode and coalesces watermark updates, 
+    //else every update is written through in rollback journal mode.
+    //
+    MetadataManager(Path metadataFilePath, long flushIntervalMs) throws SQLException {
         this.metadataFilePath = metadataFilePath;
+        this.walMode = (flushIntervalMs > 0);
         try {
 	        metadataTableConn = DriverManager.getConnection("jdbc:sqlite:" + metadataFilePath);
 	        initializeMetadataTable();
 	        insertMetadataStmt = metadataTableConn.prepareStatement(insertMetadataSql);
 	        updateMetadataStmt = metadataTableConn.prepareStatement(updateMetadataSql);
 	        deleteMetadataStmt = metadataTableConn.prepareStatement(deleteMetadataSql);
-	        selectMetadataStmt = metadataTableConn.prepareStatement(selectMetadataSql);
+	        loadCache();
         } catch (SQLException e) {
         	throw new SQLException("Failed to open/write into the metadata file at path : " + metadataFilePath, e);
         }
+        if (flushIntervalMs > 0) {
+        	flusherService = Executors.newScheduledThreadPool(1);
+        	flusherService.scheduleAtFixedRate(this::tryFlushWatermarks, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
     }
 
     final Path getMetadataFilePath() {
@@ -57,69 +86,225 @@ final class MetadataManager {
     private void initializeMetadataTable() throws SQLException {
         try (Statement stmt = metadataTableConn.createStatement()) {
         	stmt.execute("pragma page_size=512");
+        	if (walMode) {
+        		stmt.execute("pragma journal_mode=wal");
+        		stmt.execute("pragma synchronous=normal");
+        	} else {
+        		stmt.execute("pragma journal_mode=delete");
+        	}
             stmt.execute("create table if not exists metadata(key text, value text);");
+            stmt.execute("create index if not exists metadata_key_idx on metadata(key);");
         } catch (SQLException e) {
         	throw new SQLException("Failed to initialize metadata table in the metadata file : " + metadataFilePath, e);
         }
     }
 
+    private void loadCache() throws SQLException {
+    	try (Statement stmt = metadataTableConn.createStatement()) {
+    		try (ResultSet rs = stmt.executeQuery(selectAllMetadataSql)) {
+    			while (rs.next()) {
+    				String value = rs.getString(2);
+    				if (value != null) {
+    					//Keep the first row, same as a lookup on the table would return
+    					cache.putIfAbsent(rs.getString(1), value);
+    				}
+    			}
+    		}
+    	}
+    }
+
+    //
+    //Cache values the way sqlite-jdbc stores them
+    //
+    private static String toCachedValue(Object value) {
+    	if (value instanceof Boolean) {
+    		return ((Boolean) value) ? "1" : "0";
+    	}
+    	return String.valueOf(value);
+    }
+
     void close() throws SQLException {
-    	if (metadataTableConn != null) {
-    		try {
-    			metadataTableConn.close();
-    		} catch (SQLException e) {
-    			//Suppress
+    	lock.lock();
+    	try {
+    		if (flusherService != null) {
+    			flusherService.shutdown();
+    			flusherService = null;
+    		}
+    		if (metadataTableConn != null) {
+    			try {
+    				tryFlushWatermarks();
+    				if (walMode) {
+    					//Checkpoint and remove the WAL, a stale WAL must never outlive the metadata file
+    					try (Statement stmt = metadataTableConn.createStatement()) {
+    						stmt.execute("pragma journal_mode=delete");
+    					}
+    				}
+    				metadataTableConn.close();
+    			} catch (SQLException e) {
+    				//Suppress
+    			}
+    			metadataTableConn = null;
     		}
-			metadataTableConn = null;
+    	} finally {
+    		lock.unlock();
     	}
     }  
 
-    final synchronized void replaceProperty(String key, Object value) throws SQLException {
-        deleteMetadataStmt.setString(1, key);
-        insertMetadataStmt.setString(1, key);
-        insertMetadataStmt.setObject(2, value);
-        metadataTableConn.setAutoCommit(false);
-        deleteMetadataStmt.execute();
-        insertMetadataStmt.execute();
-        metadataTableConn.commit();
-        metadataTableConn.setAutoCommit(true);
+    final void replaceProperty(String key, Object value) throws SQLException {
+    	lock.lock();
+    	try {
+    		deleteMetadataStmt.setString(1, key);
+    		insertMetadataStmt.setString(1, key);
+    		insertMetadataStmt.setObject(2, value);
+    		metadataTableConn.setAutoCommit(false);
+    		deleteMetadataStmt.execute();
+    		insertMetadataStmt.execute();
+    		metadataTableConn.commit();
+    		metadataTableConn.setAutoCommit(true);
+    		pendingWatermarks.remove(key);
+    		cache.put(key, toCachedValue(value));
+    	} finally {
+    		lock.unlock();
+    	}
     }
 
-    final synchronized void insertProperty(String key, Object value) throws SQLException {
-    	insertMetadataStmt.setString(1, key);
-    	insertMetadataStmt.setObject(2, value);
-    	insertMetadataStmt.execute();
+    final void insertProperty(String key, Object value) throws SQLException {
+    	lock.lock();
+    	try {
+    		insertMetadataStmt.setString(1, key);
+    		insertMetadataStmt.setObject(2, value);
+    		insertMetadataStmt.execute();
+    		cache.putIfAbsent(key, toCachedValue(value));
+    	} finally {
+    		lock.unlock();
+    	}
     }
 
-    final synchronized void updateProperty(String key, Object value) throws SQLException {
-    	updateMetadataStmt.setString(2, key);
-    	updateMetadataStmt.setObject(1, value);
-    	updateMetadataStmt.execute();
+    final void updateProperty(String key, Object value) throws SQLException {
+    	updateProperty(key, value, false);
+    }
+
+    //
+    //forceSync makes the update durable against power failure before returning,
+    //for the few properties which must never go backwards on restart.
+    //
+    final void updateProperty(String key, Object value, boolean forceSync) throws SQLException {
+    	lock.lock();
+    	try {
+    		if (forceSync && walMode) {
+    			try (Statement stmt = metadataTableConn.createStatement()) {
+    				stmt.execute("pragma synchronous=full");
+    			}
+    		}
+    		int updated;
+    		try {
+    			updateMetadataStmt.setString(2, key);
+    			updateMetadataStmt.setObject(1, value);
+    			updated = updateMetadataStmt.executeUpdate();
+    		} finally {
+    			if (forceSync && walMode) {
+    				try (Statement stmt = metadataTableConn.createStatement()) {
+    					stmt.execute("pragma synchronous=normal");
+    				}
+    			}
+    		}
+    		pendingWatermarks.remove(key);
+    		if (updated > 0) {
+    			cache.put(key, toCachedValue(value));
+    		}
+    	} finally {
+    		lock.unlock();
+    	}
+    }
+
+    //
+    //Watermarks (shipped/cleaned positions etc.) may go backwards on a crash as the work they 
+    //track is idempotent, they are made visible immediately and persisted on the next flush.
+    //
+    final void updateWatermarkProperty(String key, Object value) throws SQLException {
+    	lock.lock();
+    	try {
+    		if (flusherService == null) {
+    			updateProperty(key, value);
+    			return;
+    		}
+    		//Same as an UPDATE, a property which was never inserted is not created
+    		if (!cache.containsKey(key)) {
+    			return;
+    		}
+    		String cachedValue = toCachedValue(value);
+    		pendingWatermarks.put(key, cachedValue);
+    		cache.put(key, cachedValue);
+    	} finally {
+    		lock.unlock();
+    	}
+    }
+
+    //
+    //Persist pending watermarks in a single transaction. Callers must flush before acting upon 
+    //a watermark irreversibly (e.g. deleting shipped files).
+    //
+    final void flushWatermarks() throws SQLException {
+    	lock.lock();
+    	try {
+    		if (pendingWatermarks.isEmpty() || (metadataTableConn == null)) {
+    			return;
+    		}
+    		metadataTableConn.setAutoCommit(false);
+    		try {
+    			for (Map.Entry<String, String> entry : pendingWatermarks.entrySet()) {
+    				updateMetadataStmt.setString(2, entry.getKey());
+    				updateMetadataStmt.setString(1, entry.getValue());
+    				updateMetadataStmt.addBatch();
+    			}
+    			updateMetadataStmt.executeBatch();
+    			metadataTableConn.commit();
+    			pendingWatermarks.clear();
+    		} catch (SQLException e) {
+    			metadataTableConn.rollback();
+    			throw e;
+    		} finally {
+    			metadataTableConn.setAutoCommit(true);
+    		}
+    	} finally {
+    		lock.unlock();
+    	}
+    }
+
+    private final void tryFlushWatermarks() {
+    	try {
+    		flushWatermarks();
+    	} catch (SQLException e) {
+    		//Pending watermarks are retained and retried on next flush
+    	}
     }
 
     final String getStringProperty(String key) throws SQLException {
-        selectMetadataStmt.setString(1, key);
-        try (ResultSet rs = selectMetadataStmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getString(1);
-            }
-        };
-        return null;
+    	return cache.get(key);
     }
 
     final Long getLongProperty(String key) throws SQLException {
-        selectMetadataStmt.setString(1, key);
-        try (ResultSet rs = selectMetadataStmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getLong(1);
-            }
-        };
-        return null;
+    	String value = cache.get(key);
+    	if (value == null) {
+    		return null;
+    	}
+    	try {
+    		return Long.valueOf(value);
+    	} catch (NumberFormatException e) {
+    		//Same as ResultSet.getLong on a non numeric value
+    		return 0L;
+    	}
     }
 
 	public void backupMetadataFile(Path metadataFileBackupPath) throws SQLException {
-		try (Statement stmt = metadataTableConn.createStatement()) {
-			stmt.executeUpdate("BACKUP TO '" + metadataFileBackupPath + "'");
+		lock.lock();
+		try {
+			flushWatermarks();
+			try (Statement stmt = metadataTableConn.createStatement()) {
+				stmt.executeUpdate("BACKUP TO '" + metadataFileBackupPath + "'");
+			}
+		} finally {
+			lock.unlock();
 		}
 	}
 	
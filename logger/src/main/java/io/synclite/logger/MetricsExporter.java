@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+//
+//Metrics exporter SPI. Implementations are discovered via java.util.ServiceLoader 
+//(META-INF/services/io.synclite.logger.MetricsExporter) and are notified as devices with 
+//enable-metrics=true are initialized and closed. 
+//
+public interface MetricsExporter {
+
+	//Called once per device, typically calls metrics.describe(visitor) to bind meters to a registry
+	void register(DeviceMetrics metrics);
+
+	void unregister(DeviceMetrics metrics);
+}
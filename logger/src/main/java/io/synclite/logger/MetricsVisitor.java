@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+//
+//Callback used by DeviceMetrics to describe its metrics to an exporter.
+//Names are dotted and lower case with dimensions passed as tags, so they map 1:1 on to 
+//Micrometer Gauge, FunctionCounter and FunctionTimer/TimeGauge meters.
+//
+public interface MetricsVisitor {
+
+	void gauge(String name, Map<String, String> tags, DoubleSupplier value);
+
+	//Monotonically increasing count, rates are derived by the monitoring backend
+	void counter(String name, Map<String, String> tags, LongSupplier value);
+
+	void histogram(String name, Map<String, String> tags, LatencyHistogram histogram);
+}
@@ -22,17 +22,18 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class MultiWriterDBAppenderConnection extends SyncLiteAppenderConnection {
 	protected PreparedStatement nativeCommitLoggerPStmt;
 	protected SQLStager cmdStager;
 	protected MultiWriterDBProcessor dbProcessor;
-	private static final Object commitLock = new Object();
+	private static final ReentrantLock commitLock = new ReentrantLock();
 	protected static final String insertCommitLoggerSql = "INSERT INTO synclite_txn(commit_id, operation_id) VALUES(?, ?)";
 
 	public MultiWriterDBAppenderConnection(String url, String fileName, Properties props) throws SQLException {
 		super("jdbc:sqlite:" + SyncLite.getSQLiteSchemaFilePath(Path.of(fileName)).toString(), SyncLite.getSQLiteSchemaFilePath(Path.of(fileName)).toString() , props);
-		this.cmdStager = new EventSQLStager(Path.of(fileName), this.sqlLogger.options, commitId);
+		this.cmdStager = new EventSQLStager(Path.of(fileName), this.sqlLogger, commitId);
 		this.dbProcessor = nativeDBProcessor();
 	}
 
@@ -52,7 +53,8 @@ public abstract class MultiWriterDBAppenderConnection extends SyncLiteAppenderCo
 
 	@Override
 	public void commit() throws SQLException {
-		synchronized(commitLock) {
+		commitLock.lock();
+		try {
 
 			//Check if cmdStager has accumulated non zero number of logs.
 			//
@@ -60,15 +62,20 @@ public abstract class MultiWriterDBAppenderConnection extends SyncLiteAppenderCo
 				//Generate a fresh commit id     	
 				this.commitId = this.sqlLogger.getNextCommitID();
 
-				//log REPLAY_TXN 
-				this.sqlLogger.log(commitId, "REPLAY_TXN", null);
+				if (cmdStager.isInlined()) {
+					//Small txn, log it in the log segment itself
+					cmdStager.logInlined(this.commitId);
+				} else {
+					//log REPLAY_TXN 
+					this.sqlLogger.log(commitId, "REPLAY_TXN", null);
 
 
-				//Publish txn file
-				//It is safe to get the current log segment sequence number here as we are in the middle of a txn and hence
-				//logger will not switch the log file.
-				//
-				cmdStager.publishTxn(this.sqlLogger.getCurrentLogSegmentSequenceNumber(), this.commitId);
+					//Publish txn file
+					//It is safe to get the current log segment sequence number here as we are in the middle of a txn and hence
+					//logger will not switch the log file.
+					//
+					cmdStager.publishTxn(this.sqlLogger.getCurrentLogSegmentSequenceNumber(), this.commitId);
+				}
 
 				//Commit log
 				this.sqlLogger.commit(commitId);
@@ -86,19 +93,24 @@ public abstract class MultiWriterDBAppenderConnection extends SyncLiteAppenderCo
 			this.commitId = this.sqlLogger.getNextCommitID();
 
 			//Create a new command stager object.
-			this.cmdStager = new EventSQLStager(this.path, this.sqlLogger.options, commitId);
+			this.cmdStager = new EventSQLStager(this.path, this.sqlLogger, commitId);
+		} finally {
+			commitLock.unlock();
 		}
 	}
 
 	@Override
 	public final void rollback() throws SQLException {    	
-		synchronized(commitLock) {
+		commitLock.lock();
+		try {
 			//Delete the txnFile.    	
 			this.cmdStager.rollback();
 			this.sqlLogger.rollback(commitId);
 			connRollback();
 			this.commitId = this.sqlLogger.getNextCommitID();
-			this.cmdStager = new TxnSQLStager(this.path, this.sqlLogger.options, commitId);
+			this.cmdStager = new TxnSQLStager(this.path, this.sqlLogger, commitId);
+		} finally {
+			commitLock.unlock();
 		}
 	}
 
@@ -166,6 +178,11 @@ public abstract class MultiWriterDBAppenderConnection extends SyncLiteAppenderCo
 		return new MultiWriterDBAppenderPreparedStatement(this, sql);
 	}
 
+	@Override
+	protected final void logRows(String sql, ColumnBatch batch) throws SQLException {
+		this.cmdStager.logRows(commitId, sql, batch);
+	}
+
 	@Override 
 	public PreparedStatement prepareUnloggedStatement(String sql) throws SQLException {
 		return nativeUnloggedPreparedStatement(sql);
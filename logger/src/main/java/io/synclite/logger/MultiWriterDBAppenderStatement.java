@@ -16,11 +16,11 @@
 
 package io.synclite.logger;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.sqlite.SQLiteConnection;
 
@@ -29,7 +29,7 @@ import io.synclite.logger.MultiWriterDBProcessor.Column;
 public class MultiWriterDBAppenderStatement extends SyncLiteAppenderStatement {
 
 	private final Statement stmt;
-    private static final Object metadataDDLLock = new Object();
+    private static final ReentrantLock metadataDDLLock = new ReentrantLock();
 
 	protected MultiWriterDBAppenderStatement(SQLiteConnection conn) throws SQLException {
 		super(conn);
@@ -48,8 +48,8 @@ public class MultiWriterDBAppenderStatement extends SyncLiteAppenderStatement {
 			beforeInfo = getConn().getDBProcessor().getSrcTableInfo(tableNameInDDL, getConn().getNativeDBConnection());
 		} else {
 			//validate the SQL on sqlite metadata file if it is a valid SQLite syntax.
-			try (PreparedStatement pstmt = getConn().validateSQL(sql)) {
-				//
+			try {
+				getConn().sqlLogger.validatedSQLCache.validate(sql, getConn()::validateSQL);
 			} catch (SQLException e) {
 				throw new SQLException("Unsupporred SQL : " + sql + " : " + e.getMessage(), e);
 			}
@@ -67,7 +67,8 @@ public class MultiWriterDBAppenderStatement extends SyncLiteAppenderStatement {
 				//
 				//Simply execute drop and create table fresh on metadata file to bring it in sync
 				//
-				synchronized(metadataDDLLock) {
+				metadataDDLLock.lock();
+				try {
 					if (mappedSql.contains("RENAME TO")) {
 						//Just execute rename DDL
 						super.superExecute(mappedSql);
@@ -79,6 +80,9 @@ public class MultiWriterDBAppenderStatement extends SyncLiteAppenderStatement {
 						String createSql = SyncLiteUtils.getCreateTableSql(tableNameInDDL, afterInfo);				
 						super.superExecute(createSql);
 					}
+				} finally {
+					getConn().sqlLogger.validatedSQLCache.invalidate();
+					metadataDDLLock.unlock();
 				}
 			}
 		} else {
@@ -102,8 +106,8 @@ public class MultiWriterDBAppenderStatement extends SyncLiteAppenderStatement {
 			beforeInfo = getConn().getDBProcessor().getSrcTableInfo(tableNameInDDL, getConn().getNativeDBConnection());
 		} else {
 			//validate the SQL on sqlite metadata file if it is a valid SQLite syntax.
-			try (PreparedStatement pstmt = getConn().validateSQL(sql)) {
-				//
+			try {
+				getConn().sqlLogger.validatedSQLCache.validate(sql, getConn()::validateSQL);
 			} catch (SQLException e) {
 				throw new SQLException("Unsupporred SQL : " + sql + " : " + e.getMessage(), e);
 			}
@@ -124,7 +128,8 @@ public class MultiWriterDBAppenderStatement extends SyncLiteAppenderStatement {
 				//
 				//Simply execute drop and create table fresh on metadata file to bring it in sync
 				//
-				synchronized(metadataDDLLock) {
+				metadataDDLLock.lock();
+				try {
 					if (mappedSql.contains("RENAME TO")) {
 						//Just execute rename DDL
 						super.superExecute(mappedSql);
@@ -136,7 +141,10 @@ public class MultiWriterDBAppenderStatement extends SyncLiteAppenderStatement {
 						String createSql = SyncLiteUtils.getCreateTableSql(tableNameInDDL, afterInfo);				
 						super.superExecute(createSql);
 					}
-				}				
+				} finally {
+					getConn().sqlLogger.validatedSQLCache.invalidate();
+					metadataDDLLock.unlock();
+				}
 			}
 		} else {
 	    	sqlToLog.append(sql);
@@ -22,17 +22,19 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class MultiWriterDBConnection extends SyncLiteConnection {		
 	protected PreparedStatement nativeCommitLoggerPStmt;
 	protected SQLStager cmdStager;
 	protected MultiWriterDBProcessor dbProcessor;
-	protected static final Object commitLock = new Object();
+	protected static final ReentrantLock commitLock = new ReentrantLock();
 	protected static final String insertCommitLoggerSql = "INSERT INTO synclite_txn(commit_id, operation_id) VALUES(?, ?)";
 
 	public MultiWriterDBConnection(String url, String fileName, Properties props) throws SQLException {
 		super("jdbc:sqlite:" + SyncLite.getSQLiteSchemaFilePath(Path.of(fileName)).toString(), SyncLite.getSQLiteSchemaFilePath(Path.of(fileName)).toString() , props);
-		this.cmdStager = new TxnSQLStager(Path.of(fileName), this.sqlLogger.options, commitId);
+		this.cmdStager = new TxnSQLStager(Path.of(fileName), this.sqlLogger, commitId);
 		this.dbProcessor = nativeDBProcessor();
 	}	
 
@@ -52,22 +54,41 @@ public abstract class MultiWriterDBConnection extends SyncLiteConnection {
 
 	@Override
 	public void commit() throws SQLException {
-		synchronized(commitLock) {
+		doCommit(false);
+	}
+
+	@Override
+	public CompletableFuture<Void> commitAsync() throws SQLException {
+		return doCommit(true);
+	}
+
+	private final CompletableFuture<Void> doCommit(boolean async) throws SQLException {
+		CompletableFuture<Void> result = null;
+		commitLock.lock();
+		try {
 			if (this.cmdStager.getLogSegmentLogCount() > 0) {
 				//Generate a fresh commit id     	
 				this.commitId = this.sqlLogger.getNextCommitID();
 
-				//log REPLAY_TXN 
-				this.sqlLogger.log(commitId, "REPLAY_TXN", null);
+				if (cmdStager.isInlined()) {
+					//Small txn, log it in the log segment itself
+					cmdStager.logInlined(this.commitId);
+
+					//Flush log
+					this.sqlLogger.flush(commitId);
+				} else {
+					//log REPLAY_TXN 
+					this.sqlLogger.log(commitId, "REPLAY_TXN", null);
 
-				//Flush log
-				this.sqlLogger.flush(commitId);
+					//Flush log
+					this.sqlLogger.flush(commitId);
 
-				//Publish txn file
-				//It is safe to get the current log segment sequence number here as we are in the middle of a txn and hence
-				//logger will not switch the log file.
-				//
-				cmdStager.publishTxn(this.sqlLogger.getCurrentLogSegmentSequenceNumber(), this.commitId);
+					//Publish txn file
+					//It is safe to get the current log segment sequence number here as we are in the middle of a txn and hence
+					//logger will not switch the log file.
+					//
+					cmdStager.publishTxn(this.sqlLogger.getCurrentLogSegmentSequenceNumber(), this.commitId);
+				}
 
 				//Record commit of this transaction in user db file.    		
 				recordCommit();    		
@@ -79,26 +100,36 @@ public abstract class MultiWriterDBConnection extends SyncLiteConnection {
 			connCommit();
 
 			//Log a commit and flush log
-			this.sqlLogger.logCommitAndFlush(commitId);
+			if (async) {
+				result = this.sqlLogger.logCommitAndFlushAsync(commitId);
+			} else {
+				this.sqlLogger.logCommitAndFlush(commitId);
+			}
 
 			//Generate new commit id
 			this.commitId = this.sqlLogger.getNextCommitID();
 
 			//Create a new command stager object.
-			this.cmdStager = new TxnSQLStager(this.path, this.sqlLogger.options, commitId);
+			this.cmdStager = new TxnSQLStager(this.path, this.sqlLogger, commitId);
+		} finally {
+			commitLock.unlock();
 		}
+		return result;
 	}
 
 	@Override
 	public void rollback() throws SQLException {    	
-		synchronized(commitLock) {
+		commitLock.lock();
+		try {
 			//Delete the txnFile.    	
 			this.cmdStager.rollback();
 			this.sqlLogger.flush(commitId);
 			connRollback();
 			this.sqlLogger.logRollbackAndFlush(commitId);
 			this.commitId = this.sqlLogger.getNextCommitID();
-			this.cmdStager = new TxnSQLStager(this.path, this.sqlLogger.options, commitId);
+			this.cmdStager = new TxnSQLStager(this.path, this.sqlLogger, commitId);
+		} finally {
+			commitLock.unlock();
 		}
 	}
 
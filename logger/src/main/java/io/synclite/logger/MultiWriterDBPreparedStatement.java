@@ -90,13 +90,20 @@ public class MultiWriterDBPreparedStatement extends SyncLitePreparedStatement {
 
     
     @Override
-    final public void close() throws SQLException {
-        super.close();
+    final protected void closeStatement() throws SQLException {
+        super.closeStatement();
         if (this.pstmt != null) {
         	pstmt.close();
         }
     }
 
+    @Override
+    final protected void resetStatement() throws SQLException {
+        super.resetStatement();
+        pstmt.clearBatch();
+        pstmt.clearParameters();
+    }
+
     private SQLStager getCommandStager() {
     	return getConn().getCommandStager();
     }
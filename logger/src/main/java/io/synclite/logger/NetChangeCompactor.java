@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//
+//Removes statements of a finished transactional log segment whose effect is overwritten later in the same segment.
+//
+//Statements are grouped by commit id and a txn takes effect at its COMMIT row, hence in commit order.
+//Only committed txns and the following keyed statements on tables with a single column primary key take part :
+//  UPDATE t SET c1 = ?, c2 = ? WHERE pk = ?
+//  DELETE FROM t WHERE pk = ?
+//  INSERT INTO t(pk, c1, ...) VALUES(?, ?, ...)
+//An UPDATE is dropped if a later UPDATE of the same row sets all of its columns or a later DELETE removes the row.
+//An INSERT is dropped along with the DELETE removing the same row later.
+//A committed txn with any other statement or a rolled back txn is a barrier, statements committed before it 
+//are never dropped because of statements committed after it. A txn still open at the end of the segment is left as is.
+//Primary keys are read from the device schema at finish time, hence nothing up to the last DDL statement 
+//of the segment is compacted and the caller drops the compaction if a DDL statement was logged after the switch.
+//A null sql column repeats the sql of the preceding row, a removed row passes its sql on to the next remaining row.
+//BEGIN/COMMIT rows stay, hence commit boundaries and the order of the remaining statements are unchanged.
+//
+final class NetChangeCompactor {
+
+	private static final Pattern updatePattern = Pattern.compile("^\\s*UPDATE\\s+(\\w+)\\s+SET\\s+(.+?)\\s+WHERE\\s+(\\w+)\\s*=\\s*\\?\\s*;?\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final Pattern setColumnPattern = Pattern.compile("^\\s*(\\w+)\\s*=\\s*\\?\\s*$");
+	private static final Pattern deletePattern = Pattern.compile("^\\s*DELETE\\s+FROM\\s+(\\w+)\\s+WHERE\\s+(\\w+)\\s*=\\s*\\?\\s*;?\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final Pattern insertPattern = Pattern.compile("^\\s*INSERT\\s+INTO\\s+(\\w+)\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(([^)]*)\\)\\s*;?\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final String deleteCompactedRowSql = "DELETE FROM commandlog WHERE change_number = ?";
+	private static final String carrySqlSql = "UPDATE commandlog SET sql = ? WHERE change_number = ?";
+	private static final String selectLoggedSqlSql = "SELECT change_number, sql FROM commandlog ORDER BY change_number";
+
+	private enum Kind {
+		UPDATE,
+		DELETE,
+		INSERT
+	}
+
+	//A keyed statement on a single row
+	private static final class KeyedChange {
+		private final long changeNumber;
+		private final Kind kind;
+		private final String rowKey;
+		private final Set<String> columns;
+
+		private KeyedChange(long changeNumber, Kind kind, String rowKey, Set<String> columns) {
+			this.changeNumber = changeNumber;
+			this.kind = kind;
+			this.rowKey = rowKey;
+			this.columns = columns;
+		}
+	}
+
+	//Keyed statements of a txn not yet committed in the log segment
+	private static final class TxnChanges {
+		private boolean isKeyed = true;
+		private final List<KeyedChange> changes = new ArrayList<KeyedChange>();
+	}
+
+	//Statements logged so far for a row which a later statement may still overwrite
+	private static final class RowChanges {
+		private long insertChangeNumber = -1;
+		private final List<KeyedChange> updates = new ArrayList<KeyedChange>();
+	}
+
+	private final Path dbPath;
+	private final HashMap<String, String> primaryKeys = new HashMap<String, String>();
+	private Connection schemaConn;
+
+	private NetChangeCompactor(Path dbPath) {
+		this.dbPath = dbPath;
+	}
+
+	//
+	//Returns the number of statements removed, caller commits or rolls back.
+	//
+	static final long compact(Connection conn, Path dbPath, long inlinedArgCnt) throws SQLException {
+		NetChangeCompactor compactor = new NetChangeCompactor(dbPath);
+		try {
+			return compactor.doCompact(conn, inlinedArgCnt);
+		} finally {
+			if (compactor.schemaConn != null) {
+				compactor.schemaConn.close();
+			}
+		}
+	}
+
+	private final long doCompact(Connection conn, long inlinedArgCnt) throws SQLException {
+		List<Long> removed = new ArrayList<Long>();
+		HashMap<String, RowChanges> pending = new HashMap<String, RowChanges>();
+		HashMap<Long, TxnChanges> openTxns = new HashMap<Long, TxnChanges>();
+		long lastDDLChangeNumber = getLastDDLChangeNumber(conn);
+		try (Statement stmt = conn.createStatement()) {
+			String selectSql = "SELECT change_number, commit_id, sql, arg_cnt" + ((inlinedArgCnt > 0) ? ", " + SyncLiteUtils.prepareArgList(inlinedArgCnt) : "") + " FROM commandlog ORDER BY change_number";
+			try (ResultSet rs = stmt.executeQuery(selectSql)) {
+				String prevSql = null;
+				while (rs.next()) {
+					long changeNumber = rs.getLong(1);
+					long commitId = rs.getLong(2);
+					String loggedSql = rs.getString(3);
+					String sql = (loggedSql != null) ? loggedSql : prevSql;
+					prevSql = sql;
+					int argCnt = rs.getInt(4);
+					if (sql == null) {
+						pending.clear();
+						continue;
+					}
+					if (sql.equalsIgnoreCase("BEGIN")) {
+						openTxns.put(commitId, new TxnChanges());
+						continue;
+					}
+					if (sql.equalsIgnoreCase("COMMIT")) {
+						//Changes of a txn take effect at its own COMMIT, txns may interleave in the log segment
+						TxnChanges txn = openTxns.remove(commitId);
+						if ((txn != null) && txn.isKeyed) {
+							for (KeyedChange change : txn.changes) {
+								apply(change, pending, removed);
+							}
+						} else {
+							pending.clear();
+						}
+						continue;
+					}
+					if (sql.equalsIgnoreCase("ROLLBACK")) {
+						openTxns.remove(commitId);
+						pending.clear();
+						continue;
+					}
+					TxnChanges txn = openTxns.get(commitId);
+					if ((txn == null) || !txn.isKeyed) {
+						//Txn began in an earlier log segment or is already a barrier, its COMMIT clears pending changes
+						continue;
+					}
+					KeyedChange change = null;
+					if ((argCnt <= inlinedArgCnt) && (changeNumber > lastDDLChangeNumber)) {
+						Object[] args = new Object[argCnt];
+						for (int i = 0; i < argCnt; ++i) {
+							args[i] = rs.getObject(i + 5);
+						}
+						change = classify(changeNumber, sql, args);
+					}
+					if (change == null) {
+						//Barrier, the whole txn is left as is
+						txn.isKeyed = false;
+						txn.changes.clear();
+					} else {
+						txn.changes.add(change);
+					}
+				}
+			}
+		}
+
+		if (!removed.isEmpty()) {
+			carryRemovedSql(conn, new HashSet<Long>(removed));
+			try (PreparedStatement deletePstmt = conn.prepareStatement(deleteCompactedRowSql)) {
+				for (Long changeNumber : removed) {
+					deletePstmt.setLong(1, changeNumber);
+					deletePstmt.addBatch();
+				}
+				deletePstmt.executeBatch();
+			}
+		}
+		return removed.size();
+	}
+
+	//Change number of the last DDL statement in the segment, -1 if none
+	private static final long getLastDDLChangeNumber(Connection conn) throws SQLException {
+		long lastDDLChangeNumber = -1;
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery(selectLoggedSqlSql)) {
+				boolean prevIsDDL = false;
+				while (rs.next()) {
+					String loggedSql = rs.getString(2);
+					if (loggedSql != null) {
+						prevIsDDL = isDDL(loggedSql);
+					}
+					if (prevIsDDL) {
+						lastDDLChangeNumber = rs.getLong(1);
+					}
+				}
+			}
+		}
+		return lastDDLChangeNumber;
+	}
+
+	//Cheap check on the leading keyword, called for every log record appended while compaction is on
+	static final boolean isDDL(String sql) {
+		int i = 0;
+		while ((i < sql.length()) && Character.isWhitespace(sql.charAt(i))) {
+			++i;
+		}
+		return startsWithKeyword(sql, i, "CREATE") || startsWithKeyword(sql, i, "ALTER") || startsWithKeyword(sql, i, "DROP");
+	}
+
+	private static final boolean startsWithKeyword(String sql, int offset, String keyword) {
+		int end = offset + keyword.length();
+		return sql.regionMatches(true, offset, keyword, 0, keyword.length()) && (end < sql.length()) && Character.isWhitespace(sql.charAt(end));
+	}
+
+	//Moves the sql of removed rows to the next remaining row which relies on it
+	private static final void carryRemovedSql(Connection conn, Set<Long> removed) throws SQLException {
+		List<Long> carryChangeNumbers = new ArrayList<Long>();
+		List<String> carrySqls = new ArrayList<String>();
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery(selectLoggedSqlSql)) {
+				String carriedSql = null;
+				while (rs.next()) {
+					long changeNumber = rs.getLong(1);
+					String loggedSql = rs.getString(2);
+					if (removed.contains(changeNumber)) {
+						if (loggedSql != null) {
+							carriedSql = loggedSql;
+						}
+					} else {
+						if ((loggedSql == null) && (carriedSql != null)) {
+							carryChangeNumbers.add(changeNumber);
+							carrySqls.add(carriedSql);
+						}
+						carriedSql = null;
+					}
+				}
+			}
+		}
+		if (!carryChangeNumbers.isEmpty()) {
+			try (PreparedStatement carryPstmt = conn.prepareStatement(carrySqlSql)) {
+				for (int i = 0; i < carryChangeNumbers.size(); ++i) {
+					carryPstmt.setString(1, carrySqls.get(i));
+					carryPstmt.setLong(2, carryChangeNumbers.get(i));
+					carryPstmt.addBatch();
+				}
+				carryPstmt.executeBatch();
+			}
+		}
+	}
+
+	private final void apply(KeyedChange change, HashMap<String, RowChanges> pending, List<Long> removed) {
+		RowChanges row = pending.get(change.rowKey);
+		switch (change.kind) {
+		case INSERT:
+			row = new RowChanges();
+			row.insertChangeNumber = change.changeNumber;
+			pending.put(change.rowKey, row);
+			break;
+		case UPDATE:
+			if (row == null) {
+				row = new RowChanges();
+				pending.put(change.rowKey, row);
+			}
+			for (int i = row.updates.size() - 1; i >= 0; --i) {
+				KeyedChange prevUpdate = row.updates.get(i);
+				if (change.columns.containsAll(prevUpdate.columns)) {
+					removed.add(prevUpdate.changeNumber);
+					row.updates.remove(i);
+				}
+			}
+			row.updates.add(change);
+			break;
+		case DELETE:
+			if (row != null) {
+				for (KeyedChange prevUpdate : row.updates) {
+					removed.add(prevUpdate.changeNumber);
+				}
+				if (row.insertChangeNumber >= 0) {
+					//Row did not exist before the INSERT, neither statement is needed
+					removed.add(row.insertChangeNumber);
+					removed.add(change.changeNumber);
+				}
+			}
+			pending.remove(change.rowKey);
+			break;
+		}
+	}
+
+	//Returns null if the statement is not a keyed statement on a single row
+	private final KeyedChange classify(long changeNumber, String sql, Object[] args) throws SQLException {
+		Matcher m = updatePattern.matcher(sql);
+		if (m.matches()) {
+			String table = m.group(1).toLowerCase(Locale.ROOT);
+			String keyColumn = m.group(3).toLowerCase(Locale.ROOT);
+			String[] setList = m.group(2).split(",");
+			if ((args.length != setList.length + 1) || !keyColumn.equals(getPrimaryKey(table))) {
+				return null;
+			}
+			Set<String> columns = new HashSet<String>();
+			for (String setItem : setList) {
+				Matcher setMatcher = setColumnPattern.matcher(setItem);
+				if (!setMatcher.matches()) {
+					return null;
+				}
+				columns.add(setMatcher.group(1).toLowerCase(Locale.ROOT));
+			}
+			if (columns.contains(keyColumn) || (columns.size() != setList.length)) {
+				return null;
+			}
+			String rowKey = toRowKey(table, args[args.length - 1]);
+			return (rowKey == null) ? null : new KeyedChange(changeNumber, Kind.UPDATE, rowKey, columns);
+		}
+		m = deletePattern.matcher(sql);
+		if (m.matches()) {
+			String table = m.group(1).toLowerCase(Locale.ROOT);
+			if ((args.length != 1) || !m.group(2).toLowerCase(Locale.ROOT).equals(getPrimaryKey(table))) {
+				return null;
+			}
+			String rowKey = toRowKey(table, args[0]);
+			return (rowKey == null) ? null : new KeyedChange(changeNumber, Kind.DELETE, rowKey, null);
+		}
+		m = insertPattern.matcher(sql);
+		if (m.matches()) {
+			String table = m.group(1).toLowerCase(Locale.ROOT);
+			String keyColumn = getPrimaryKey(table);
+			String[] columnList = m.group(2).split(",");
+			String[] valueList = m.group(3).split(",");
+			if ((keyColumn == null) || (columnList.length != valueList.length) || (args.length != valueList.length)) {
+				return null;
+			}
+			int keyIndex = -1;
+			for (int i = 0; i < columnList.length; ++i) {
+				if (!valueList[i].trim().equals("?")) {
+					return null;
+				}
+				if (columnList[i].trim().toLowerCase(Locale.ROOT).equals(keyColumn)) {
+					keyIndex = i;
+				}
+			}
+			if (keyIndex < 0) {
+				return null;
+			}
+			String rowKey = toRowKey(table, args[keyIndex]);
+			return (rowKey == null) ? null : new KeyedChange(changeNumber, Kind.INSERT, rowKey, null);
+		}
+		return null;
+	}
+
+	private static final String toRowKey(String table, Object key) {
+		if ((key instanceof Integer) || (key instanceof Long)) {
+			return table + ":L:" + ((Number) key).longValue();
+		} else if (key instanceof String) {
+			return table + ":S:" + key;
+		} else if (key instanceof byte[]) {
+			return table + ":B:" + Arrays.toString((byte[]) key);
+		}
+		//Null or inexact keys are never compacted
+		return null;
+	}
+
+	//Single column primary key of given table in the device database, null if none
+	private final String getPrimaryKey(String table) throws SQLException {
+		if (primaryKeys.containsKey(table)) {
+			return primaryKeys.get(table);
+		}
+		if (schemaConn == null) {
+			schemaConn = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+		}
+		String keyColumn = null;
+		int keyColumnCnt = 0;
+		try (Statement stmt = schemaConn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("pragma table_info(" + table + ")")) {
+				while (rs.next()) {
+					if (rs.getInt("pk") > 0) {
+						keyColumn = rs.getString("name").toLowerCase(Locale.ROOT);
+						++keyColumnCnt;
+					}
+				}
+			}
+		}
+		if (keyColumnCnt != 1) {
+			keyColumn = null;
+		}
+		primaryKeys.put(table, keyColumn);
+		return keyColumn;
+	}
+}
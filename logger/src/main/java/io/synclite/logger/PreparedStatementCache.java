@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+//
+//Per connection LRU cache of idle prepared statements keyed by SQL and result set flags.
+//A statement is removed from the cache while handed out and put back when the application 
+//closes it, hence a statement is never shared by two callers. Statements evicted or left 
+//over when the connection closes are closed for real.
+//
+final class PreparedStatementCache {
+
+	private final int maxSize;
+	private final LinkedHashMap<String, SyncLitePreparedStatement> idleStatements;
+
+	PreparedStatementCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.idleStatements = new LinkedHashMap<String, SyncLitePreparedStatement>(16, 0.75f, true);
+	}
+
+	static final String key(String sql, int rst, int rsc, int rsh) {
+		return rst + ":" + rsc + ":" + rsh + ":" + sql;
+	}
+
+	final SyncLitePreparedStatement take(String key) {
+		SyncLitePreparedStatement pstmt = idleStatements.remove(key);
+		if (pstmt != null) {
+			pstmt.reopen();
+		}
+		return pstmt;
+	}
+
+	//Returns false if the statement could not be cached and should be closed by the caller
+	final boolean put(String key, SyncLitePreparedStatement pstmt) throws SQLException {
+		if (idleStatements.containsKey(key)) {
+			return false;
+		}
+		idleStatements.put(key, pstmt);
+		if (idleStatements.size() > maxSize) {
+			Iterator<SyncLitePreparedStatement> eldest = idleStatements.values().iterator();
+			SyncLitePreparedStatement evicted = eldest.next();
+			eldest.remove();
+			evicted.closeStatement();
+		}
+		return true;
+	}
+
+	final void closeAll() throws SQLException {
+		List<SyncLitePreparedStatement> statements = new ArrayList<SyncLitePreparedStatement>(idleStatements.values());
+		idleStatements.clear();
+		SQLException firstException = null;
+		for (SyncLitePreparedStatement pstmt : statements) {
+			try {
+				pstmt.closeStatement();
+			} catch (SQLException e) {
+				if (firstException == null) {
+					firstException = e;
+				}
+			}
+		}
+		if (firstException != null) {
+			throw firstException;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+//
+//Process wide cache of ClassifiedSQL keyed by SQL text so that repeatedly executed 
+//statements are split and tokenized once. Long SQL texts, typically carrying 
+//inlined values and hence rarely repeated, are classified without being cached.
+//Lookups are lock free. Once full, an arbitrary slice of the entries is evicted, 
+//frequently executed statements get classified again on their next execution.
+//
+final class SQLClassifier {
+
+	private static final int MAX_CACHED_SQLS = 4096;
+	private static final int MAX_CACHED_SQL_LENGTH = 4096;
+	private static final int EVICTION_BATCH_SIZE = MAX_CACHED_SQLS / 8;
+
+	private static final ConcurrentHashMap<String, ClassifiedSQL> cache = new ConcurrentHashMap<String, ClassifiedSQL>(MAX_CACHED_SQLS);
+
+	private SQLClassifier() {
+	}
+
+	static final ClassifiedSQL classify(String sql) {
+		if (sql.length() > MAX_CACHED_SQL_LENGTH) {
+			return new ClassifiedSQL(sql);
+		}
+		ClassifiedSQL classifiedSql = cache.get(sql);
+		if (classifiedSql != null) {
+			return classifiedSql;
+		}
+		//A concurrent duplicate is harmless
+		classifiedSql = new ClassifiedSQL(sql);
+		if (cache.size() >= MAX_CACHED_SQLS) {
+			evict();
+		}
+		cache.put(sql, classifiedSql);
+		return classifiedSql;
+	}
+
+	//Concurrent evictions may remove a few more entries than needed, which is harmless
+	private static final void evict() {
+		Iterator<String> iter = cache.keySet().iterator();
+		for (int i = 0; (i < EVICTION_BATCH_SIZE) && iter.hasNext(); ++i) {
+			iter.next();
+			iter.remove();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+//
+//Statement kinds told apart by the leading keywords of a SQL statement
+//
+enum SQLKind {
+	INSERT,
+	UPDATE,
+	DELETE,
+	COPY,
+	CREATE_TABLE,
+	DROP_TABLE,
+	ALTER_TABLE,
+	REFRESH_TABLE,
+	PUBLISH_COLUMN_LIST,
+	SELECT,
+	OTHER;
+
+	static final SQLKind of(String[] tokens) {
+		if (tokens.length == 0) {
+			return OTHER;
+		}
+		String first = tokens[0];
+		String second = (tokens.length > 1) ? tokens[1] : "";
+		if (first.equalsIgnoreCase("INSERT")) {
+			return second.equalsIgnoreCase("INTO") ? INSERT : OTHER;
+		} else if (first.equalsIgnoreCase("UPDATE")) {
+			return UPDATE;
+		} else if (first.equalsIgnoreCase("DELETE")) {
+			return second.equalsIgnoreCase("FROM") ? DELETE : OTHER;
+		} else if (first.equalsIgnoreCase("COPY")) {
+			return COPY;
+		} else if (first.equalsIgnoreCase("SELECT")) {
+			return SELECT;
+		} else if (second.equalsIgnoreCase("TABLE")) {
+			if (first.equalsIgnoreCase("CREATE")) {
+				return CREATE_TABLE;
+			} else if (first.equalsIgnoreCase("DROP")) {
+				return DROP_TABLE;
+			} else if (first.equalsIgnoreCase("ALTER")) {
+				return ALTER_TABLE;
+			} else if (first.equalsIgnoreCase("REFRESH")) {
+				return REFRESH_TABLE;
+			}
+		} else if (first.equalsIgnoreCase("PUBLISH") && second.equalsIgnoreCase("COLUMN") && (tokens.length > 2) && tokens[2].equalsIgnoreCase("LIST")) {
+			return PUBLISH_COLUMN_LIST;
+		}
+		return OTHER;
+	}
+
+	final boolean isTableDDL() {
+		return (this == CREATE_TABLE) || (this == DROP_TABLE) || (this == ALTER_TABLE);
+	}
+}
@@ -33,15 +33,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Logger;
 
 abstract class SQLLogger extends Thread {
 
-	protected static final ConcurrentHashMap<Path, SQLLogger> loggers = new ConcurrentHashMap<Path, SQLLogger>();    
+	//Devices are built outside the map under the per device initialization lock and published with putIfAbsent
+	protected static final ConcurrentHashMap<Path, SQLLogger> loggers = new ConcurrentHashMap<Path, SQLLogger>(1024);    
+	private static final ConcurrentHashMap<Path, ReentrantLock> loggerCreationLocks = new ConcurrentHashMap<Path, ReentrantLock>();
 	protected static final String createLogTableSqlTemplate = "CREATE TABLE IF NOT EXISTS commandlog(change_number INTEGER PRIMARY KEY, commit_id LONG, sql TEXT, arg_cnt INTEGER, $1);";
 	protected static final String insertLogTableSqlTemplate = "INSERT INTO commandlog(change_number, commit_id, sql, arg_cnt, $1) VALUES ($2)";
 	protected static final String alterLogTableSqlTemplate = "ALTER TABLE commandlog ADD COLUMN $1";
@@ -49,10 +58,12 @@ abstract class SQLLogger extends Thread {
 	protected static final String dropTxnTableSql = "DROP TABLE IF EXISTS synclite_txn;";
 	protected static final String selectTxnTableSql = "SELECT commit_id, operation_id FROM synclite_txn;";
 	protected static final String insertTxnTable = "INSERT INTO synclite_txn VALUES(0,0);";
-	protected static final String dropMetadataTableSql = "DROP TABLE IF EXISTS metadata";
 	protected static final String createMetadataTableSql = "CREATE TABLE IF NOT EXISTS metadata(key TEXT PRIMARY KEY, value TEXT)";
+	//A reopened segment keeps its persisted tail for the reload following the init
+	protected static final String resetMetadataTableSql = "DELETE FROM metadata WHERE key <> 'tail'";
 	protected static final String insertMetadataTableSql = "INSERT INTO metadata(key, value) VALUES ('status', 'NEW')";
 	protected static final String updateMetadataTableSql = "UPDATE metadata SET value = '" + LogSegmentStatus.READY_TO_APPLY + "' WHERE key = 'status'" ; 
+	private static final int LOG_SEGMENT_FINISH_ATTEMPTS = 3;
 	protected Connection logTableConn = null;
 	protected PreparedStatement insertLogTablePstmt = null;
 	protected Set<PreparedStatement> additionalPrepStmts = new HashSet<PreparedStatement>();
@@ -83,16 +94,42 @@ abstract class SQLLogger extends Thread {
 	protected boolean allowsConcurrentWrites;
 	protected MetadataManager metadataMgr;
 	protected BackupAgent backupAgent;
-	protected List<LogShipper> logShippers = new ArrayList<LogShipper>();
+	protected List<LogShipper> logShippers = new CopyOnWriteArrayList<LogShipper>();
 	protected List<CommandHandler> cmdHandlers = new ArrayList<CommandHandler>();
 	protected LogCleaner logCleaner;
 	protected Long inlinedArgCnt;
+	protected AtomicLong maxInlinedArgCnt = new AtomicLong(0);
+	private final ReentrantLock maxInlinedArgCntLock = new ReentrantLock();
+	//Serializes deferred startup and close of the device, the monitor of this Thread is left to join()
+	private final ReentrantLock lifecycleLock = new ReentrantLock();
+	protected volatile long logSegmentByteCount;
+	protected long avgLogRecordWidth;
+	protected volatile long logSegmentPageSize;
 	protected SyncLiteOptions options;
 	protected Logger tracer;
 	protected LogSegmentPlacer logSegmentPlacer;
+	//null unless metrics are enabled for this device
+	protected volatile DeviceMetrics metrics;
+	//null unless commit tracing is enabled for this device
+	protected CommitTracer commitTracer;
 	private volatile boolean terminateInProgress;
 	protected AtomicBoolean isHealthy = new AtomicBoolean(true);
+	final ValidatedSQLCache validatedSQLCache = new ValidatedSQLCache();
+	private final LogSegmentTail logSegmentTail = new LogSegmentTail();
 	private SyncLiteAppLock appLock = new SyncLiteAppLock();
+	private static final long minLatencyBoundSegmentBytes = 1048576;
+	//Threads closing devices and their components, daemon threads so that they never hold up a JVM exit
+	private static final ExecutorService terminators = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "SyncLite-Terminator");
+		t.setDaemon(true);
+		return t;
+	});
+	//Log segments below this sequence number are finished and handed to the shippers
+	private final AtomicLong shippableLogSegmentSequenceNumber = new AtomicLong(-1);
+	//Compacts and encodes finished log segments off the logging path, null unless configured
+	private ExecutorService logSegmentFinisher;
+	//DDL statements appended to log segments so far, counted only while net change compaction is on
+	private final AtomicLong appendedDDLCount = new AtomicLong(0);
 	private static AtomicLong latestGeneratedCommitId = new AtomicLong(System.currentTimeMillis());
 
 	protected SQLLogger(Path dbPath, SyncLiteOptions options, Logger tracer) throws SQLException {
@@ -100,15 +137,23 @@ abstract class SQLLogger extends Thread {
 		this.dbPath = dbPath;
 		this.dbName = dbPath.getFileName();
 		this.tracer = tracer;
+		this.commitTracer = CommitTracer.create(dbPath, options, tracer);
 		try {
 			tryLockDB();
 			initLogger();
 			initializeMetadataProperties();
 			this.logSegmentPlacer = getLogSegmentPlacer();
+			this.shippableLogSegmentSequenceNumber.set(this.logSegmentSequenceNumber.get());
+			if (this.allowsConcurrentWrites) {
+				this.logSegmentPlacer.getTxnFileCatalog().load(Path.of(this.dbPath + ".synclite"), this.logSegmentPlacer);
+			}
 			restartRecovery();
 			initializeLogShipper();
-			initializeCommandHandlers();
-			initializeBackupAgent();
+			if (!options.getDeferNonCriticalStartup()) {
+				initializeCommandHandlers();
+				initializeBackupAgent();
+			}
+			initializeMetrics();
 		} catch (SQLException e) {
 			if (metadataMgr != null) {
 				metadataMgr.close();
@@ -124,6 +169,41 @@ abstract class SQLLogger extends Thread {
 
 	protected abstract void initLogger();
 
+	@FunctionalInterface
+	interface LoggerConstructor {
+		SQLLogger construct(Path dbPath) throws SQLException;
+	}
+
+	//
+	//Returns the logger of given device, building it first if needed. The logger is built outside the map 
+	//under a per device creation lock, so that lookups and initialization of other devices are not held up 
+	//and no second logger of the device is ever built.
+	//
+	protected static final SQLLogger getOrCreateInstance(Path dbPath, Logger tracer, LoggerConstructor constructor) throws SQLException {
+		SQLLogger logger = loggers.get(dbPath);
+		if (logger != null) {
+			return logger;
+		}
+		ReentrantLock creationLock = loggerCreationLocks.computeIfAbsent(dbPath, p -> new ReentrantLock());
+		creationLock.lock();
+		try {
+			logger = loggers.get(dbPath);
+			if (logger != null) {
+				return logger;
+			}
+			try {
+				logger = constructor.construct(dbPath);
+			} catch (SQLException e) {
+				tracer.error("Failed to create/get a SQL logger instance for device : " + dbPath + " : " + e.getMessage(), e);
+				throw e;
+			}
+			loggers.put(dbPath, logger);
+			return logger;
+		} finally {
+			creationLock.unlock();
+		}
+	}
+
 	static SQLLogger findInstance(Path dbPath) throws SQLException {
 		if (dbPath == null) {
 			return null;
@@ -159,21 +239,48 @@ abstract class SQLLogger extends Thread {
 	
 	private final void initializeLogShipper() throws SQLException {
 		//If there is single destination then we only create a LogMover 
-		//Else we create multiple LogShippers + LogCleaner
+		//Else we create multiple LogShippers sharing a LogFanOut + LogCleaner
 		//
 		if ((options.getNumDestinations() == 1)) {
 			LogMover mover = new LogMover(this.dbPath, this.databaseID, getWriteArchiveName(), logSegmentPlacer, metadataMgr, this.options, 1, this.tracer);
 			logShippers.add(mover);
-			mover.setLogSegmentSequenceNumber(this.logSegmentSequenceNumber);
+			mover.setLogSegmentSequenceNumber(this.shippableLogSegmentSequenceNumber);
 			mover.setDataFileSequenceNumber(this.dataFileSequenceNumber);
 		} else {
+			//Each artifact is read and transformed once and shared by all the destinations
+			LogFanOut fanOut = new LogFanOut(this.dbPath, logSegmentPlacer, this.options, this.tracer);
 			for (Integer i=1 ; i <= options.getNumDestinations(); ++i) {
-				LogShipper shipper = new LogShipper(this.dbPath, this.databaseID, getWriteArchiveName(), logSegmentPlacer, this.metadataMgr, this.options, i, this.tracer);
+				LogShipper shipper = new LogShipper(this.dbPath, this.databaseID, getWriteArchiveName(), logSegmentPlacer, this.metadataMgr, this.options, i, fanOut, this.tracer);
 				logShippers.add(shipper);
-				shipper.setLogSegmentSequenceNumber(this.logSegmentSequenceNumber);
+				shipper.setLogSegmentSequenceNumber(this.shippableLogSegmentSequenceNumber);
 				shipper.setDataFileSequenceNumber(this.dataFileSequenceNumber);
 			}
-			logCleaner = new LogCleaner(this.dbPath, this.databaseID, this.logShippers, this.logSegmentPlacer, metadataMgr, this.options, this.tracer);			
+			logCleaner = new LogCleaner(this.dbPath, this.databaseID, this.logShippers, this.logSegmentPlacer, fanOut, metadataMgr, this.options, this.tracer);			
+		}
+	}
+
+	//
+	//Start the components deferred by a bulk device initialization, once the device is accepting writes.
+	//Nothing to do if the device got closed in between.
+	//
+	static final void startDeferredComponents(Path dbPath) throws SQLException {
+		SQLLogger logger = findInstance(dbPath);
+		if (logger != null) {
+			logger.doStartDeferredComponents();
+		}
+	}
+
+	private void doStartDeferredComponents() throws SQLException {
+		lifecycleLock.lock();
+		try {
+			if (!options.getDeferNonCriticalStartup() || (loggers.get(this.dbPath) != this)) {
+				return;
+			}
+			options.setDeferNonCriticalStartup(false);
+			initializeCommandHandlers();
+			initializeBackupAgent();
+		} finally {
+			lifecycleLock.unlock();
 		}
 	}
 
@@ -199,6 +306,19 @@ abstract class SQLLogger extends Thread {
 		}
 	}
 
+	private final void initializeMetrics() {
+		if (options.getEnableMetrics()) {
+			DeviceMetrics deviceMetrics = new DeviceMetrics(this);
+			deviceMetrics.register();
+			this.metrics = deviceMetrics;
+		}
+	}
+
+	//Number of log records queued and not yet appended to the log segment
+	long getLogQueueDepth() {
+		return 0;
+	}
+
 	private String getWriteArchiveName() {
 		if (options.getDeviceName().equals("")) {
 			return getWriteArchiveNamePrefix() + this.uuid.toString();
@@ -214,55 +334,207 @@ abstract class SQLLogger extends Thread {
 	}
 
 	private final void doSwitchLogSegment() throws SQLException {
+		doSwitchLogSegment(true);
+	}
+
+	//finishesLogSegment is false when the current log segment is recreated rather than finished
+	private final void doSwitchLogSegment(boolean finishesLogSegment) throws SQLException {
+		long switchStartTime = System.nanoTime();
+		long finishedLogSegmentBytes = this.logSegmentByteCount;
+		long finishedSeqNum = this.logSegmentSequenceNumber.get();
+		Path finishedLogPath = this.logPath;
+		Long finishedInlinedArgCnt = this.inlinedArgCnt;
+		long finishedDDLCount = this.appendedDDLCount.get();
 		finishCurrentLogSegment();
+		updateAvgLogRecordWidth();
 		createNewLogSegment(this.logSegmentSequenceNumber.get() + 1);
 		this.logSegmentSequenceNumber.addAndGet(1);
 		this.logSegmentLogCount = 0;
+		this.logSegmentByteCount = 0;
+
+		metadataMgr.updateProperty("log_segment_sequence_number", String.valueOf(logSegmentSequenceNumber), true);
+		if (finishesLogSegment && (finishedSeqNum >= 0) && needsLogSegmentPostProcessing()) {
+			if (logSegmentFinisher == null) {
+				logSegmentFinisher = Executors.newSingleThreadExecutor(r -> {
+					Thread t = new Thread(r, "SyncLite-LogSegmentFinisher");
+					t.setDaemon(true);
+					return t;
+				});
+			}
+			logSegmentFinisher.execute(() -> {
+				postProcessLogSegment(finishedLogPath, finishedInlinedArgCnt, finishedDDLCount);
+				publishShippableLogSegments(finishedSeqNum + 1);
+			});
+		} else {
+			publishShippableLogSegments(this.logSegmentSequenceNumber.get());
+		}
+		DeviceMetrics deviceMetrics = this.metrics;
+		if (deviceMetrics != null) {
+			deviceMetrics.recordLogSegmentSwitch(switchStartTime, finishedLogSegmentBytes);
+		}
+	}
 
-		metadataMgr.updateProperty("log_segment_sequence_number", String.valueOf(logSegmentSequenceNumber));
+	private final void publishShippableLogSegments(long seqNum) {
+		this.shippableLogSegmentSequenceNumber.accumulateAndGet(seqNum, Math::max);
 		for (LogShipper logShipper : logShippers)
 		{
-			logShipper.setLogSegmentSequenceNumber(this.logSegmentSequenceNumber);
+			logShipper.setLogSegmentSequenceNumber(this.shippableLogSegmentSequenceNumber);
 		}
 	}
 
+	//
+	//A failure fails the switch, the log segment stays open and current and the switch is retried by a later checkup
+	//
 	protected final void finishCurrentLogSegment() throws SQLException {
 		if (logTableConn != null) {
+			try (Statement stmt = logTableConn.createStatement()) {
+				stmt.execute(updateMetadataTableSql);
+			}
+			logTableConn.commit();
+			applyDurabilityOnFinish();
+
 			try {
-				try (Statement stmt = logTableConn.createStatement()) {
-					stmt.execute(updateMetadataTableSql);
+				for (PreparedStatement pstmt : argTablePrepStmtsMap.values()) {
+					pstmt.close();
 				}
-				logTableConn.commit();
-
-				if (additionalPrepStmts != null) {
-					for (PreparedStatement pstmt : additionalPrepStmts) {
-						pstmt.close();
-					}
-					additionalPrepStmts.clear();
-					argTablePrepStmtsMap.clear();
-				}				
+				argTablePrepStmtsMap.clear();
+				additionalPrepStmts.clear();				
 				if (insertLogTablePstmt != null) {
 					insertLogTablePstmt.close();
 				}
-
-				logTableConn.close();
+			} catch (SQLException e) {
+				//suppress
+			} finally {
+				try {
+					logTableConn.close();
+				} catch (SQLException e) {
+					//suppress
+				}
 				logTableConn = null;
+			}
+		}
+	}
+
+	//
+	//Switching a WAL segment back to rollback journal needs the WAL to itself, a reader of the 
+	//segment may hold it for a moment, hence a few attempts before giving up on the switch
+	//
+	private final void applyDurabilityOnFinish() throws SQLException {
+		for (int attempt = 1; ; ++attempt) {
+			try {
+				options.getLogSegmentDurability().applyOnFinish(logTableConn);
+				return;
 			} catch (SQLException e) {
+				if (attempt >= LOG_SEGMENT_FINISH_ATTEMPTS) {
+					logTableConn.setAutoCommit(false);
+					throw new SQLException("SyncLite failed to finish log segment " + logPath + " : " + e.getMessage(), e);
+				}
+				try {
+					Thread.sleep(100L * attempt);
+				} catch (InterruptedException e1) {
+					Thread.currentThread().interrupt();
+					logTableConn.setAutoCommit(false);
+					throw new SQLException("SyncLite interrupted finishing log segment " + logPath, e);
+				}
+			}
+		}
+	}
+
+	private final boolean needsLogSegmentPostProcessing() {
+		return (options.getLogSegmentNetChangeCompaction() && supportsNetChangeCompaction()) || 
+				((options.getLogSegmentEncoding() == LogSegmentEncoding.COLUMNAR) && supportsColumnarEncoding());
+	}
+
+	//
+	//Compacts and encodes a finished log segment before it is shipped, on the log segment finisher thread.
+	//Segments left over by a device close are shipped as they are after the next start.
+	//
+	private final void postProcessLogSegment(Path segmentPath, long segmentInlinedArgCnt, long segmentDDLCount) {
+		try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + segmentPath)) {
+			conn.setAutoCommit(false);
+			boolean shrunk = compactLogSegment(conn, segmentPath, segmentInlinedArgCnt, segmentDDLCount);
+			shrunk |= encodeLogSegment(conn, segmentPath, segmentInlinedArgCnt);
+			if (shrunk) {
+				//Give back the pages freed by the compacted and encoded rows
+				conn.setAutoCommit(true);
+				try (Statement stmt = conn.createStatement()) {
+					stmt.execute("VACUUM");
+				}
+			}
+		} catch (SQLException e) {
+			tracer.error("SyncLite failed to finish log segment " + segmentPath + ", shipping it as is : " + e);
+		}
+	}
+
+	//
+	//Move runs of INSERT rows into column blocks if configured, a failure leaves the log segment row encoded
+	//
+	private final boolean encodeLogSegment(Connection conn, Path segmentPath, long segmentInlinedArgCnt) {
+		if ((options.getLogSegmentEncoding() != LogSegmentEncoding.COLUMNAR) || !supportsColumnarEncoding()) {
+			return false;
+		}
+		try {
+			long encodedRows = ColumnarSegmentEncoder.encode(conn, segmentInlinedArgCnt);
+			conn.commit();
+			return (encodedRows > 0);
+		} catch (SQLException e) {
+			tracer.error("SyncLite failed to encode log segment " + segmentPath + " into column blocks, leaving it row encoded : " + e);
+			try {
+				conn.rollback();
+			} catch (SQLException e1) {
+				//suppress
+			}
+			return false;
+		}
+	}
+
+	//Only insert only devices benefit from column blocks
+	protected boolean supportsColumnarEncoding() {
+		return false;
+	}
+
+	//
+	//Drop statements overwritten later in the log segment if configured, a failure leaves the log segment as is
+	//
+	private final boolean compactLogSegment(Connection conn, Path segmentPath, long segmentInlinedArgCnt, long segmentDDLCount) {
+		if (!options.getLogSegmentNetChangeCompaction() || !supportsNetChangeCompaction()) {
+			return false;
+		}
+		try {
+			long compactedLogs = NetChangeCompactor.compact(conn, dbPath, segmentInlinedArgCnt);
+			//Statements are appended before their txn commits on the device, hence no DDL appended since the switch 
+			//means the primary keys just read are the ones the log segment was written against
+			if (this.appendedDDLCount.get() != segmentDDLCount) {
+				tracer.info("SyncLite skipped compaction of log segment " + segmentPath + " as the device schema changed after it was finished");
+				conn.rollback();
+				return false;
+			}
+			conn.commit();
+			return (compactedLogs > 0);
+		} catch (SQLException e) {
+			tracer.error("SyncLite failed to compact log segment " + segmentPath + ", leaving it as is : " + e);
+			try {
+				conn.rollback();
+			} catch (SQLException e1) {
 				//suppress
 			}
+			return false;
 		}
 	}
 
+	//Net change compaction needs the schema of the device database and all statements of a txn in the log segment
+	protected boolean supportsNetChangeCompaction() {
+		return false;
+	}
+
 	protected final void closeCurrentLogSegment() throws SQLException {
 		if (logTableConn != null) {
 			try {				
-				if (additionalPrepStmts != null) {
-					for (PreparedStatement pstmt : additionalPrepStmts) {
-						pstmt.close();
-					}
-					additionalPrepStmts.clear();
-					argTablePrepStmtsMap.clear();
-				}				
+				for (PreparedStatement pstmt : argTablePrepStmtsMap.values()) {
+					pstmt.close();
+				}
+				argTablePrepStmtsMap.clear();
+				additionalPrepStmts.clear();				
 				if (insertLogTablePstmt != null) {
 					insertLogTablePstmt.close();
 				}
@@ -274,7 +546,7 @@ abstract class SQLLogger extends Thread {
 	}
 
 	private final void initializeMetadataProperties() throws SQLException {
-		this.metadataMgr = new MetadataManager(getMetadataFilePath(dbPath));
+		this.metadataMgr = new MetadataManager(getMetadataFilePath(dbPath), options.getMetadataFlushIntervalMs());
 		String strVal = metadataMgr.getStringProperty("uuid");
 		if (strVal != null) {
 			this.uuid = UUID.fromString(strVal);
@@ -362,6 +634,23 @@ abstract class SQLLogger extends Thread {
 			metadataMgr.insertProperty("last_processing_command", this.lastProcessingCommand);
 		}
 
+		longVal = metadataMgr.getLongProperty("avg_log_record_width");
+		if (longVal != null) {
+			this.avgLogRecordWidth = longVal;
+		} else {
+			this.avgLogRecordWidth = 0;
+			metadataMgr.insertProperty("avg_log_record_width", this.avgLogRecordWidth);
+		}
+		this.logSegmentPageSize = computeLogSegmentPageSize();
+
+		longVal = metadataMgr.getLongProperty("max_inlined_arg_count");
+		if (longVal != null) {
+			this.maxInlinedArgCnt.set(Math.max(longVal, options.getLogMaxInlinedArgs()));
+		} else {
+			this.maxInlinedArgCnt.set(options.getLogMaxInlinedArgs());
+			metadataMgr.insertProperty("max_inlined_arg_count", this.maxInlinedArgCnt.get());
+		}
+
 		initializeAdditionalMetadataProperties();
 	}
 
@@ -389,7 +678,7 @@ abstract class SQLLogger extends Thread {
 				//If restart recovery is disabled, create a fresh segment and start up
 				if (options.getSkipRestartRecovery()) {
 					this.logSegmentSequenceNumber.decrementAndGet();
-					doSwitchLogSegment();
+					doSwitchLogSegment(false);
 				} else {
 					tracer.error("Restart recovery for device : " + dbPath + " failed with exception : ", e);
 					throw e;
@@ -443,46 +732,49 @@ abstract class SQLLogger extends Thread {
 		this.logPath = logSegmentPlacer.getLogSegmentPath(this.dbPath, this.databaseID, seqNum);
 		String url = "jdbc:sqlite:" + logPath;
 		logTableConn = DriverManager.getConnection(url);
-		inlinedArgCnt = options.getLogMaxInlinedArgs();
+		//Pre-size arg columns to the widest statement seen so far on this device to avoid ALTER TABLE while logging
+		inlinedArgCnt = getInlinedArgCntForNewLog();
 		String argList = SyncLiteUtils.prepareArgList(inlinedArgCnt);
 		String fillerList = SyncLiteUtils.preparePStmtFillerList(inlinedArgCnt + 4);
 		try (Statement stmt = logTableConn.createStatement()) {
-			stmt.execute("pragma journal_mode = normal;");
-			stmt.execute("pragma synchronous = normal;");
 			stmt.execute("pragma temp_store = memory;");
 			stmt.execute("pragma mmap_size = 30000000000;");
-			stmt.execute("pragma page_size = " + options.getLogSegmentPageSize()+ ";");
+			options.getLogSegmentDurability().applyOnCreate(stmt, logSegmentPageSize);
 			stmt.execute(createLogTableSqlTemplate.replace("$1", argList));
-			stmt.execute(dropMetadataTableSql);
 			stmt.execute(createMetadataTableSql);
+			stmt.execute(resetMetadataTableSql);
 			stmt.execute(insertMetadataTableSql);
 		}
 		logTableConn.setAutoCommit(false);
 		String insertLogTableSql = insertLogTableSqlTemplate.replace("$1", argList);
 		insertLogTableSql = insertLogTableSql.replace("$2", fillerList);
 		insertLogTablePstmt = logTableConn.prepareStatement(insertLogTableSql);
+		logSegmentTail.reset();
 		lastLogSegmentCreateTime = System.currentTimeMillis();		
 	}
 
 	private final void reloadCurrentLogSegment() throws SQLException {
+		//Release the connection opened by initLogSegment, exclusive locking mode would block the reload otherwise 
+		closeCurrentLogSegment();
 		this.logPath = logSegmentPlacer.getLogSegmentPath(this.dbPath, this.databaseID, this.logSegmentSequenceNumber.get());
 		String url = "jdbc:sqlite:" + logPath;
 		logTableConn = DriverManager.getConnection(url);
+		try (Statement stmt = logTableConn.createStatement()) {
+			options.getLogSegmentDurability().applyOnOpen(stmt);
+		}
 		logTableConn.setAutoCommit(false);
 		restartSlaveCommitID = 0;
 		currentTxnLogCount = 0;
 		restartTxnFate = "UNKNOWN";
 		restartLoggedSQL = null;
 		try (Statement stmt = logTableConn.createStatement()) {
-			try (ResultSet rs = stmt.executeQuery("SELECT commit_id FROM commandlog WHERE change_number = (SELECT MAX(change_number) FROM commandlog);")) {
-				if (rs.next()) {
-					restartSlaveCommitID = rs.getLong(1);
-				}
-			}
-
-			try (ResultSet rs = stmt.executeQuery("SELECT sql FROM commandlog WHERE change_number = (SELECT MAX(change_number) FROM commandlog)")) {
+			//change_number is the rowid, last row is a single b-tree seek
+			long lastChangeNumber = -1;
+			try (ResultSet rs = stmt.executeQuery("SELECT change_number, commit_id, sql FROM commandlog ORDER BY change_number DESC LIMIT 1")) {
 				if (rs.next()) {
-					restartLoggedSQL = rs.getString(1);
+					lastChangeNumber = rs.getLong(1);
+					restartSlaveCommitID = rs.getLong(2);
+					restartLoggedSQL = rs.getString(3);
 				}
 			}
 
@@ -500,13 +792,11 @@ abstract class SQLLogger extends Thread {
 				}
 			}
 
-			try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM commandlog;")) {
-				if (rs.next()) {
-					this.logSegmentLogCount = rs.getLong(1);
-				}
-			}
-			
-			try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM commandlog WHERE commit_id = " + restartSlaveCommitID)) {
+			//Change numbers are handed out in sequence, next one follows the last row
+			this.logSegmentLogCount = lastChangeNumber + 1;
+
+			logSegmentTail.load(stmt, restartSlaveCommitID, lastChangeNumber);
+			try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM commandlog WHERE change_number >= " + logSegmentTail.getTxnStartChangeNumber(restartSlaveCommitID) + " AND commit_id = " + restartSlaveCommitID)) {
 				if (rs.next()) {
 					this.currentTxnLogCount = rs.getLong(1);
 				}
@@ -519,6 +809,12 @@ abstract class SQLLogger extends Thread {
 				}
 			}
 			inlinedArgCnt = colCnt - 4;
+
+			//Same estimate as used while logging, the file size also counts pages and b-tree overhead
+			if (logSegmentTail.getByteCount() < 0) {
+				logSegmentTail.setByteCount(SyncLiteUtils.estimateLoggedBytes(stmt, inlinedArgCnt));
+			}
+			this.logSegmentByteCount = logSegmentTail.getByteCount();
 		} catch (SQLException e) {
 			this.logTableConn = null;
 			tracer.error("SyncLite Logger failed reloading log segment " + logPath + " with exception : ", e);
@@ -550,6 +846,10 @@ abstract class SQLLogger extends Thread {
 			pstmt.executeBatch();
 		}		
 		currentBatchLogCount = 0;
+		DeviceMetrics deviceMetrics = this.metrics;
+		if (deviceMetrics != null) {
+			deviceMetrics.recordLogBatch();
+		}
 	}
 
 	private final void rePrepareLogTablePstmt() throws SQLException {
@@ -568,9 +868,78 @@ abstract class SQLLogger extends Thread {
 			}
 		}
 		this.inlinedArgCnt = endIndex;
+		recordInlinedArgCnt(endIndex);
+	}
+
+	final long getLogSegmentPageSizeForNewLog() {
+		return logSegmentPageSize;
+	}
+
+	//
+	//Pick the smallest page size that keeps an average record (with 2x headroom for skew) off overflow pages.
+	//A table b-tree leaf page stores up to (page_size - 35) bytes of payload locally.
+	//
+	private final long computeLogSegmentPageSize() {
+		if (!options.getAdaptiveLogSegmentPageSize() || (avgLogRecordWidth <= 0)) {
+			return options.getLogSegmentPageSize();
+		}
+		long pageSize = SyncLiteUtils.nextPowerOf2(2 * avgLogRecordWidth + 35);
+		return Math.min(65536, Math.max(options.getLogSegmentPageSize(), pageSize));
+	}
+
+	private final void updateAvgLogRecordWidth() throws SQLException {
+		if (this.logSegmentLogCount <= 0) {
+			return;
+		}
+		long segmentAvg = this.logSegmentByteCount / this.logSegmentLogCount;
+		if (this.avgLogRecordWidth <= 0) {
+			this.avgLogRecordWidth = segmentAvg;
+		} else {
+			//Exponential moving average over segments
+			this.avgLogRecordWidth = (3 * this.avgLogRecordWidth + segmentAvg) / 4;
+		}
+		metadataMgr.updateWatermarkProperty("avg_log_record_width", this.avgLogRecordWidth);
+		this.logSegmentPageSize = computeLogSegmentPageSize();
+	}
+
+	final long getInlinedArgCntForNewLog() {
+		if (options.getLogArgLayout() == LogArgLayout.EXTENDED_ARG_TABLES) {
+			return options.getLogMaxInlinedArgs();
+		}
+		return maxInlinedArgCnt.get();
+	}
+
+	//
+	//Remember the widest statement seen on this device so that subsequent log segments 
+	//and txn stage files are created with enough arg columns upfront
+	//
+	final void recordInlinedArgCnt(long argCnt) throws SQLException {
+		if (argCnt <= maxInlinedArgCnt.get()) {
+			return;
+		}
+		maxInlinedArgCntLock.lock();
+		try {
+			if (argCnt > maxInlinedArgCnt.get()) {
+				maxInlinedArgCnt.set(argCnt);
+				metadataMgr.updateProperty("max_inlined_arg_count", argCnt);
+			}
+		} finally {
+			maxInlinedArgCntLock.unlock();
+		}
 	}
 
 	protected final void appendLogRecord(CommandLogRecord record) throws SQLException {
+		if ((record.sql != null) && options.getLogSegmentNetChangeCompaction() && supportsNetChangeCompaction() && NetChangeCompactor.isDDL(record.sql)) {
+			this.appendedDDLCount.incrementAndGet();
+		}
+		if (record instanceof ColumnBatchLogRecord) {
+			appendColumnBatchLogRecord((ColumnBatchLogRecord) record);
+			return;
+		}
+		if (options.getLogArgLayout() == LogArgLayout.EXTENDED_ARG_TABLES) {
+			appendLogRecordWithExtendedArgs(record);
+			return;
+		}
 		if ((record.args != null) && (record.args.length > inlinedArgCnt)) {
 			//
 			//Flush current batch if non empty
@@ -597,34 +966,88 @@ abstract class SQLLogger extends Thread {
 			insertLogTablePstmt.setObject(4, 0);
 		}
 		insertLogTablePstmt.addBatch();
+		long recordBytes = SyncLiteUtils.estimateLogRecordSize(record.sql, record.args);
+		logSegmentTail.track(record.commitId, logSegmentLogCount, logSegmentLogCount, recordBytes);
 		this.currentTxnCommitId = record.commitId;
+		this.logSegmentByteCount += recordBytes;
 		++currentBatchLogCount;
 		++currentTxnLogCount;
 		++logSegmentLogCount;
 		++currentOperationId;
+		DeviceMetrics deviceMetrics = this.metrics;
+		if (deviceMetrics != null) {
+			deviceMetrics.recordLogRecord();
+		}
 	}
 
-	/*
-	 * OLD VERSION THAT USES extedned args table.
-	 * 
-	protected final void appendLogRecord(CommandLogRecord record) throws SQLException {
+	//
+	//Appends one commandlog row per batch row, binding args straight from the batch columns.
+	//First row carries the sql and subsequent rows a null sql, same as rows of a JDBC batch.
+	//
+	private final void appendColumnBatchLogRecord(ColumnBatchLogRecord record) throws SQLException {
+		ColumnBatch batch = record.batch;
+		int argCnt = batch.getColumnCount();
+		int rowCount = batch.getRowCount();
+		if (options.getLogArgLayout() == LogArgLayout.EXTENDED_ARG_TABLES) {
+			for (int row = 0; row < rowCount; ++row) {
+				appendLogRecordWithExtendedArgs(new CommandLogRecord(record.commitId, (row == 0) ? record.sql : null, batch.getRow(row)));
+			}
+			return;
+		}
+		if (argCnt > inlinedArgCnt) {
+			if (currentBatchLogCount > 0) {
+				executeLogBatch();
+				clearLogBatch();
+			}
+			addNewInlinedArgCols(inlinedArgCnt + 1, argCnt);
+			rePrepareLogTablePstmt();
+		}
+		long batchBytes = 0;
+		for (int row = 0; row < rowCount; ++row) {
+			if (currentBatchLogCount > options.getLogSegmentFlushBatchSize()) {
+				executeLogBatch();
+			}
+			String sql = (row == 0) ? record.sql : null;
+			insertLogTablePstmt.clearParameters();
+			insertLogTablePstmt.setLong(1, logSegmentLogCount);
+			insertLogTablePstmt.setLong(2, record.commitId);
+			insertLogTablePstmt.setString(3, sql);
+			insertLogTablePstmt.setInt(4, argCnt);
+			batch.bindRow(insertLogTablePstmt, row, 5);
+			insertLogTablePstmt.addBatch();
+			long rowBytes = 16 + ((sql == null) ? 0 : sql.length()) + batch.estimateRowSize(row);
+			this.logSegmentByteCount += rowBytes;
+			batchBytes += rowBytes;
+			++currentBatchLogCount;
+			++currentTxnLogCount;
+			++logSegmentLogCount;
+			++currentOperationId;
+		}
+		if (rowCount > 0) {
+			logSegmentTail.track(record.commitId, logSegmentLogCount - rowCount, logSegmentLogCount - 1, batchBytes);
+		}
+		this.currentTxnCommitId = record.commitId;
+		DeviceMetrics deviceMetrics = this.metrics;
+		if (deviceMetrics != null) {
+			deviceMetrics.recordLogRecords(rowCount);
+		}
+	}
+
+	private final void appendLogRecordWithExtendedArgs(CommandLogRecord record) throws SQLException {
 		insertLogTablePstmt.clearParameters();
 		insertLogTablePstmt.setObject(1, logSegmentLogCount);
 		insertLogTablePstmt.setObject(2, record.commitId);
 		insertLogTablePstmt.setObject(3, record.sql);
 		if (record.args != null) {
 			insertLogTablePstmt.setObject(4, record.args.length);
-			if (record.args.length <= options.getLogMaxInlinedArgs()) {
+			if (record.args.length <= inlinedArgCnt) {
 				for (int i = 1; i <= record.args.length; i++) {
 					insertLogTablePstmt.setObject(i + 4, record.args[i - 1]);
 				}
 			} else {
 				PreparedStatement argTablePstmt = getExtendedArgTablePrepStmt(record.args.length);
-				try {
-					argTablePstmt.setObject(1, logSegmentLogCount);
-				} catch (SQLException e) {
-					throw e;
-				}
+				argTablePstmt.clearParameters();
+				argTablePstmt.setObject(1, logSegmentLogCount);
 				for (int i = 1; i <= record.args.length; i++) {
 					argTablePstmt.setObject(i+1, record.args[i - 1]);
 				}
@@ -635,14 +1058,59 @@ abstract class SQLLogger extends Thread {
 			insertLogTablePstmt.setObject(4, 0);
 		}
 		insertLogTablePstmt.addBatch();
+		long recordBytes = SyncLiteUtils.estimateLogRecordSize(record.sql, record.args);
+		logSegmentTail.track(record.commitId, logSegmentLogCount, logSegmentLogCount, recordBytes);
 		this.currentTxnCommitId = record.commitId;
+		this.logSegmentByteCount += recordBytes;
 		++currentBatchLogCount;
 		++currentTxnLogCount;
 		++logSegmentLogCount;
 		++currentOperationId;
+		DeviceMetrics deviceMetrics = this.metrics;
+		if (deviceMetrics != null) {
+			deviceMetrics.recordLogRecord();
+		}
+	}
+
+	protected final boolean mayHaveLogsInSegment(long commitId) {
+		return logSegmentTail.mayHaveLogs(commitId);
+	}
+
+	//
+	//Delete the logs of given txn from the current log segment. Rows of a txn are never logged before 
+	//its start change number tracked in the segment tail, hence this is a rowid range delete.
+	//
+	protected final void truncateLogsForCommit(long commitId) throws SQLException {
+		long startChangeNumber = logSegmentTail.getTxnStartChangeNumber(commitId);
+		try (Statement stmt = logTableConn.createStatement()) {
+			stmt.executeUpdate("DELETE FROM commandlog WHERE change_number >= " + startChangeNumber + " AND commit_id = " + commitId);
+			undoExtendedArgs(stmt, startChangeNumber);
+			long lastChangeNumber = -1;
+			try (ResultSet rs = stmt.executeQuery("SELECT change_number FROM commandlog ORDER BY change_number DESC LIMIT 1")) {
+				if (rs.next()) {
+					lastChangeNumber = rs.getLong(1);
+				}
+			}
+			this.logSegmentLogCount = lastChangeNumber + 1;
+		}
+		logSegmentTail.undo(commitId);
 	}
 
-	 */
+	//
+	//Remove extended arg rows whose commandlog rows were undone, 
+	//their change numbers get reused by subsequent log records.
+	//
+	private final void undoExtendedArgs(Statement stmt, long startChangeNumber) throws SQLException {
+		List<String> argTables = new ArrayList<String>();
+		try (ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name LIKE 'arg%'")) {
+			while (rs.next()) {
+				argTables.add(rs.getString(1));
+			}
+		}
+		for (String argTable : argTables) {
+			stmt.executeUpdate("DELETE FROM " + argTable + " WHERE change_number >= " + startChangeNumber + " AND change_number NOT IN (SELECT change_number FROM commandlog WHERE change_number >= " + startChangeNumber + ")");
+		}
+	}
 
 	private PreparedStatement getExtendedArgTablePrepStmt(long argCnt) throws SQLException {
 		long argTableNum = SyncLiteUtils.nextPowerOf2(argCnt);
@@ -687,30 +1155,97 @@ abstract class SQLLogger extends Thread {
 	}
 
 	protected final void commitLogSegment() throws SQLException {
+		logSegmentTail.persist(logTableConn);
 		logTableConn.commit();
 	}
 	
 	protected final void rollbackLogSegment() throws SQLException {
 		logTableConn.rollback();
+		logSegmentTail.markDirty();
 	}
 
 	private final void checkAndSwitchLogSegment() throws SQLException {
 		//Switch log segment only at a commit boundary
-		if (currentTxnLogCount == 0) {
-			//Switch log segment only if we have written something to current log segment
-			if (this.logSegmentLogCount > 0) {
-				long currentTime = System.currentTimeMillis();
-				//Switch log segment only if
-				//- current log segment count is greater than the specified log segment size threshold
-				//- current log segment is older than the specified duration
-				//- Logger is terminated as part of application shutdown.
-				if ((this.logSegmentLogCount > options.getLogSegmentSwitchLogCountThreshold()) ||
-						((currentTime - this.lastLogSegmentCreateTime) > options.getLogSegmentSwitchDurationThresholdMs()) ||
-						terminateInProgress)
-				{
-					doSwitchLogSegment();
+		if ((currentTxnLogCount == 0) && isLogSegmentSwitchDue()) {
+			doSwitchLogSegment();
+		}
+	}
+
+	protected final boolean isLogSegmentSwitchDue() {
+		//Switch log segment only if we have written something to current log segment
+		if (this.logSegmentLogCount > 0) {
+			long currentTime = System.currentTimeMillis();
+			//Switch log segment only if
+			//- current log segment count is greater than the specified log segment size threshold
+			//- current log segment size in bytes is greater than the specified/shipping latency derived byte threshold
+			//- current log segment is older than the specified duration
+			//- Logger is terminated as part of application shutdown.
+			return ((this.logSegmentLogCount > options.getLogSegmentSwitchLogCountThreshold()) ||
+					(this.logSegmentByteCount > getLogSegmentSwitchByteThreshold()) ||
+					((currentTime - this.lastLogSegmentCreateTime) > options.getLogSegmentSwitchDurationThresholdMs()) ||
+					terminateInProgress);
+		}
+		return false;
+	}
+
+	//
+	//With a target shipping latency, cap the segment size at what the slowest destination 
+	//has been observed to ship within the target latency.
+	//
+	private final long getLogSegmentSwitchByteThreshold() {
+		long threshold = options.getLogSegmentSwitchByteThreshold();
+		long targetLatencyMs = options.getLogSegmentTargetShippingLatencyMs();
+		if (targetLatencyMs > 0) {
+			long minBytesPerSec = Long.MAX_VALUE;
+			for (LogShipper logShipper : logShippers) {
+				long bytesPerSec = logShipper.getShippingBytesPerSec();
+				if ((bytesPerSec > 0) && (bytesPerSec < minBytesPerSec)) {
+					minBytesPerSec = bytesPerSec;
 				}
 			}
+			if (minBytesPerSec != Long.MAX_VALUE) {
+				long latencyBound = Math.max(minLatencyBoundSegmentBytes, (long) (minBytesPerSec * (targetLatencyMs / 1000.0)));
+				threshold = Math.min(threshold, latencyBound);
+			}
+		}
+		return threshold;
+	}
+
+	//Returns null if this commit is not sampled for tracing
+	final CommitTrace beginCommitTrace(long commitId) {
+		CommitTracer tracer = this.commitTracer;
+		return (tracer == null) ? null : tracer.begin(commitId);
+	}
+
+	final void endCommitTrace(CommitTrace trace) {
+		if (trace != null) {
+			commitTracer.end(trace);
+		}
+	}
+
+	protected final void traceCommitStage(long commitId, CommitStage stage) {
+		CommitTracer tracer = this.commitTracer;
+		if (tracer != null) {
+			tracer.mark(commitId, stage);
+		}
+	}
+
+	static final List<CommitTrace> getRecentCommitTraces(Path dbPath) throws SQLException {
+		SQLLogger logger = (SQLLogger) SQLLogger.findInstance(dbPath);
+		if (logger == null) {
+			throw new SQLException("SyncLite device : " + dbPath + " not initialized.");
+		}
+		if (logger.commitTracer == null) {
+			return new ArrayList<CommitTrace>();
+		}
+		return logger.commitTracer.getRecentTraces();
+	}
+
+	//Called by commit paths with the time the commit was requested
+	protected final void recordCommitLatency(long commitStartTime) {
+		DeviceMetrics deviceMetrics = this.metrics;
+		if (deviceMetrics != null) {
+			deviceMetrics.recordCommit(commitStartTime);
 		}
 	}
 
@@ -718,29 +1253,79 @@ abstract class SQLLogger extends Thread {
 		checkAndSwitchLogSegment();
 	}
 
-	protected abstract void terminateInternal();
+	//Periodic checkups of sync loggers, an exception escaping a scheduled task would cancel its later runs
+	protected final void scheduledCheckups() {
+		try {
+			checkups();
+		} catch (SQLException | RuntimeException e) {
+			tracer.error("SyncLite scheduled log segment checkups failed for device " + dbPath + " : " + e.getMessage(), e);
+		}
+	}
+
+	//Drops a txn left open by a closing connection, the device rolls it back on close
+	void discardTxn(long commitId) throws SQLException {
+	}
+
+	//Stops logging by the given System.nanoTime() deadline
+	protected abstract void terminateInternal(long deadlineNanos);
 
-	private synchronized void terminate() throws SQLException {
+	//Callers hold lifecycleLock
+	private void terminate() throws SQLException {
 		this.terminateInProgress = true;
-		terminateInternal();
+		if (metrics != null) {
+			metrics.unregister();
+			metrics = null;
+		}
+		long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getDeviceCloseTimeoutMs());
+		terminateInternal(deadlineNanos);
+		if (logSegmentFinisher != null) {
+			logSegmentFinisher.shutdown();
+			if (!SyncLiteUtils.awaitTermination(logSegmentFinisher, deadlineNanos)) {
+				//Segments not picked up yet ship as they are after the next start, the one being compacted or encoded 
+				//must not be shipped half way through by a reinitialized device, hence wait for it past the deadline
+				tracer.info("SyncLite waiting past the close deadline for the log segment finisher of device " + dbPath);
+				boolean interrupted = false;
+				while (!logSegmentFinisher.isTerminated()) {
+					try {
+						logSegmentFinisher.awaitTermination(1, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		//Components of the device stop independently of each other, stop them in parallel.
+		//Work left over past the deadline (unshipped segments, pending backup) resumes on the next start.
+		List<CompletableFuture<Void>> terminations = new ArrayList<CompletableFuture<Void>>();
 		if (backupAgent != null) {
-			backupAgent.terminate();
+			BackupAgent agent = backupAgent;
+			terminations.add(CompletableFuture.runAsync(() -> agent.terminate(deadlineNanos), terminators));
 		}
 		for (LogShipper logShipper : logShippers) {
-			logShipper.terminate();
+			terminations.add(CompletableFuture.runAsync(() -> logShipper.terminate(deadlineNanos), terminators));
 		}
 		if (logCleaner != null) {
-			logCleaner.terminate(); 
+			LogCleaner cleaner = logCleaner;
+			terminations.add(CompletableFuture.runAsync(() -> cleaner.terminate(deadlineNanos), terminators));
 		}
 		for (CommandHandler cmdHandler : cmdHandlers) {
-			cmdHandler.terminate();
+			terminations.add(CompletableFuture.runAsync(() -> cmdHandler.terminate(deadlineNanos), terminators));
+		}
+		try {
+			CompletableFuture.allOf(terminations.toArray(new CompletableFuture[0])).join();
+		} catch (CompletionException e) {
+			tracer.error("SyncLite failed to terminate components of device " + dbPath + " : " + e.getCause(), e.getCause());
 		}
 		if (metadataMgr != null) {
 			metadataMgr.close();
 		}
 
 		if (tracer != null) {
-			tracer.getAppender("SyncLiteLogger").close();		
+			SyncLite.closeTracer(tracer);
 		}
 		appLock.release();
 	}
@@ -769,16 +1354,42 @@ abstract class SQLLogger extends Thread {
 		}
 	}
 
-	private synchronized void closeDevice() throws SQLException {
-		loggers.remove(this.dbPath);
-		terminate();
+	private void closeDevice() throws SQLException {
+		lifecycleLock.lock();
+		try {
+			loggers.remove(this.dbPath);
+			terminate();
+		} finally {
+			lifecycleLock.unlock();
+		}
 	}
 
 	static void closeAllDevices() throws SQLException {
+		//Devices close independently of each other, close them in parallel
+		List<CompletableFuture<Void>> closes = new ArrayList<CompletableFuture<Void>>();
 		for(SQLLogger l : loggers.values()) {
-			l.closeDevice();
-		}		
+			closes.add(CompletableFuture.runAsync(() -> {
+				try {
+					l.closeDevice();
+				} catch (SQLException e) {
+					throw new CompletionException(e);
+				}
+			}, terminators));
+		}
+		SQLException closeException = null;
+		for (CompletableFuture<Void> close : closes) {
+			try {
+				close.join();
+			} catch (CompletionException e) {
+				if (closeException == null) {
+					closeException = (e.getCause() instanceof SQLException) ? (SQLException) e.getCause() : new SQLException(e.getCause());
+				}
+			}
+		}
 		loggers.clear();
+		if (closeException != null) {
+			throw closeException;
+		}
 	}
 
 	static void closeDevice(Path dbPath) throws SQLException {
@@ -821,7 +1432,7 @@ abstract class SQLLogger extends Thread {
 			//Copy the supplied sourceFilePath to dataFile		
 			Files.copy(sourceFilePath, dataFile);
 			dataFileSequenceNumber.addAndGet(1L);
-			metadataMgr.updateProperty("data_file_sequence_number", String.valueOf(dataFileSequenceNumber.get()));			
+			metadataMgr.updateProperty("data_file_sequence_number", String.valueOf(dataFileSequenceNumber.get()), true);			
 			for (LogShipper logShipper : logShippers)
 			{
 				logShipper.setDataFileSequenceNumber(this.dataFileSequenceNumber);
@@ -25,6 +25,8 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 abstract class SQLStager {
 	protected static final String createLogTableSqlTemplate = "CREATE TABLE IF NOT EXISTS commandlog(change_number INTEGER PRIMARY KEY, commit_id LONG, sql TEXT, arg_cnt INTEGER, $1);";
@@ -37,19 +39,30 @@ abstract class SQLStager {
 	protected LogSegmentPlacer logSegmentPlacer;
 	private Connection logTableConn;
 	private SyncLiteOptions options;
+	protected SQLLogger sqlLogger;
 	private long inlinedArgCnt;
 	protected PreparedStatement insertLogTablePstmt = null;
 	private long currentBatchLogCount;
 	protected long logSegmentLogCount;
+	//Logs of a small txn held in memory until the txn outgrows the inline thresholds, null once spilled to the stage file
+	private List<CommandLogRecord> inlinedLogs;
+	private long inlinedLogBytes;
 
-	SQLStager(Path dbPath, SyncLiteOptions options, long txnID) throws SQLException {
+	SQLStager(Path dbPath, SQLLogger sqlLogger, long txnID) throws SQLException {
 		this.dbPath = dbPath;
-		this.options = options;
+		this.sqlLogger = sqlLogger;
+		this.options = sqlLogger.options;
 		this.txnID = txnID;
 		this.currentBatchLogCount = 0;
 		this.logSegmentLogCount = 0;
 		this.logSegmentPlacer = new TxnLoggerLogSegmentPlacer();
-		initTxnStageFile();
+		if (options.getInlineTxnLogCountThreshold() > 0) {
+			//Stage file is created only if the txn spills
+			this.inlinedLogs = new ArrayList<CommandLogRecord>();
+			this.inlinedLogBytes = 0;
+		} else {
+			initTxnStageFile();
+		}
 	}
 	
 	String getFileName() {
@@ -60,15 +73,13 @@ abstract class SQLStager {
 		this.txnFilePath = logSegmentPlacer.getTxnStageFilePath(this.dbPath, this.txnID);
 		String url = "jdbc:sqlite:" + txnFilePath;
 		logTableConn = DriverManager.getConnection(url);
-		inlinedArgCnt = options.getLogMaxInlinedArgs();
+		inlinedArgCnt = sqlLogger.getInlinedArgCntForNewLog();
 		String argList = SyncLiteUtils.prepareArgList(inlinedArgCnt);
 		String fillerList = SyncLiteUtils.preparePStmtFillerList(inlinedArgCnt + 4);
 		try (Statement stmt = logTableConn.createStatement()) {
-			stmt.execute("pragma journal_mode = normal;");
-			stmt.execute("pragma synchronous = normal;");
 			stmt.execute("pragma temp_store = memory;");
 			stmt.execute("pragma mmap_size = 30000000000;");
-			stmt.execute("pragma page_size = " + options.getLogSegmentPageSize()+ ";");
+			options.getLogSegmentDurability().applyOnCreate(stmt, sqlLogger.getLogSegmentPageSizeForNewLog());
 			stmt.execute(createLogTableSqlTemplate.replace("$1", argList));
 		}
 		logTableConn.setAutoCommit(false);
@@ -88,6 +99,43 @@ abstract class SQLStager {
 	long getLogSegmentLogCount() {
 		return logSegmentLogCount;
 	}
+
+	//
+	//Txn is small enough to be logged in the log segment itself instead of being published as a txn file
+	//
+	final boolean isInlined() {
+		return (inlinedLogs != null);
+	}
+
+	private final boolean canInline(long logCount, long logBytes) {
+		return ((logSegmentLogCount + logCount) <= options.getInlineTxnLogCountThreshold()) && ((inlinedLogBytes + logBytes) <= options.getInlineTxnByteThreshold());
+	}
+
+	//
+	//Move the logs held in memory so far into a newly created stage file
+	//
+	private final void spill() throws SQLException {
+		List<CommandLogRecord> logs = this.inlinedLogs;
+		this.inlinedLogs = null;
+		this.inlinedLogBytes = 0;
+		this.logSegmentLogCount = 0;
+		initTxnStageFile();
+		for (CommandLogRecord rec : logs) {
+			log(rec.commitId, rec.sql, rec.args);
+		}
+	}
+
+	//
+	//Log the inlined logs of this txn in the log segment with the given commit id.
+	//Must be called under the commit lock of the device so that logs of concurrent txns do not interleave.
+	//
+	final void logInlined(long commitID) throws SQLException {
+		for (CommandLogRecord rec : inlinedLogs) {
+			sqlLogger.log(commitID, rec.sql, rec.args);
+		}
+		inlinedLogs.clear();
+		inlinedLogBytes = 0;
+	}
 	
 	private final void addNewInlinedArgCols(long startIndex, long endIndex) throws SQLException {
 		for (long i=startIndex; i <=endIndex; ++i) {
@@ -97,6 +145,7 @@ abstract class SQLStager {
 			}
 		}
 		this.inlinedArgCnt = endIndex;
+		sqlLogger.recordInlinedArgCnt(endIndex);
 	}
 
 	protected final void executeLogBatch() throws SQLException {
@@ -106,6 +155,16 @@ abstract class SQLStager {
 	}
 
 	void log(long commitID, String sql, Object[] args) throws SQLException {
+		if (inlinedLogs != null) {
+			long logBytes = SyncLiteUtils.estimateLogRecordSize(sql, args);
+			if (canInline(1, logBytes)) {
+				inlinedLogs.add(new CommandLogRecord(commitID, sql, args));
+				inlinedLogBytes += logBytes;
+				++logSegmentLogCount;
+				return;
+			}
+			spill();
+		}
 		if ((args != null) && (args.length > inlinedArgCnt)) {
 			//
 			//Flush current batch if non empty
@@ -142,6 +201,47 @@ abstract class SQLStager {
 	}
 	
 	
+	//Stages all rows of the batch, first row carries the sql and subsequent rows a null sql
+	void logRows(long commitID, String sql, ColumnBatch batch) throws SQLException {
+		if (inlinedLogs != null) {
+			long logBytes = (sql == null) ? 0 : sql.length();
+			for (int row = 0; row < batch.getRowCount(); ++row) {
+				logBytes += 16 + batch.estimateRowSize(row);
+			}
+			if (canInline(batch.getRowCount(), logBytes)) {
+				for (int row = 0; row < batch.getRowCount(); ++row) {
+					inlinedLogs.add(new CommandLogRecord(commitID, (row == 0) ? sql : null, batch.getRow(row)));
+				}
+				inlinedLogBytes += logBytes;
+				logSegmentLogCount += batch.getRowCount();
+				return;
+			}
+			spill();
+		}
+		int argCnt = batch.getColumnCount();
+		if (argCnt > inlinedArgCnt) {
+			if (currentBatchLogCount > 0) {
+				executeLogBatch();
+			}
+			addNewInlinedArgCols(inlinedArgCnt + 1, argCnt);
+			rePrepareLogTablePstmt();
+		}
+		for (int row = 0; row < batch.getRowCount(); ++row) {
+			if (currentBatchLogCount > options.getLogSegmentFlushBatchSize()) {
+				executeLogBatch();
+			}
+			insertLogTablePstmt.clearParameters();
+			insertLogTablePstmt.setLong(1, logSegmentLogCount);
+			insertLogTablePstmt.setLong(2, 0);
+			insertLogTablePstmt.setString(3, (row == 0) ? sql : null);
+			insertLogTablePstmt.setInt(4, argCnt);
+			batch.bindRow(insertLogTablePstmt, row, 5);
+			insertLogTablePstmt.addBatch();
+			++currentBatchLogCount;
+			++logSegmentLogCount;
+		}
+	}
+
 	void commit() throws SQLException {
 		if (this.insertLogTablePstmt != null) {
 			this.insertLogTablePstmt.executeBatch();
@@ -152,6 +252,21 @@ abstract class SQLStager {
 		}
 	}
 
+	//
+	//Commit and make the stage file self contained before it is published
+	//
+	protected final void finish() throws SQLException {
+		commit();
+		if (this.insertLogTablePstmt != null) {
+			this.insertLogTablePstmt.close();
+			this.insertLogTablePstmt = null;
+		}
+		if (this.logTableConn != null) {
+			options.getLogSegmentDurability().applyOnFinish(this.logTableConn);
+		}
+		close();
+	}
+
 	public void close() throws SQLException{
 		if (this.insertLogTablePstmt != null) {
 			this.insertLogTablePstmt.close();
@@ -163,6 +278,10 @@ abstract class SQLStager {
 
 	void cleanup() throws SQLException {
 		close();
+		if (this.txnFilePath == null) {
+			//Txn never spilled to a stage file
+			return;
+		}
 		try {
 			Files.delete(this.txnFilePath);
 		} catch (IOException e) {
@@ -174,6 +293,10 @@ abstract class SQLStager {
 		if (this.logTableConn != null) {
 			this.logTableConn.rollback();
 		}
+		if (this.inlinedLogs != null) {
+			this.inlinedLogs.clear();
+			this.inlinedLogBytes = 0;
+		}
 		cleanup();
 	}
 	
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+//
+//Log records of in-flight txns of a sync logger, staged per commit id by the writing thread without 
+//touching the shared log segment. The committing thread appends its txn's records to the segment 
+//under the logger's append lock.
+//
+final class StagedTxnLogs {
+
+	private final ConcurrentHashMap<Long, List<CommandLogRecord>> stagedLogs = new ConcurrentHashMap<Long, List<CommandLogRecord>>();
+
+	//Returns the number of records staged for the txn so far
+	final int stage(CommandLogRecord record) {
+		List<CommandLogRecord> records = stagedLogs.computeIfAbsent(record.commitId, id -> new ArrayList<CommandLogRecord>());
+		records.add(record);
+		return records.size();
+	}
+
+	final boolean isStaged(long commitId) {
+		return stagedLogs.containsKey(commitId);
+	}
+
+	//Returns the records staged for the txn so far and keeps staging further records of the txn
+	final List<CommandLogRecord> drain(long commitId) {
+		List<CommandLogRecord> records = stagedLogs.get(commitId);
+		if (records == null) {
+			return null;
+		}
+		List<CommandLogRecord> drained = new ArrayList<CommandLogRecord>(records);
+		records.clear();
+		return drained;
+	}
+
+	//Removes and returns the staged records of the txn, null if none are staged
+	final List<CommandLogRecord> take(long commitId) {
+		return stagedLogs.remove(commitId);
+	}
+
+	final void clear() {
+		stagedLogs.clear();
+	}
+}
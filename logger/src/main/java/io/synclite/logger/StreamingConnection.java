@@ -22,19 +22,21 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class StreamingConnection extends TelemetryConnection {
 
 	public static final String PREFIX = "jdbc:synclite_streaming:";
 	protected PreparedStatement nativeCommitLoggerPStmt;
 	private SQLStager cmdStager;
-	private static final Object commitLock = new Object();
+	private static final ReentrantLock commitLock = new ReentrantLock();
 	private static final String insertCommitLoggerSql = "INSERT INTO synclite_txn(commit_id, operation_id) VALUES(?, ?)";
 
 
 	public StreamingConnection(String url, String fileName, Properties prop) throws SQLException {
 		super(url, fileName, prop);
-		this.cmdStager = new EventSQLStager(Path.of(fileName), this.sqlLogger.options, commitId);
+		this.cmdStager = new EventSQLStager(Path.of(fileName), this.sqlLogger, commitId);
 	}
 
 	protected void prepareCommitLoggerPStmt() throws SQLException {
@@ -48,20 +50,26 @@ public class StreamingConnection extends TelemetryConnection {
 
 	@Override
 	public void commit() throws SQLException {
-		synchronized(commitLock) {   		
+		commitLock.lock();
+		try {
 			if (this.cmdStager.getLogSegmentLogCount() > 0) {
 
 				//Generate a fresh commit id     	
 				this.commitId = this.sqlLogger.getNextCommitID();
 
-				//log REPLAY_TXN 
-				this.sqlLogger.log(commitId, "REPLAY_TXN", null);
+				if (cmdStager.isInlined()) {
+					//Small txn, log it in the log segment itself
+					cmdStager.logInlined(this.commitId);
+				} else {
+					//log REPLAY_TXN 
+					this.sqlLogger.log(commitId, "REPLAY_TXN", null);
 
-				//Publish txn file
-				//It is safe to get the current log segment sequence number here as we are in the middle of a txn and hence
-				//logger will not switch the log file.
-				//
-				cmdStager.publishTxn(this.sqlLogger.getCurrentLogSegmentSequenceNumber(), this.commitId);
+					//Publish txn file
+					//It is safe to get the current log segment sequence number here as we are in the middle of a txn and hence
+					//logger will not switch the log file.
+					//
+					cmdStager.publishTxn(this.sqlLogger.getCurrentLogSegmentSequenceNumber(), this.commitId);
+				}
 
 				//Commit log
 				this.sqlLogger.commit(commitId);
@@ -79,20 +87,37 @@ public class StreamingConnection extends TelemetryConnection {
 			this.commitId = this.sqlLogger.getNextCommitID();
 
 			//Create a new command stager object.
-			this.cmdStager = new EventSQLStager(this.path, this.sqlLogger.options, commitId);
+			this.cmdStager = new EventSQLStager(this.path, this.sqlLogger, commitId);
 
+		} finally {
+			commitLock.unlock();
 		}
 	}
 
+	@Override
+	protected void logRows(String sql, ColumnBatch batch) throws SQLException {
+		this.cmdStager.logRows(commitId, sql, batch);
+	}
+
+	//Txn file has to be published under the commit lock, hence blocks like commit() and returns a completed future
+	@Override
+	public CompletableFuture<Void> commitAsync() throws SQLException {
+		commit();
+		return CompletableFuture.completedFuture(null);
+	}
+
 	@Override
 	public final void rollback() throws SQLException {    	
-		synchronized(commitLock) {
+		commitLock.lock();
+		try {
 			//Delete the txnFile.    	
 			this.cmdStager.rollback();
 			this.sqlLogger.rollback(commitId);
 			super.superRollback();
 			this.commitId = this.sqlLogger.getNextCommitID();
-			this.cmdStager = new EventSQLStager(this.path, this.sqlLogger.options, commitId);
+			this.cmdStager = new EventSQLStager(this.path, this.sqlLogger, commitId);
+		} finally {
+			commitLock.unlock();
 		}
 	}
 
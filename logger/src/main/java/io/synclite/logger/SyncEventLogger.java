@@ -18,43 +18,52 @@ package io.synclite.logger;
 
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Logger;
 
+//
+//Logs in the caller thread. Each txn stages its records by itself and the committing thread appends 
+//them to the log segment and commits it under a short append lock, so concurrent writers only 
+//serialize on commits and not on every statement.
+//
 public class SyncEventLogger extends EventLogger {
+	//Set up in initLogger as restart recovery runs from the base class constructor
 	private ScheduledExecutorService segmentCreatorService;
-	private AtomicBoolean txnInProgress = new AtomicBoolean(false);
+	private StagedTxnLogs stagedLogs;
+	//Serializes log segment appends and checkups, a ReentrantLock does not pin virtual threads
+	private ReentrantLock appendLock;
+	//Txns having records appended to the log segment ahead of their flush, guarded by appendLock
+	private Set<Long> spilledTxns;
 	private SyncEventLogger(Path dbPath, SyncLiteOptions options, Logger tracer) throws SQLException {
 		super(dbPath, options, tracer);
-		segmentCreatorService.scheduleAtFixedRate(this::checkups, 0, options.getLogSegmentSwitchDurationThresholdMs(), TimeUnit.MILLISECONDS);
+		segmentCreatorService.scheduleAtFixedRate(this::scheduledCheckups, 0, options.getLogSegmentSwitchDurationThresholdMs(), TimeUnit.MILLISECONDS);
 	}
 
 	static final EventLogger getInstance(Path dbPath, SyncLiteOptions options, Logger tracer) throws SQLException {
 		if (dbPath == null) {
 			return null;
 		}
-		return (EventLogger) loggers.computeIfAbsent(dbPath, s -> {
-			try {
-				return new SyncEventLogger(s, options, tracer);
-			} catch (SQLException e) {
-				tracer.error("Failed to create/get a SQL logger instance for device : " + dbPath + " : " + e.getMessage(), e);
-				throw new RuntimeException(e);
-			}
-		});
+		return (EventLogger) getOrCreateInstance(dbPath, tracer, s -> new SyncEventLogger(s, options, tracer));
 	}
 
 	@Override
 	protected final void checkups() {  	
 		try {
-			synchronized (txnInProgress) {				
-				if (!txnInProgress.get()) {
+			appendLock.lock();
+			try {
+				//Switch log segment only at a commit boundary of all txns
+				if (spilledTxns.isEmpty()) {
 					super.checkups();
 				}
+			} finally {
+				appendLock.unlock();
 			}
 		} catch (SQLException e) {
 			tracer.error("Failed to perform log segment checkups : " + e.getMessage(), e);
@@ -64,51 +73,116 @@ public class SyncEventLogger extends EventLogger {
 
 	@Override
 	void log(long commitId, String sql, Object[] args) throws SQLException {
-		if (currentTxnLogCount == 0) {
-        	//This is the first log record of the txn
-			synchronized(txnInProgress) {
-				txnInProgress.set(true);
+		log(new CommandLogRecord(commitId, sql, args));
+	}
+
+	@Override
+	void logRows(long commitId, String sql, ColumnBatch batch) throws SQLException {
+		log(new ColumnBatchLogRecord(commitId, sql, batch));
+	}
+
+	private final void log(CommandLogRecord record) throws SQLException {
+		if (stagedLogs.stage(record) > options.getLogSegmentFlushBatchSize()) {
+			//Bound the memory held by a large txn, its records so far go to the log segment ahead of its flush
+			appendLock.lock();
+			try {
+				spilledTxns.add(record.commitId);
+				appendStaged(stagedLogs.drain(record.commitId));
+			} finally {
+				appendLock.unlock();
+			}
+		}
+	}
+
+	//Callers hold appendLock
+	private final void appendStaged(List<CommandLogRecord> records) throws SQLException {
+		if (records != null) {
+			for (CommandLogRecord record : records) {
+				appendLogRecord(record);
 			}
 		}
-		appendLogRecord(new CommandLogRecord(commitId, sql, args));
 	}
 
 	@Override
 	void flush(long commitId) throws SQLException {
-		executeLogBatch();
-		commitLogSegment();
-		synchronized (txnInProgress) {
-			txnInProgress.set(false);
+		List<CommandLogRecord> records = stagedLogs.take(commitId);
+		appendLock.lock();
+		try {
+			appendStaged(records);
+			executeLogBatch();
+			traceCommitStage(commitId, CommitStage.LOG_BATCH_EXECUTED);
+			commitLogSegment();
+			traceCommitStage(commitId, CommitStage.LOG_SEGMENT_COMMITTED);
+			endTxn(commitId);
+		} finally {
+			appendLock.unlock();
 		}
 	}
 	
 	@Override
-	protected void doRollback() throws SQLException {
-		rollbackLogSegment();
-		synchronized (txnInProgress) {
-			txnInProgress.set(false);
+	protected void doRollback(long commitId) throws SQLException {
+		//Staged records are just dropped, only the ones already in the log segment need an undo
+		stagedLogs.take(commitId);
+		appendLock.lock();
+		try {
+			if (mayHaveLogsInSegment(commitId)) {
+				executeLogBatch();
+				truncateLogsForCommit(commitId);
+				commitLogSegment();
+			}
+			endTxn(commitId);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	//Callers hold appendLock
+	private final void endTxn(long commitId) {
+		spilledTxns.remove(commitId);
+		if (spilledTxns.isEmpty()) {
+			//Reset current txn log count to 0 to enable log switching on commit boundary
+			this.currentTxnLogCount = 0;
+			this.currentBatchLogCount = 0;
+		}
+	}
+
+	@Override
+	void discardTxn(long commitId) throws SQLException {
+		boolean isSpilled;
+		appendLock.lock();
+		try {
+			isSpilled = spilledTxns.contains(commitId);
+		} finally {
+			appendLock.unlock();
+		}
+		if (isSpilled || stagedLogs.isStaged(commitId)) {
+			doRollback(commitId);
 		}
 	}
 
 	@Override
-	protected void terminateInternal() {
+	protected void terminateInternal(long deadlineNanos) {
 		try {
 			checkups();
 			closeCurrentLogSegment();
-			stopSegmentCreatorService();
+			stopSegmentCreatorService(deadlineNanos);
+			//Txns still open never reach the log segment, the device rolls them back
+			stagedLogs.clear();
+			appendLock.lock();
+			try {
+				spilledTxns.clear();
+			} finally {
+				appendLock.unlock();
+			}
 		} catch (SQLException e) {			
 			tracer.error("SyncLite log segment log segment could not be closed properly for device " + dbPath + ", failed with exception : " + e.getMessage(), e);
 		}
 	}
 
-	private final void stopSegmentCreatorService() {
+	private final void stopSegmentCreatorService(long deadlineNanos) {
 		if ((segmentCreatorService != null) && (!segmentCreatorService.isTerminated())) {
 			segmentCreatorService.shutdown();
-			try {
-				segmentCreatorService.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-			} catch (InterruptedException e) {
-				//Ignore
-			}
+			SyncLiteUtils.awaitTermination(segmentCreatorService, deadlineNanos);
 		}
 	}
 
@@ -119,6 +193,9 @@ public class SyncEventLogger extends EventLogger {
 
 	@Override
 	protected void initLogger() {
+		stagedLogs = new StagedTxnLogs();
+		appendLock = new ReentrantLock();
+		spilledTxns = new HashSet<Long>();
 		segmentCreatorService = Executors.newScheduledThreadPool(1);	
 	}
 
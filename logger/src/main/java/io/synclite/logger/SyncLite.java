@@ -22,10 +22,20 @@ import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AsyncAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
@@ -39,6 +49,9 @@ public class SyncLite extends org.sqlite.JDBC {
 	private static HashMap<DeviceType, SyncLite> INSTANCES_BY_DEVICE_TYPES = new HashMap<DeviceType, SyncLite>();
 	private static HashMap<String, SyncLite> INSTANCES_BY_PRREFIXES = new HashMap<String, SyncLite>();
 	private static ConcurrentHashMap<Path, Object> dbInitializationLocks = new ConcurrentHashMap<>();
+	private static final AtomicBoolean shutdownHookAdded = new AtomicBoolean(false);
+	private static final String TRACE_APPENDER_NAME = "SyncLiteTracer";
+	private static final int TRACE_BUFFER_SIZE = 1024;
 
 	static
 	{
@@ -260,6 +273,98 @@ public class SyncLite extends org.sqlite.JDBC {
 		}
 	}
 
+	//
+	//Bring up given devices in parallel on a bounded pool, reporting per device startup time.
+	//Command handlers and backup agents are started once all devices are accepting writes.
+	//A device failing to initialize does not stop the others, check the returned results.
+	//
+	public static final List<DeviceStartupResult> initializeAll(Collection<DeviceSpec> devices) throws SQLException {
+		return initializeAll(devices, 2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	public static final List<DeviceStartupResult> initializeAll(Collection<DeviceSpec> devices, int parallelism) throws SQLException {
+		if (parallelism <= 0) {
+			throw new SQLException("SyncLite : Invalid value " + parallelism + " specified for device initialization parallelism");
+		}
+		List<DeviceStartupResult> results = new ArrayList<DeviceStartupResult>(devices.size());
+		if (devices.isEmpty()) {
+			return results;
+		}
+		ExecutorService initializers = Executors.newFixedThreadPool(Math.min(parallelism, devices.size()));
+		try {
+			List<Future<DeviceStartupResult>> initializations = new ArrayList<Future<DeviceStartupResult>>(devices.size());
+			for (DeviceSpec device : devices) {
+				initializations.add(initializers.submit(() -> initializeDevice(device)));
+			}
+			for (Future<DeviceStartupResult> initialization : initializations) {
+				results.add(initialization.get());
+			}
+
+			List<Future<?>> deferredStartups = new ArrayList<Future<?>>(results.size());
+			for (DeviceStartupResult result : results) {
+				if (result.isInitialized()) {
+					deferredStartups.add(initializers.submit(() -> startDeferredComponents(result)));
+				}
+			}
+			for (Future<?> deferredStartup : deferredStartups) {
+				deferredStartup.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("SyncLite : Interrupted while initializing devices", e);
+		} catch (ExecutionException e) {
+			throw new SQLException("SyncLite : Failed to initialize devices : " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			initializers.shutdown();
+		}
+		return results;
+	}
+
+	private static final DeviceStartupResult initializeDevice(DeviceSpec device) {
+		long startNanos = System.nanoTime();
+		Path dbPath = device.getDbPath().toAbsolutePath();
+		Logger tracer = null;
+		try {
+			SyncLiteOptions options;
+			if (device.getPropsPath() != null) {
+				tracer = initTracer(dbPath);
+				options = SyncLiteOptions.loadAndValidateOptions(device.getPropsPath(), tracer);
+			} else if (device.getOptions() != null) {
+				//Make a deep copy of these options so that we don't end up mixing options for multiple devices.
+				options = device.getOptions().copy();
+				if (options.getTracer() == null) {
+					tracer = initTracer(dbPath);
+					options.setTracer(tracer);
+				} else {
+					tracer = options.getTracer();
+				}
+			} else {
+				tracer = initTracer(dbPath);
+				options = new SyncLiteOptions();
+			}
+			if (device.getDeviceName() != null) {
+				options.setDeviceName(device.getDeviceName());
+			}
+			options.setDeferNonCriticalStartup(true);
+			INSTANCES_BY_DEVICE_TYPES.get(device.getDeviceType()).initialize(dbPath, options, tracer);
+			return new DeviceStartupResult(dbPath, System.nanoTime() - startNanos, null);
+		} catch (Exception e) {
+			if (tracer != null) {
+				tracer.error("Failed to initialize device at dbPath : " + dbPath + " : " + e.getMessage(), e);
+			}
+			return new DeviceStartupResult(dbPath, System.nanoTime() - startNanos, e);
+		}
+	}
+
+	private static final void startDeferredComponents(DeviceStartupResult result) {
+		long startNanos = System.nanoTime();
+		try {
+			SQLLogger.startDeferredComponents(result.getDbPath());
+			result.setDeferredStartup(System.nanoTime() - startNanos, null);
+		} catch (Exception e) {
+			result.setDeferredStartup(System.nanoTime() - startNanos, e);
+		}
+	}
 
 	private final void initialize(Path dbPath, SyncLiteOptions options, Logger tracer) throws SQLException {
 		Object lock = dbInitializationLocks.computeIfAbsent(dbPath, p -> new Object());
@@ -345,22 +450,44 @@ public class SyncLite extends org.sqlite.JDBC {
 	}
 
 
+	//
+	//Each device traces through its own logger into its own trace file. Events are handed to the file 
+	//appender by a bounded async appender which discards them when full, so that error storms across 
+	//many devices never stall shipping or logging threads on trace file I/O.
+	//
 	private static Logger initTracer(Path dbPath) {
 		Path tracePath = Path.of(dbPath.toAbsolutePath().toString() + ".synclite", dbPath.getFileName().toString() + ".trace");
-		Logger logger = Logger.getLogger(SQLLogger.class);
+		Logger logger = Logger.getLogger(SQLLogger.class.getName() + "[" + dbPath.toAbsolutePath() + "]");
+		//Drop the appender left over by an earlier initialization of this device
+		closeTracer(logger);
 		logger.setLevel(Level.ERROR);
 		RollingFileAppender fa = new RollingFileAppender();
 		fa.setName("SyncLiteLogger");
 		fa.setFile(tracePath.toString());
-		fa.setLayout(new PatternLayout("%d %-5p [%c{1}] %m%n"));
+		//Logger names carry the device path, keep the category in trace lines as it was
+		fa.setLayout(new PatternLayout("%d %-5p [SQLLogger] %m%n"));
 		fa.setMaxBackupIndex(10);
 		fa.setMaxFileSize("10KB");
 		fa.setAppend(true);
 		fa.activateOptions();
-		logger.addAppender(fa);
+		AsyncAppender asyncAppender = new AsyncAppender();
+		asyncAppender.setName(TRACE_APPENDER_NAME);
+		asyncAppender.setBufferSize(TRACE_BUFFER_SIZE);
+		asyncAppender.setBlocking(false);
+		asyncAppender.addAppender(fa);
+		logger.addAppender(asyncAppender);
 		return logger;
 	}
 
+	//Flushes and closes the trace file of a device, a tracer supplied by the application is left alone
+	static final void closeTracer(Logger tracer) {
+		Appender appender = tracer.getAppender(TRACE_APPENDER_NAME);
+		if (appender != null) {
+			tracer.removeAppender(appender);
+			appender.close();
+		}
+	}
+
 	public static final void closeAllDevices() throws SQLException {    	
 		SQLLogger.closeAllDevices();    	
 	}
@@ -385,6 +512,11 @@ public class SyncLite extends org.sqlite.JDBC {
 		}
 	}
 
+	//Most recent sampled commit traces of the device, oldest first, empty if commit tracing is disabled
+	public static final List<CommitTrace> getRecentCommitTraces(Path dbPath) throws SQLException {
+		return SQLLogger.getRecentCommitTraces(dbPath.toAbsolutePath());
+	}
+
 	public static final void closeAllDatabases() throws SQLException {    	
 		closeAllDevices();
 	}
@@ -406,6 +538,10 @@ public class SyncLite extends org.sqlite.JDBC {
 	}
 
 	protected final void addShutdownHook() {
+		//Hook closes all devices, one is enough
+		if (!shutdownHookAdded.compareAndSet(false, true)) {
+			return;
+		}
 		try {
 			Runtime.getRuntime().addShutdownHook(new Thread()
 			{
@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import org.sqlite.SQLiteException;
 import org.sqlite.jdbc4.JDBC4Connection;
@@ -240,12 +241,59 @@ public class SyncLiteAppenderConnection extends JDBC4Connection {
     	this.commitId = this.sqlLogger.getNextCommitID();
     }
 
+    //
+    //Bulk appends all rows of a columnar batch for the given INSERT INTO sql. Rows are inserted 
+    //in the user database through an unlogged statement and logged with a single handoff to the 
+    //logger, instead of one per row as with PreparedStatement.addBatch. The batch arrays must 
+    //not be modified once passed in.
+    //
+    public void appendRows(String sql, ColumnBatch batch) throws SQLException {
+        String strippedSql = SyncLiteUtils.validateAppendRowsSql(sql, batch);
+        if (batch.getRowCount() == 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = prepareUnloggedStatement(strippedSql)) {
+            for (int row = 0; row < batch.getRowCount(); ++row) {
+                batch.bindRow(pstmt, row, 1);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        logRows(strippedSql, batch);
+        if (getUserAutoCommit()) {
+            commit();
+        }
+    }
+
+    protected void logRows(String sql, ColumnBatch batch) throws SQLException {
+        this.sqlLogger.logRows(commitId, sql, batch);
+    }
+
+    //
+    //Appender statements write to the user database itself, hence the database commit cannot be 
+    //deferred past the next statement on this connection. Blocks like commit() and returns a 
+    //completed future so that callers can use the same API across device types.
+    //
+    public CompletableFuture<Void> commitAsync() throws SQLException {
+        commit();
+        return CompletableFuture.completedFuture(null);
+    }
+
     @Override
 	public void rollback() throws SQLException {
     	sqlLogger.rollback(commitId);
     	connRollback();
     }
 
+    @Override
+    public void close() throws SQLException {
+    	if (this.sqlLogger != null) {
+    		//Drop the records staged for a txn left open, the database rolls it back
+    		this.sqlLogger.discardTxn(commitId);
+    	}
+    	super.close();
+    }
+
     protected void recordCommit() throws SQLException {
         commitLoggerPstmt.setLong(1, commitId);
         commitLoggerPstmt.setLong(2, this.sqlLogger.getOperationID());
@@ -269,6 +317,11 @@ public class SyncLiteAppenderConnection extends JDBC4Connection {
 		super.commit();		
 	}
 
+    //
+    //Validates sql against the SQLite schema file, skipping the parse if the same sql was 
+    //validated since the last DDL on this device.
+    //
+    //Prepares sql on the SQLite schema file to validate it, see ValidatedSQLCache
     protected PreparedStatement validateSQL(String sql) throws SQLException {
    		return super.prepareStatement(sql);
     }
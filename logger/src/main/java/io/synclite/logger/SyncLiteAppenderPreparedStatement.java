@@ -31,22 +31,20 @@ public class SyncLiteAppenderPreparedStatement extends JDBC4PreparedStatement {
 
 	public SyncLiteAppenderPreparedStatement(SQLiteConnection conn, String sql) throws SQLException {
 		super(conn, sql);
-    	String strippedSql = sql.strip();
-    	String tokens[] = strippedSql.split("\\s+");
-    	if (tokens[0].equalsIgnoreCase("INSERT") && tokens[1].equalsIgnoreCase("INTO")) {
-    		SyncLiteUtils.validateInsertForTelemetryAndAppender(strippedSql);
-    	} else if ((tokens[0].equalsIgnoreCase("CREATE") || tokens[0].equalsIgnoreCase("DROP") || tokens[0].equalsIgnoreCase("ALTER")) &&
-    			(tokens[1].equalsIgnoreCase("TABLE"))
-    			) {
+    	ClassifiedSQL classifiedSql = SQLClassifier.classify(sql);
+    	SQLKind kind = classifiedSql.getKind();
+    	if (kind == SQLKind.INSERT) {
+    		classifiedSql.validateForTelemetryAndAppender();
+    	} else if (kind.isTableDDL()) {
     		//Allowed sql 
-    	} else if (tokens[0].equalsIgnoreCase("SELECT")) {
+    	} else if (kind == SQLKind.SELECT) {
     		//Allowed sql
 		} else {
 			throw new SQLException("Unsupported SQL: SyncLite appender device does not allow SQL : " + sql + ". Allowed SQLs are CREATE TABLE, DROP TABLE, ALTER TABLE, INSERT INTO, SELECT");			
     	}
 
 		this.sqlLogger = EventLogger.findInstance(getConn().getPath());
-		this.tableNameInDDL = SyncLiteUtils.getTableNameFromDDL(sql);
+		this.tableNameInDDL = classifiedSql.getTableNameInDDL();
 	}
 
 	protected SyncLiteAppenderConnection getConn() {
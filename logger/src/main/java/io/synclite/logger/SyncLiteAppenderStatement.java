@@ -40,7 +40,7 @@ public class SyncLiteAppenderStatement extends JDBC4Statement {
     }
 
 	public final boolean executeUnlogged(String sql) throws SQLException {
-		boolean result = stmtExecute(sql, SyncLiteUtils.getTableNameFromDDL(sql), new StringBuilder());
+		boolean result = stmtExecute(sql, SQLClassifier.classify(sql).getTableNameInDDL(), new StringBuilder());
 		if (getConn().getUserAutoCommit() == true) {
 			getConn().superCommit();
 		}
@@ -50,27 +50,25 @@ public class SyncLiteAppenderStatement extends JDBC4Statement {
     @Override
     public final boolean execute(String sql) throws SQLException {
         boolean result = false;
-        List<String> sqls = SyncLiteUtils.splitSqls(sql);
+        List<ClassifiedSQL> sqls = SQLClassifier.classify(sql).getSubStatements();
         for (int i=0; i<sqls.size();++i) {
         	result = executeSingleSQL(sqls.get(i));
         }
         return result;
     }
 
-    protected boolean executeSingleSQL(String sql) throws SQLException {
+    protected boolean executeSingleSQL(ClassifiedSQL classifiedSql) throws SQLException {
+    	String sql = classifiedSql.getSql();
     	boolean result = false;
-    	String strippedSql = sql.strip();
-    	String tokens[] = strippedSql.split("\\s+");
-    	if (tokens[0].equalsIgnoreCase("INSERT") && tokens[1].equalsIgnoreCase("INTO")) {
-    		SyncLiteUtils.validateInsertForTelemetryAndAppender(strippedSql);
-    		result = executeInsert(sql);
-    	} else if ((tokens[0].equalsIgnoreCase("CREATE") || tokens[0].equalsIgnoreCase("DROP") || tokens[0].equalsIgnoreCase("ALTER")) &&
-    			(tokens[1].equalsIgnoreCase("TABLE"))
-    			) {
-    		result = executeDDL(sql);
-    	} else if ((tokens.length == 4) && tokens[0].equalsIgnoreCase("PUBLISH") && tokens[1].equalsIgnoreCase("COLUMN") && tokens[2].equalsIgnoreCase("LIST")) {	
-			result = executePublishColumnList(sql, tokens);
-    	}  else if (tokens[0].equalsIgnoreCase("DELETE") || tokens[0].equalsIgnoreCase("UPDATE")) {
+    	SQLKind kind = classifiedSql.getKind();
+    	if (kind == SQLKind.INSERT) {
+    		classifiedSql.validateForTelemetryAndAppender();
+    		result = executeInsert(sql, classifiedSql.getTableNameInDDL());
+    	} else if (kind.isTableDDL()) {
+    		result = executeDDL(sql, classifiedSql.getTableNameInDDL());
+    	} else if ((kind == SQLKind.PUBLISH_COLUMN_LIST) && (classifiedSql.getTokenCount() == 4)) {	
+			result = executePublishColumnList(sql, classifiedSql.getTokens());
+    	}  else if ((kind == SQLKind.DELETE) || (kind == SQLKind.UPDATE)) {
 			throw new SQLException("Unsupported SQL: SyncLite appender device does not allow SQL : " + sql + ". Allowed SQLs are CREATE TABLE, DROP TABLE, ALTER TABLE, INSERT INTO, SELECT");
 		}  else {
 			try {
@@ -117,17 +115,17 @@ public class SyncLiteAppenderStatement extends JDBC4Statement {
     	return super.execute(sql);
     }
 
-	private final boolean executeDDL(String sql) throws SQLException {
+	private final boolean executeDDL(String sql, String tableNameInDDL) throws SQLException {
 		StringBuilder sqlToLog = new StringBuilder();		
-        boolean result = stmtExecute(sql, SyncLiteUtils.getTableNameFromDDL(sql), sqlToLog);
+        boolean result = stmtExecute(sql, tableNameInDDL, sqlToLog);
         log(sqlToLog.toString());
         processCommit();
         return result;
     }
     
-    private final boolean executeInsert(String sql) throws SQLException {
+    private final boolean executeInsert(String sql, String tableNameInDDL) throws SQLException {
 		StringBuilder sqlToLog = new StringBuilder();		
-    	boolean result = stmtExecute(sql, SyncLiteUtils.getTableNameFromDDL(sql), sqlToLog);
+    	boolean result = stmtExecute(sql, tableNameInDDL, sqlToLog);
     	log(sqlToLog.toString());
     	processCommit();
     	return result;
@@ -136,15 +134,15 @@ public class SyncLiteAppenderStatement extends JDBC4Statement {
     @Override
     public final ResultSet executeQuery(String sql) throws SQLException {
 		ResultSet rs = null;
-		List<String> sqls = SyncLiteUtils.splitSqls(sql);
+		ClassifiedSQL classifiedSql = SQLClassifier.classify(sql);
+		List<ClassifiedSQL> sqls = classifiedSql.getSubStatements();
 		for (int i=0; i<sqls.size(); ++i) {
 			try {
 				executeSingleSQL(sqls.get(i));
 			} catch(SQLException e) {
 				if (e.getMessage().startsWith("Unsupported SQL")) {
-					String tokens[] = sql.trim().split("\\s+");
-					if (tokens[0].equalsIgnoreCase("SELECT")) {
-						rs = stmtExecuteQuery(sql, SyncLiteUtils.getTableNameFromDDL(sql));
+					if (classifiedSql.getKind() == SQLKind.SELECT) {
+						rs = stmtExecuteQuery(sql, classifiedSql.getTableNameInDDL());
 					} else {
 						throw e;
 					}
@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import org.sqlite.SQLiteException;
 import org.sqlite.jdbc4.JDBC4Connection;
@@ -37,6 +38,7 @@ public class SyncLiteConnection extends JDBC4Connection {
     protected TxnLogger sqlLogger;
     private boolean ready = false;
     protected Properties props;
+    private PreparedStatementCache statementCache;
     public SyncLiteConnection(String url, String fileName, Properties prop) throws SQLException {
         super(url, fileName, prop);
         this.props = prop;
@@ -66,6 +68,9 @@ public class SyncLiteConnection extends JDBC4Connection {
         	cleanUpProps();
         }
         initConn();
+        if (this.sqlLogger.options.getPreparedStatementCacheSize() > 0) {
+        	this.statementCache = new PreparedStatementCache(this.sqlLogger.options.getPreparedStatementCacheSize());
+        }
         this.commitId = this.sqlLogger.getNextCommitID();
         this.ready = true;
     }
@@ -173,9 +178,20 @@ public class SyncLiteConnection extends JDBC4Connection {
     	}
     	checkOpen();
         checkCursor(rst, rsc, rsh);
+        String cacheKey = null;
+        if (this.statementCache != null) {
+        	cacheKey = PreparedStatementCache.key(sql, rst, rsc, rsh);
+        	SyncLitePreparedStatement cachedPstmt = this.statementCache.take(cacheKey);
+        	if (cachedPstmt != null) {
+        		return cachedPstmt;
+        	}
+        }
         PreparedStatement pstmt = null;
         try {
         	pstmt = connPrepareStatement(sql);
+        	if ((cacheKey != null) && (pstmt instanceof SyncLitePreparedStatement)) {
+        		((SyncLitePreparedStatement) pstmt).setCacheKey(cacheKey);
+        	}
         } catch (SQLException e) {
         	if (e.getMessage().contains("syntax error") || e.getMessage().contains("Parse error")) {
         		//Prepare a mock statement with the supplied sql as an internal sql
@@ -197,16 +213,73 @@ public class SyncLiteConnection extends JDBC4Connection {
 
     @Override
     public void commit() throws SQLException {
-        recordCommit();
+        CommitTrace trace = this.sqlLogger.beginCommitTrace(commitId);
+        try {
+            recordCommit();
+            if (trace != null) {
+                trace.mark(CommitStage.RECORD_COMMIT);
+            }
+
+            //Flush all logs in log database
+            //Commit on the user database
+            //Log and flush commit on log database
+            //
+            this.sqlLogger.flush(commitId);
+            if (trace != null) {
+                trace.mark(CommitStage.LOG_FLUSHED);
+            }
+            connCommit();
+            if (trace != null) {
+                trace.mark(CommitStage.DB_COMMITTED);
+            }
+            this.sqlLogger.logCommitAndFlush(commitId);
+            if (trace != null) {
+                trace.mark(CommitStage.COMMIT_LOGGED);
+            }
+        } finally {
+            this.sqlLogger.endCommitTrace(trace);
+        }
+        this.commitId = this.sqlLogger.getNextCommitID();
+    }
 
-        //Flush all logs in log database
-        //Commit on the user database
-        //Log and flush commit on log database
-        //
-        this.sqlLogger.flush(commitId);
-        connCommit();
-        this.sqlLogger.logCommitAndFlush(commitId);
+    //
+    //Same 2PC as commit() except that the caller does not wait for the trailing COMMIT record to be flushed.
+    //This is not a non-blocking commit : the caller still blocks on the log flush of the txn and on the 
+    //user database commit, only the last log segment commit moves to the logger thread, which completes 
+    //the returned future once it is flushed. Futures of a connection complete in commit order as the log 
+    //queue is FIFO. If the device crashes before the COMMIT record is flushed, restart recovery logs it 
+    //as the txn is already committed in the user database. Devices logging in the caller thread return 
+    //an already completed future.
+    //
+    public CompletableFuture<Void> commitAsync() throws SQLException {
+        CommitTrace trace = this.sqlLogger.beginCommitTrace(commitId);
+        CompletableFuture<Void> result;
+        try {
+            recordCommit();
+            if (trace != null) {
+                trace.mark(CommitStage.RECORD_COMMIT);
+            }
+            this.sqlLogger.flush(commitId);
+            if (trace != null) {
+                trace.mark(CommitStage.LOG_FLUSHED);
+            }
+            connCommit();
+            if (trace != null) {
+                trace.mark(CommitStage.DB_COMMITTED);
+            }
+            result = this.sqlLogger.logCommitAndFlushAsync(commitId);
+        } catch (SQLException | RuntimeException e) {
+            this.sqlLogger.endCommitTrace(trace);
+            throw e;
+        }
+        if (trace != null) {
+            result.whenComplete((v, e) -> {
+                trace.mark(CommitStage.COMMIT_LOGGED);
+                this.sqlLogger.endCommitTrace(trace);
+            });
+        }
         this.commitId = this.sqlLogger.getNextCommitID();
+        return result;
     }
 
     @Override
@@ -270,14 +343,37 @@ public class SyncLiteConnection extends JDBC4Connection {
         super.rollback();
 	}
     
+    //
+    //Called when the application closes a statement handed out by the statement cache.
+    //Returns false if the statement could not be reset and cached, caller closes it then.
+    //
+    final boolean returnToStatementCache(String cacheKey, SyncLitePreparedStatement pstmt) {
+    	if ((this.statementCache == null) || isClosed()) {
+    		return false;
+    	}
+    	try {
+    		pstmt.resetStatement();
+    		return this.statementCache.put(cacheKey, pstmt);
+    	} catch (SQLException e) {
+    		return false;
+    	}
+    }
+
     @Override
     public void close() throws SQLException {
+    	if (this.statementCache != null) {
+    		this.statementCache.closeAll();
+    	}
     	if (this.commitLoggerPstmt != null) {
     		this.commitLoggerPstmt.close();
     	}
+    	if (this.sqlLogger != null) {
+    		this.sqlLogger.discardTxn(commitId);
+    	}
     	super.close();
     }
     
+    //Prepares sql on the SQLite schema file to validate it, see ValidatedSQLCache
     protected PreparedStatement validateSQL(String sql) throws SQLException {
     	return super.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.CLOSE_CURSORS_AT_COMMIT);
     }
@@ -42,13 +42,29 @@ public class SyncLiteOptions {
 	private long logSegmentFlushBatchSize = 1000000;
 	private long logSegmentSwitchLogCountThreshold = 1000000;
 	private long logSegmentSwitchDurationThresholdMs = 5000;
+	private long logSegmentSwitchByteThreshold = 268435456;
+	private long logSegmentTargetShippingLatencyMs = 0;
 	private long logSegmentShippingFrequencyMs = 5000;
+	private long metadataFlushIntervalMs = 1000;
 	//private long logSegmentPageSize = 32768;
-	private long logSegmentPageSize = 512;
+	private long logSegmentPageSize = 4096;
+	private boolean adaptiveLogSegmentPageSize = true;
 	private long maxInlinedLogArgs = 16;
+	private LogArgLayout logArgLayout = LogArgLayout.INLINED;
+	private LogSegmentEncoding logSegmentEncoding = LogSegmentEncoding.ROW;
+	private boolean logSegmentNetChangeCompaction = false;
+	private LogSegmentDurability logSegmentDurability = LogSegmentDurability.DEFAULT;
 	private boolean usePreCreatedDataBackup = false;
 	private boolean vacuumDataBackup = true;
 	private boolean skipRestartRecovery = false;
+	private boolean enableMetrics = false;
+	private long commitTraceSamplingInterval = 0;
+	private int commitTraceBufferSize = 1024;
+	private CommitTraceListener commitTraceListener = null;
+	private int preparedStatementCacheSize = 0;
+	private long deviceCloseTimeoutMs = 60000;
+	private long inlineTxnLogCountThreshold = 0;
+	private long inlineTxnByteThreshold = 65536;
 	private boolean disableAsyncLoggingForTxnDevice = false;
 	private boolean enableAsyncLoggingForAppenderDevice = false;
 	private Path encryptionKeyFile = null;
@@ -58,6 +74,8 @@ public class SyncLiteOptions {
 	private String uuid = null;
 	private DeviceType deviceType;
 	private Logger tracer;
+	//Set by SyncLite.initializeAll for its own initialization of the device only, hence not copied
+	private boolean deferNonCriticalStartup = false;
 	private HashMap<Integer, DestinationType> destTypes = new HashMap<Integer, DestinationType>();
 	private HashMap<Integer, Path> localStageDirectories = new HashMap<Integer, Path>();
 	private HashMap<Integer, Path> localCommandStageDirectories = new HashMap<Integer, Path>();
@@ -129,14 +147,30 @@ public class SyncLiteOptions {
 		copy.logQueueSize = this.logQueueSize;
 		copy.logSegmentFlushBatchSize = this.logSegmentFlushBatchSize;
 		copy.logSegmentPageSize = this.logSegmentPageSize;
+		copy.adaptiveLogSegmentPageSize = this.adaptiveLogSegmentPageSize;
 		copy.logSegmentShippingFrequencyMs = this.logSegmentShippingFrequencyMs;
+		copy.metadataFlushIntervalMs = this.metadataFlushIntervalMs;
 		copy.logSegmentSwitchDurationThresholdMs = this.logSegmentSwitchDurationThresholdMs;
 		copy.logSegmentSwitchLogCountThreshold = this.logSegmentSwitchLogCountThreshold;
+		copy.logSegmentSwitchByteThreshold = this.logSegmentSwitchByteThreshold;
+		copy.logSegmentTargetShippingLatencyMs = this.logSegmentTargetShippingLatencyMs;
 		copy.maxInlinedLogArgs = this.maxInlinedLogArgs;
+		copy.logArgLayout = this.logArgLayout;
+		copy.logSegmentEncoding = this.logSegmentEncoding;
+		copy.logSegmentNetChangeCompaction = this.logSegmentNetChangeCompaction;
+		copy.logSegmentDurability = this.logSegmentDurability;
 		for (Map.Entry<Integer, String> entry : this.passwords.entrySet()) {
 			copy.passwords.put(entry.getKey(), entry.getValue());
 		}
 		copy.skipRestartRecovery = this.skipRestartRecovery;
+		copy.enableMetrics = this.enableMetrics;
+		copy.commitTraceSamplingInterval = this.commitTraceSamplingInterval;
+		copy.commitTraceBufferSize = this.commitTraceBufferSize;
+		copy.commitTraceListener = this.commitTraceListener;
+		copy.preparedStatementCacheSize = this.preparedStatementCacheSize;
+		copy.deviceCloseTimeoutMs = this.deviceCloseTimeoutMs;
+		copy.inlineTxnLogCountThreshold = this.inlineTxnLogCountThreshold;
+		copy.inlineTxnByteThreshold = this.inlineTxnByteThreshold;
 		copy.tracer = this.tracer;
 		copy.usePreCreatedDataBackup = this.usePreCreatedDataBackup;
 		for (Map.Entry<Integer, String> entry : this.userNames.entrySet()) {
@@ -299,6 +333,14 @@ public class SyncLiteOptions {
 		this.tracer = tracer;
 	}
 
+	boolean getDeferNonCriticalStartup() {
+		return this.deferNonCriticalStartup;
+	}
+
+	void setDeferNonCriticalStartup(boolean defer) {
+		this.deferNonCriticalStartup = defer;
+	}
+
 	public String getHost(Integer index) {
 		return hosts.get(index);
 	}
@@ -438,7 +480,7 @@ public class SyncLiteOptions {
 	}
 
 	public void enableAsyncLoggingForAppenderDevice(boolean async) {
-		disableAsyncLoggingForTxnDevice = async;
+		enableAsyncLoggingForAppenderDevice = async;
 	}
 
 	public void setEncryptionKeyFile(Path pubKeyPath) {
@@ -453,6 +495,89 @@ public class SyncLiteOptions {
 		return skipRestartRecovery;
 	}
 
+	public void setEnableMetrics(boolean enable) {
+		enableMetrics = enable;
+	}
+
+	public boolean getEnableMetrics() {
+		return enableMetrics;
+	}
+
+	//Trace one in every interval commits, 0 disables commit tracing
+	public void setCommitTraceSamplingInterval(long interval) throws SQLException {
+		if (interval < 0) {
+			throw new SQLException("SyncLite : Invalid value " + interval + " specified for commit trace sampling interval");
+		}
+		commitTraceSamplingInterval = interval;
+	}
+
+	public long getCommitTraceSamplingInterval() {
+		return commitTraceSamplingInterval;
+	}
+
+	public void setCommitTraceBufferSize(int size) throws SQLException {
+		if (size <= 0) {
+			throw new SQLException("SyncLite : Invalid value " + size + " specified for commit trace buffer size");
+		}
+		commitTraceBufferSize = size;
+	}
+
+	public int getCommitTraceBufferSize() {
+		return commitTraceBufferSize;
+	}
+
+	public void setCommitTraceListener(CommitTraceListener listener) {
+		this.commitTraceListener = listener;
+	}
+
+	public CommitTraceListener getCommitTraceListener() {
+		return this.commitTraceListener;
+	}
+
+	public void setPreparedStatementCacheSize(int size) throws SQLException {
+		if (size < 0) {
+			throw new SQLException("SyncLite : Invalid value " + size + " specified for prepared statement cache size");
+		}
+		preparedStatementCacheSize = size;
+	}
+
+	public int getPreparedStatementCacheSize() {
+		return preparedStatementCacheSize;
+	}
+
+	public void setDeviceCloseTimeoutMs(long timeoutMs) throws SQLException {
+		if (timeoutMs <= 0) {
+			throw new SQLException("SyncLite : Invalid value " + timeoutMs + " specified for device close timeout");
+		}
+		deviceCloseTimeoutMs = timeoutMs;
+	}
+
+	public long getDeviceCloseTimeoutMs() {
+		return deviceCloseTimeoutMs;
+	}
+
+	public void setInlineTxnLogCountThreshold(long logCount) throws SQLException {
+		if (logCount < 0) {
+			throw new SQLException("SyncLite : Invalid value " + logCount + " specified for inline txn log count threshold");
+		}
+		inlineTxnLogCountThreshold = logCount;
+	}
+
+	public long getInlineTxnLogCountThreshold() {
+		return inlineTxnLogCountThreshold;
+	}
+
+	public void setInlineTxnByteThreshold(long bytes) throws SQLException {
+		if (bytes <= 0) {
+			throw new SQLException("SyncLite : Invalid value " + bytes + " specified for inline txn byte threshold");
+		}
+		inlineTxnByteThreshold = bytes;
+	}
+
+	public long getInlineTxnByteThreshold() {
+		return inlineTxnByteThreshold;
+	}
+
 
 	public void setLogMaxInlineArgs(long argCnt) throws SQLException {
 		if (argCnt <= 0) {
@@ -465,6 +590,47 @@ public class SyncLiteOptions {
 		return maxInlinedLogArgs;
 	}
 
+	public void setLogArgLayout(LogArgLayout layout) throws SQLException {
+		if (layout == null) {
+			throw new SQLException("SyncLite : Invalid value null specified for log argument layout");
+		}
+		logArgLayout = layout;
+	}
+
+	public LogArgLayout getLogArgLayout() {
+		return logArgLayout;
+	}
+
+	public void setLogSegmentEncoding(LogSegmentEncoding encoding) throws SQLException {
+		if (encoding == null) {
+			throw new SQLException("SyncLite : Invalid value null specified for log segment encoding");
+		}
+		logSegmentEncoding = encoding;
+	}
+
+	public LogSegmentEncoding getLogSegmentEncoding() {
+		return logSegmentEncoding;
+	}
+
+	public void setLogSegmentNetChangeCompaction(boolean enable) {
+		logSegmentNetChangeCompaction = enable;
+	}
+
+	public boolean getLogSegmentNetChangeCompaction() {
+		return logSegmentNetChangeCompaction;
+	}
+
+	public void setLogSegmentDurability(LogSegmentDurability durability) throws SQLException {
+		if (durability == null) {
+			throw new SQLException("SyncLite : Invalid value null specified for log segment durability");
+		}
+		logSegmentDurability = durability;
+	}
+
+	public LogSegmentDurability getLogSegmentDurability() {
+		return logSegmentDurability;
+	}
+
 	public void setLogSegmentFlushBatchSize(long batchSize) throws SQLException {
 		if (batchSize<= 0) {
 			throw new SQLException("SyncLite : Invalid value " + batchSize+ " specified for log segment flush batch size");
@@ -476,6 +642,17 @@ public class SyncLiteOptions {
 		return logSegmentFlushBatchSize;
 	}
 
+	public void setMetadataFlushIntervalMs(long intervalMs) throws SQLException {
+		if (intervalMs < 0) {
+			throw new SQLException("SyncLite : Invalid value " + intervalMs + " specified for metadata flush interval");
+		}
+		metadataFlushIntervalMs = intervalMs;
+	}
+
+	public long getMetadataFlushIntervalMs() {
+		return metadataFlushIntervalMs;
+	}
+
 	public void setLogSegmentShippingFrequencyMs(long frequency) throws SQLException {
 		if (frequency<= 0) {
 			throw new SQLException("SyncLite : Invalid value " + frequency + " specified for log segment shipping frequency");
@@ -498,6 +675,28 @@ public class SyncLiteOptions {
 		return logSegmentSwitchLogCountThreshold;
 	}
 
+	public void setLogSegmentSwitchByteThreshold(long byteThreshold) throws SQLException {
+		if (byteThreshold <= 0) {
+			throw new SQLException("SyncLite : Invalid value " + byteThreshold + " specified for log segment switch byte threshold");
+		}
+		logSegmentSwitchByteThreshold = byteThreshold;
+	}
+
+	public long getLogSegmentSwitchByteThreshold() {
+		return logSegmentSwitchByteThreshold;
+	}
+
+	public void setLogSegmentTargetShippingLatencyMs(long latencyMs) throws SQLException {
+		if (latencyMs < 0) {
+			throw new SQLException("SyncLite : Invalid value " + latencyMs + " specified for log segment target shipping latency");
+		}
+		logSegmentTargetShippingLatencyMs = latencyMs;
+	}
+
+	public long getLogSegmentTargetShippingLatencyMs() {
+		return logSegmentTargetShippingLatencyMs;
+	}
+
 	public void setLogSegmentSwitchDurationThresholdMs(long logDurationThreshold) throws SQLException {
 		if (logDurationThreshold <= 0) {
 			throw new SQLException("SyncLite : Invalid value " + logDurationThreshold+ " specified for log segment switch duration threshold");
@@ -514,12 +713,22 @@ public class SyncLiteOptions {
 			throw new SQLException("SyncLite : Invalid log segment page size specified. Value must be between [512, 65536].");
 		}
 		logSegmentPageSize = pageSize;
+		//An explicitly specified page size is pinned
+		adaptiveLogSegmentPageSize = false;
 	}
 
 	public long getLogSegmentPageSize() {
 		return logSegmentPageSize;
 	}
 
+	public void setAdaptiveLogSegmentPageSize(boolean adaptive) {
+		adaptiveLogSegmentPageSize = adaptive;
+	}
+
+	public boolean getAdaptiveLogSegmentPageSize() {
+		return adaptiveLogSegmentPageSize;
+	}
+
 	public static SyncLiteOptions loadFromFile(Path propsPath) throws SQLException{
 		return loadAndValidateOptions(propsPath, null);
 	}
@@ -614,6 +823,26 @@ public class SyncLiteOptions {
 				}
 			}
 
+			optVal = properties.get("log-segment-switch-byte-threshold");
+			if (optVal != null) {
+				Long val = Long.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-segment-switch-byte-threshold in configuration file");
+				} else {
+					options.setLogSegmentSwitchByteThreshold(val);
+				}
+			}
+
+			optVal = properties.get("log-segment-target-shipping-latency-ms");
+			if (optVal != null) {
+				Long val = Long.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-segment-target-shipping-latency-ms in configuration file");
+				} else {
+					options.setLogSegmentTargetShippingLatencyMs(val);
+				}
+			}
+
 			optVal = properties.get("log-segment-switch-duration-threshold-ms");
 			if (optVal != null) {
 				Long val = Long.valueOf(optVal);
@@ -634,13 +863,27 @@ public class SyncLiteOptions {
 				}
 			}
 
-			optVal = properties.get("log-segment-page-size");
+			optVal = properties.get("metadata-flush-interval-ms");
 			if (optVal != null) {
 				Long val = Long.valueOf(optVal);
 				if (val == null) {
-					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-segment-page-size in configuration file");
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for metadata-flush-interval-ms in configuration file");
+				} else {
+					options.setMetadataFlushIntervalMs(val);
+				}
+			}
+
+			optVal = properties.get("log-segment-page-size");
+			if (optVal != null) {
+				if (optVal.equalsIgnoreCase("adaptive")) {
+					options.setAdaptiveLogSegmentPageSize(true);
 				} else {
-					options.setLogSegmentPageSize(val);
+					Long val = Long.valueOf(optVal);
+					if (val == null) {
+						throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-segment-page-size in configuration file");
+					} else {
+						options.setLogSegmentPageSize(val);
+					}
 				}
 			}
 
@@ -654,6 +897,43 @@ public class SyncLiteOptions {
 				}
 			}
 
+			optVal = properties.get("log-arg-layout");
+			if (optVal != null) {
+				try {
+					options.setLogArgLayout(LogArgLayout.valueOf(optVal.toUpperCase()));
+				} catch (IllegalArgumentException e) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-arg-layout in configuration file");
+				}
+			}
+
+			optVal = properties.get("log-segment-encoding");
+			if (optVal != null) {
+				try {
+					options.setLogSegmentEncoding(LogSegmentEncoding.valueOf(optVal.toUpperCase()));
+				} catch (IllegalArgumentException e) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-segment-encoding in configuration file");
+				}
+			}
+
+			optVal = properties.get("log-segment-net-change-compaction");
+			if (optVal != null) {
+				Boolean val = Boolean.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-segment-net-change-compaction in configuration file");
+				} else {
+					options.setLogSegmentNetChangeCompaction(val);
+				}
+			}
+
+			optVal = properties.get("log-segment-durability");
+			if (optVal != null) {
+				try {
+					options.setLogSegmentDurability(LogSegmentDurability.valueOf(optVal.toUpperCase()));
+				} catch (IllegalArgumentException e) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for log-segment-durability in configuration file");
+				}
+			}
+
 			optVal = properties.get("use-precreated-data-backup");
 			if (optVal != null) {
 				Boolean val = Boolean.valueOf(optVal);
@@ -684,6 +964,76 @@ public class SyncLiteOptions {
 				}   
 			}
 
+			optVal = properties.get("enable-metrics");
+			if (optVal != null) {
+				Boolean val = Boolean.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for enable-metrics in configuration file");
+				} else {
+					options.setEnableMetrics(val);
+				}   
+			}
+
+			optVal = properties.get("commit-trace-sampling-interval");
+			if (optVal != null) {
+				Long val = Long.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for commit-trace-sampling-interval in configuration file");
+				} else {
+					options.setCommitTraceSamplingInterval(val);
+				}
+			}
+
+			optVal = properties.get("commit-trace-buffer-size");
+			if (optVal != null) {
+				Integer val = Integer.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for commit-trace-buffer-size in configuration file");
+				} else {
+					options.setCommitTraceBufferSize(val);
+				}
+			}
+
+			optVal = properties.get("prepared-statement-cache-size");
+			if (optVal != null) {
+				Integer val = Integer.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for prepared-statement-cache-size in configuration file");
+				} else {
+					options.setPreparedStatementCacheSize(val);
+				}
+			}
+
+			optVal = properties.get("device-close-timeout-ms");
+			if (optVal != null) {
+				Long val = Long.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for device-close-timeout-ms in configuration file");
+				} else {
+					options.setDeviceCloseTimeoutMs(val);
+				}
+			}
+
+			optVal = properties.get("inline-txn-log-count-threshold");
+			if (optVal != null) {
+				Long val = Long.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for inline-txn-log-count-threshold in configuration file");
+				} else {
+					options.setInlineTxnLogCountThreshold(val);
+				}
+			}
+
+			optVal = properties.get("inline-txn-byte-threshold");
+			if (optVal != null) {
+				Long val = Long.valueOf(optVal);
+				if (val == null) {
+					throw new SQLException("SyncLite : Invalid value " + optVal + " specified for inline-txn-byte-threshold in configuration file");
+				} else {
+					options.setInlineTxnByteThreshold(val);
+				}
+			}
+
 			optVal = properties.get("disable-async-logging-for-transactional-device");
 			if (optVal != null) {
 				Boolean val = Boolean.valueOf(optVal);
@@ -15,8 +15,15 @@
  */
 
 package io.synclite.logger;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
 
 import org.sqlite.SQLiteConnection;
 import org.sqlite.jdbc4.JDBC4PreparedStatement;
@@ -25,13 +32,18 @@ public class SyncLitePreparedStatement extends JDBC4PreparedStatement {
 
     protected SQLLogger sqlLogger;
     protected String tableNameInDDL;
+    //Set if the connection caches this statement, close() then hands it back to the cache
+    private String cacheKey;
+    //Set once the application closed a cached statement, cleared when the cache hands it out again
+    private boolean logicallyClosed = false;
     public SyncLitePreparedStatement(SQLiteConnection conn, String sql) throws SQLException {
         super(conn, sql);
-        if (SyncLiteUtils.splitSqls(sql).size() > 1) {
+        ClassifiedSQL classifiedSql = SQLClassifier.classify(sql);
+        if (classifiedSql.getSubSqls().size() > 1) {
             throw new SQLException("SyncLite supports a single SQL statement as part of a PreparedStatement, multiple specified  : " + sql);
         }
         this.sqlLogger = AsyncTxnLogger.findInstance(getConn().getPath());
-        this.tableNameInDDL = SyncLiteUtils.getTableNameFromDDL(sql);
+        this.tableNameInDDL = classifiedSql.getTableNameInDDL();
     }
 
     protected SyncLiteConnection getConn() {
@@ -55,6 +67,7 @@ public class SyncLitePreparedStatement extends JDBC4PreparedStatement {
 
     @Override
     public final boolean execute() throws SQLException {
+        checkOpenForCaller();
         boolean result= pStmtExecute();
         if (batchQueryCount == 0) {
             log();
@@ -65,6 +78,7 @@ public class SyncLitePreparedStatement extends JDBC4PreparedStatement {
 
     @Override
     public ResultSet executeQuery() throws SQLException {
+    	checkOpenForCaller();
     	return pStmtExecuteQuery();
     }
     
@@ -76,6 +90,7 @@ public class SyncLitePreparedStatement extends JDBC4PreparedStatement {
 
     @Override
     public final int[] executeBatch() throws SQLException {
+        checkOpenForCaller();
         int[] result = pStmtExecuteBatch();
         processCommit();
         return result;
@@ -83,10 +98,189 @@ public class SyncLitePreparedStatement extends JDBC4PreparedStatement {
 
     @Override
     public final void addBatch() throws SQLException {
+    	checkOpenForCaller();
     	pStmtAddBatch();
     	log();
     }
     
+    //
+    //A caller holding on to a cached statement after close() must not run or bind it, 
+    //all execute, addBatch and set methods check for a logical close first.
+    //
+    private final void checkOpenForCaller() throws SQLException {
+    	if (this.logicallyClosed) {
+    		throw new SQLException("SyncLite : PreparedStatement is closed");
+    	}
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+    	checkOpenForCaller();
+    	return super.executeUpdate();
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+    	checkOpenForCaller();
+    	super.clearParameters();
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+    	checkOpenForCaller();
+    	super.clearBatch();
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    	checkOpenForCaller();
+    	super.setNull(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    	checkOpenForCaller();
+    	super.setNull(parameterIndex, sqlType, typeName);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setBoolean(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setByte(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setShort(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setInt(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setLong(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setFloat(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setDouble(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setBigDecimal(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setString(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setNString(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setBytes(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setDate(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+    	checkOpenForCaller();
+    	super.setDate(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setTime(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+    	checkOpenForCaller();
+    	super.setTime(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setTimestamp(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+    	checkOpenForCaller();
+    	super.setTimestamp(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+    	checkOpenForCaller();
+    	super.setObject(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    	checkOpenForCaller();
+    	super.setObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scale) throws SQLException {
+    	checkOpenForCaller();
+    	super.setObject(parameterIndex, x, targetSqlType, scale);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    	checkOpenForCaller();
+    	super.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    	checkOpenForCaller();
+    	super.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+    	checkOpenForCaller();
+    	super.setCharacterStream(parameterIndex, reader, length);
+    }
+
     protected boolean pStmtExecute() throws SQLException {
     	return superExecute();
     }
@@ -111,10 +305,49 @@ public class SyncLitePreparedStatement extends JDBC4PreparedStatement {
         return super.executeBatch();
     }
     
+    final void setCacheKey(String cacheKey) {
+    	this.cacheKey = cacheKey;
+    }
+
+    @Override
+    public final void close() throws SQLException {
+    	if (this.logicallyClosed) {
+    		//Already back in the statement cache, possibly handed out to another caller by now
+    		return;
+    	}
+    	if ((this.cacheKey != null) && !isClosed() && getConn().returnToStatementCache(this.cacheKey, this)) {
+    		this.logicallyClosed = true;
+    		return;
+    	}
+    	closeStatement();
+    }
+
     @Override
-    public void close() throws SQLException {
+    public boolean isClosed() throws SQLException {
+    	return this.logicallyClosed || super.isClosed();
+    }
+
+    //Called by the statement cache when it hands out this statement again
+    final void reopen() {
+    	this.logicallyClosed = false;
+    }
+
+    protected void closeStatement() throws SQLException {
     	super.close();
     }
+
+    //Brings the statement back to its freshly prepared state before it is cached for reuse
+    protected void resetStatement() throws SQLException {
+    	ResultSet rs = getResultSet();
+    	if (rs != null) {
+    		rs.close();
+    	}
+    	clearBatch();
+    	clearParameters();
+    	setMaxRows(0);
+    	setQueryTimeout(0);
+    	setFetchSize(0);
+    }
     
     protected SyncLitePreparedStatement getSyncLitePreparedStatement() {
     	return this;
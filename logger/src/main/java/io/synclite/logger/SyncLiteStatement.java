@@ -39,7 +39,7 @@ public class SyncLiteStatement extends JDBC4Statement {
     }
 
     public final boolean executeUnlogged(String sql) throws SQLException {    	
-        boolean result = stmtExecute(sql, SyncLiteUtils.getTableNameFromDDL(sql), new StringBuilder());
+        boolean result = stmtExecute(sql, SQLClassifier.classify(sql).getTableNameInDDL(), new StringBuilder());
 		if (getConn().getUserAutoCommit() == true) {
 			getConn().connCommit();
 		}
@@ -49,19 +49,20 @@ public class SyncLiteStatement extends JDBC4Statement {
 	@Override
     public final boolean execute(String sql) throws SQLException {
         boolean result = false;
-        for (String nextSql : SyncLiteUtils.splitSqls(sql)) {
-            if (!getConn().processIfTxnMessage(nextSql)) {
+        for (ClassifiedSQL nextSql : SQLClassifier.classify(sql).getSubStatements()) {
+            if (!getConn().processIfTxnMessage(nextSql.getSql())) {
                 result = executeInternal(nextSql);
             }
         }
         return result;
     }
 
-    private final boolean executeInternal(String sql) throws SQLException {
+    private final boolean executeInternal(ClassifiedSQL classifiedSql) throws SQLException {
+    	String sql = classifiedSql.getSql();
     	boolean result = false;
 		StringBuilder sqlToLog = new StringBuilder();
     	try {
-    		result = stmtExecute(sql, SyncLiteUtils.getTableNameFromDDL(sql), sqlToLog);
+    		result = stmtExecute(sql, classifiedSql.getTableNameInDDL(), sqlToLog);
     	} catch (SQLException e) {
     		if (e.getMessage().contains("syntax error") || e.getMessage().contains("Parse error")) {
     			try {
@@ -83,11 +84,12 @@ public class SyncLiteStatement extends JDBC4Statement {
         return result;
     }
 
-    private final int executeUpdateInternal(String sql) throws SQLException {
+    private final int executeUpdateInternal(ClassifiedSQL classifiedSql) throws SQLException {
+    	String sql = classifiedSql.getSql();
     	int result = 0;
 		StringBuilder sqlToLog = new StringBuilder();
     	try {
-    		result = stmtExecuteUpdate(sql, SyncLiteUtils.getTableNameFromDDL(sql), sqlToLog);
+    		result = stmtExecuteUpdate(sql, classifiedSql.getTableNameInDDL(), sqlToLog);
     	} catch (SQLException e) {
     		if (e.getMessage().contains("syntax error") || e.getMessage().contains("Parse error")) {
     			try {
@@ -113,18 +115,19 @@ public class SyncLiteStatement extends JDBC4Statement {
     @Override
     public final ResultSet executeQuery(String sql) throws SQLException {
         ResultSet resultSet = null;
-        for (String nextSql : SyncLiteUtils.splitSqls(sql)) {
-            if (!getConn().processIfTxnMessage(nextSql)) {
+        for (ClassifiedSQL nextSql : SQLClassifier.classify(sql).getSubStatements()) {
+            if (!getConn().processIfTxnMessage(nextSql.getSql())) {
                 resultSet = executeQueryInternal(nextSql);
             }
         }
         return resultSet;
     }
 
-    private final ResultSet executeQueryInternal(String sql) throws SQLException {
+    private final ResultSet executeQueryInternal(ClassifiedSQL classifiedSql) throws SQLException {
+    	String sql = classifiedSql.getSql();
     	ResultSet rs = null;
         try {
-        	String tableNameInDDL = SyncLiteUtils.getTableNameFromDDL(sql);
+        	String tableNameInDDL = classifiedSql.getTableNameInDDL();
         	rs = stmtExecuteQuery(sql, tableNameInDDL);
             if (tableNameInDDL != null) {
                 log(sql);
@@ -156,8 +159,8 @@ public class SyncLiteStatement extends JDBC4Statement {
     @Override
     public final int executeUpdate(String sql) throws SQLException {
         int result = 0;
-        for (String nextSql : SyncLiteUtils.splitSqls(sql)) {
-            if (!getConn().processIfTxnMessage(nextSql)) {
+        for (ClassifiedSQL nextSql : SQLClassifier.classify(sql).getSubStatements()) {
+            if (!getConn().processIfTxnMessage(nextSql.getSql())) {
                 result = executeUpdateInternal(nextSql);
             }
         }
@@ -165,7 +168,7 @@ public class SyncLiteStatement extends JDBC4Statement {
     }
 
     public final int executeUnloggedUpdate(String sql) throws SQLException {    	
-        return stmtExecuteUpdate(sql, SyncLiteUtils.getTableNameFromDDL(sql), new StringBuilder());
+        return stmtExecuteUpdate(sql, SQLClassifier.classify(sql).getTableNameInDDL(), new StringBuilder());
     }
 
     private final void processCommit() throws SQLException {
@@ -17,7 +17,9 @@
 package io.synclite.logger;
 
 import java.nio.file.Path;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -29,6 +31,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -127,6 +131,41 @@ public class SyncLiteUtils {
 		return n;
 	}
 
+	//
+	//Approximate on-disk width of a commandlog record, cheap enough to be computed for every logged record
+	//
+	static final long estimateLogRecordSize(String sql, Object[] args) {
+		long size = 16;
+		if (sql != null) {
+			size += sql.length();
+		}
+		if (args != null) {
+			for (Object arg : args) {
+				if (arg == null) {
+					size += 1;
+				} else if (arg instanceof String) {
+					size += ((String) arg).length();
+				} else if (arg instanceof byte[]) {
+					size += ((byte[]) arg).length;
+				} else {
+					size += 8;
+				}
+			}
+		}
+		return size;
+	}
+
+	//Sum of estimateLogRecordSize over the rows of a commandlog table, args beyond inlinedArgCnt are not counted
+	static final long estimateLoggedBytes(Statement stmt, long inlinedArgCnt) throws SQLException {
+		StringBuilder sizeBuilder = new StringBuilder("16 + ifnull(length(sql), 0)");
+		for (long i = 1; i <= inlinedArgCnt; ++i) {
+			sizeBuilder.append(" + (CASE WHEN arg_cnt >= " + i + " THEN (CASE typeof(arg" + i + ") WHEN 'null' THEN 1 WHEN 'text' THEN length(arg" + i + ") WHEN 'blob' THEN length(arg" + i + ") ELSE 8 END) ELSE 0 END)");
+		}
+		try (ResultSet rs = stmt.executeQuery("SELECT total(" + sizeBuilder + ") FROM commandlog")) {
+			return rs.next() ? (long) rs.getDouble(1) : 0;
+		}
+	}
+
 	final static String prepareArgList(long argCnt) {
 		StringBuilder argListBuilder = new StringBuilder();
 		for (long i = 1; i <= argCnt; ++i) {
@@ -407,6 +446,21 @@ public class SyncLiteUtils {
 		}
 	}
 
+	//Validates the INSERT sql used to bulk append a column batch and returns it stripped
+	final static String validateAppendRowsSql(String sql, ColumnBatch batch) throws SQLException {
+		ClassifiedSQL classifiedSql = SQLClassifier.classify(sql);
+		if (classifiedSql.getKind() != SQLKind.INSERT) {
+			throw new SQLException("Unsupported SQL : SyncLite appendRows supports INSERT INTO SQL only, specified : " + sql);
+		}
+		classifiedSql.validateForTelemetryAndAppender();
+		String strippedSql = classifiedSql.getStrippedSql();
+		long argCnt = strippedSql.chars().filter(c -> c == '?').count();
+		if (argCnt != batch.getColumnCount()) {
+			throw new SQLException("SyncLite : Column batch with " + batch.getColumnCount() + " columns specified for SQL with " + argCnt + " args : " + sql);
+		}
+		return strippedSql;
+	}
+
 	final static void validateUpdateForTelemetryAndAppender(String strippedSql) throws SQLException {
 
 		// Create a Matcher object
@@ -657,4 +711,20 @@ public class SyncLiteUtils {
 	    return null;
 	}
 
+
+	//
+	//Waits for an already shut down executor until the given System.nanoTime() deadline and 
+	//interrupts its tasks once the deadline passes. Returns false if they had to be interrupted.
+	//
+	static final boolean awaitTermination(ExecutorService service, long deadlineNanos) {
+		try {
+			if (service.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+				return true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		service.shutdownNow();
+		return false;
+	}
 }
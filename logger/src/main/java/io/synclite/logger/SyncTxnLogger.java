@@ -17,49 +17,63 @@
 package io.synclite.logger;
 
 import java.nio.file.Path;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Logger;
 
+//
+//Logs in the caller thread. Each txn stages its records by itself and the committing thread appends 
+//them to the log segment and commits it under a short append lock, so concurrent writers only 
+//serialize on flushes and commits and not on every statement.
+//
 public final class SyncTxnLogger extends TxnLogger {
 
+	//Set up in initLogger as restart recovery runs from the base class constructor
     private ScheduledExecutorService segmentCreatorService;
-	private AtomicBoolean txnInProgress = new AtomicBoolean();
+	private StagedTxnLogs stagedLogs;
+	//Serializes log segment appends and checkups, a ReentrantLock does not pin virtual threads
+	private ReentrantLock appendLock;
+	//Txns having records in the log segment but no COMMIT/ROLLBACK yet, guarded by appendLock
+	private Set<Long> openTxns;
+	//Set while a due switch waits for the open txns to end, new txns hold off meanwhile, guarded by appendLock
+	private boolean switchPending;
+	private Condition openTxnsEnded;
 
 	public SyncTxnLogger(Path dbPath, SyncLiteOptions options, Logger tracer) throws SQLException {
 		super(dbPath, options, tracer);
-        segmentCreatorService.scheduleAtFixedRate(this::checkups, 0, options.getLogSegmentSwitchDurationThresholdMs(), TimeUnit.MILLISECONDS);
+        segmentCreatorService.scheduleAtFixedRate(this::scheduledCheckups, 0, options.getLogSegmentSwitchDurationThresholdMs(), TimeUnit.MILLISECONDS);
 	}
 
 	static final SyncTxnLogger getInstance(Path dbPath, SyncLiteOptions options, Logger tracer) throws SQLException {
 		if (dbPath == null) {
 			return null;
 		}
-		return (SyncTxnLogger) loggers.computeIfAbsent(dbPath, s -> {
-			try {
-				return new SyncTxnLogger(s, options, tracer);
-			} catch (SQLException e) {
-				tracer.error("Failed to create/get SQL Logger instance for device : " + dbPath, e); 
-				throw new RuntimeException(e);
-			}
-		});
+		return (SyncTxnLogger) getOrCreateInstance(dbPath, tracer, s -> new SyncTxnLogger(s, options, tracer));
 	}
 
 
 	@Override
     protected final void checkups() {  	
 		try  {
-			synchronized (txnInProgress) {
-				if (!txnInProgress.get()) {
+			appendLock.lock();
+			try {
+				//Switch log segment only at a commit boundary of all txns
+				if (openTxns.isEmpty()) {
 					super.checkups();
+				} else if (isLogSegmentSwitchDue()) {
+					//Under steady commits some txn is always open, let the open ones drain first
+					switchPending = true;
 				}
+			} finally {
+				appendLock.unlock();
 			}
 		} catch (SQLException e) {
 			tracer.error("SyncLite Logger failed to perform log segment checkups : ", e);
@@ -69,75 +83,171 @@ public final class SyncTxnLogger extends TxnLogger {
 
 	@Override
 	protected void undoLogsForCommit(long commitId) throws SQLException {
-        try (Statement stmt = logTableConn.createStatement()) {
-            stmt.executeUpdate("DELETE FROM commandlog WHERE commit_id = " + commitId);
-            try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM commandlog;")) {
-                if (rs.next()) {
-                    this.logSegmentLogCount = rs.getLong(1);
-                }
-            }            
-        }
+		truncateLogsForCommit(commitId);
 	}
 
 	@Override
 	void log(long commitId, String sql, Object[] args) throws SQLException {
 		CommandLogRecord rec = new CommandLogRecord(commitId, sql, args);
-        if (currentTxnLogCount == 0) {
+        if (!stagedLogs.isStaged(commitId)) {
         	//This is the first log record of the txn
-			synchronized(txnInProgress) {
-				txnInProgress.set(true);
-			}
-        	logBeginTran(rec);
+        	stagedLogs.stage(new CommandLogRecord(commitId, "BEGIN", null));
         }
-		appendLogRecord(rec);
+		if (stagedLogs.stage(rec) > options.getLogSegmentFlushBatchSize()) {
+			//Bound the memory held by a large txn, its records so far go to the log segment ahead of its flush
+			appendLock.lock();
+			try {
+				appendStaged(commitId, stagedLogs.drain(commitId));
+			} finally {
+				appendLock.unlock();
+			}
+		}
+	}
+
+	//Callers hold appendLock
+	private final void appendStaged(long commitId, List<CommandLogRecord> records) throws SQLException {
+		if ((records != null) && !records.isEmpty()) {
+			if (!openTxns.contains(commitId)) {
+				awaitPendingSwitch();
+				openTxns.add(commitId);
+			}
+			for (CommandLogRecord record : records) {
+				appendLogRecord(record);
+			}
+		}
 	}
 
 	@Override
 	void flush(long commitId) throws SQLException {
+		appendLock.lock();
+		try {
+			appendStaged(commitId, stagedLogs.drain(commitId));
+			commitStaged(commitId);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	//Callers hold appendLock
+	private final void commitStaged(long commitId) throws SQLException {
         executeLogBatch();
+        traceCommitStage(commitId, CommitStage.LOG_BATCH_EXECUTED);
         commitLogSegment();
-		synchronized (txnInProgress) {
-			txnInProgress.set(false);
-		}
+        traceCommitStage(commitId, CommitStage.LOG_SEGMENT_COMMITTED);
 	}
 
 	@Override
-	protected void terminateInternal() {
+	protected void terminateInternal(long deadlineNanos) {
 		try {
 			checkups();
 			closeCurrentLogSegment();
-			stopSegmentCreatorService();
+			stopSegmentCreatorService(deadlineNanos);
+			//Txns still open never reach the log segment, the device rolls them back
+			stagedLogs.clear();
+			appendLock.lock();
+			try {
+				openTxns.clear();
+			} finally {
+				appendLock.unlock();
+			}
 		} catch (SQLException e) {			
 			tracer.error("SyncLite log segment log segment could not be closed properly for device " + dbPath + ", failed with exception : " +  e);
 		}
 	}
 
-	private final void stopSegmentCreatorService() {
-    	if ((segmentCreatorService != null) && (!segmentCreatorService.isTerminated())) {
-    		segmentCreatorService.shutdown();
-    		try {
-    			segmentCreatorService.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-    		} catch (InterruptedException e) {
-    			//Ignore
-    		}
-    	}
+	private final void stopSegmentCreatorService(long deadlineNanos) {
+		if ((segmentCreatorService != null) && (!segmentCreatorService.isTerminated())) {
+			segmentCreatorService.shutdown();
+			SyncLiteUtils.awaitTermination(segmentCreatorService, deadlineNanos);
+		}
 	}
 
 	@Override
 	protected void logCommitAndFlush(long commitId) throws SQLException {
-		appendLogRecord(new CommandLogRecord(commitId, "COMMIT", null));
-		flush(commitId);
-        //Reset current txn log count to 0 to enable log switching on commit boundary
-        this.currentTxnLogCount = 0;
-        this.currentBatchLogCount = 0;
+		long commitStartTime = System.nanoTime();
+		List<CommandLogRecord> records = stagedLogs.take(commitId);
+		appendLock.lock();
+		try {
+			appendStaged(commitId, records);
+			appendLogRecord(new CommandLogRecord(commitId, "COMMIT", null));
+			commitStaged(commitId);
+			endTxn(commitId);
+		} finally {
+			appendLock.unlock();
+		}
+		recordCommitLatency(commitStartTime);
 		checkups();
 	}
 
 	@Override
 	protected void logRollbackAndFlush(long commitId) throws SQLException {
-		undoLogsForCommit(commitId);
-		synchronized (txnInProgress) {
-			txnInProgress.set(false);
+		//Staged records are just dropped, only the ones already in the log segment need an undo
+		stagedLogs.take(commitId);
+		appendLock.lock();
+		try {
+			if (mayHaveLogsInSegment(commitId)) {
+				executeLogBatch();
+				undoLogsForCommit(commitId);
+				commitLogSegment();
+			}
+			endTxn(commitId);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	//Callers hold appendLock
+	private final void awaitPendingSwitch() {
+		if (!switchPending) {
+			return;
+		}
+		long remainingNanos = TimeUnit.MILLISECONDS.toNanos(options.getLogSegmentSwitchDurationThresholdMs());
+		try {
+			while (switchPending && (remainingNanos > 0)) {
+				remainingNanos = openTxnsEnded.awaitNanos(remainingNanos);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (switchPending) {
+			//A long running txn keeps the segment open, let new txns in and retry on the next checkups
+			switchPending = false;
+			openTxnsEnded.signalAll();
+		}
+	}
+
+	//Callers hold appendLock
+	private final void endTxn(long commitId) {
+		openTxns.remove(commitId);
+		if (openTxns.isEmpty()) {
+			//Reset current txn log count to 0 to enable log switching on commit boundary
+			this.currentTxnLogCount = 0;
+			this.currentBatchLogCount = 0;
+			if (switchPending) {
+				switchPending = false;
+				try {
+					super.checkups();
+				} catch (SQLException e) {
+					//The txn ending here is already flushed, a failed switch is retried by the next checkups
+					tracer.error("SyncLite Logger failed to switch log segment of device " + dbPath + " : " + e.getMessage(), e);
+				} finally {
+					openTxnsEnded.signalAll();
+				}
+			}
+		}
+	}
+
+	@Override
+	void discardTxn(long commitId) throws SQLException {
+		boolean isOpen;
+		appendLock.lock();
+		try {
+			isOpen = openTxns.contains(commitId);
+		} finally {
+			appendLock.unlock();
+		}
+		if (isOpen || stagedLogs.isStaged(commitId)) {
+			logRollbackAndFlush(commitId);
 		}
 	}
 
@@ -147,6 +257,10 @@ public final class SyncTxnLogger extends TxnLogger {
 
 	@Override
 	protected void initLogger() {
+		stagedLogs = new StagedTxnLogs();
+		appendLock = new ReentrantLock();
+		openTxnsEnded = appendLock.newCondition();
+		openTxns = new HashSet<Long>();
         segmentCreatorService = Executors.newScheduledThreadPool(1);
 	}
 
@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import org.sqlite.SQLiteException;
 import org.sqlite.jdbc4.JDBC4Connection;
@@ -188,23 +189,76 @@ public class TelemetryConnection extends JDBC4Connection {
 
     @Override 
     public void commit() throws SQLException {
-        recordCommit();
-        //
-        //2 PC
-        //Flush the log in log database
-        //Commit on the master database
-        //
-    	this.sqlLogger.commit(commitId);
-        super.commit();
+        CommitTrace trace = this.sqlLogger.beginCommitTrace(commitId);
+        try {
+            recordCommit();
+            if (trace != null) {
+                trace.mark(CommitStage.RECORD_COMMIT);
+            }
+            //
+            //2 PC
+            //Flush the log in log database
+            //Commit on the master database
+            //
+            this.sqlLogger.commit(commitId);
+            if (trace != null) {
+                trace.mark(CommitStage.LOG_FLUSHED);
+            }
+            super.commit();
+            if (trace != null) {
+                trace.mark(CommitStage.DB_COMMITTED);
+            }
+        } finally {
+            this.sqlLogger.endCommitTrace(trace);
+        }
         this.commitId = this.sqlLogger.getNextCommitID();
     }
 
+    //
+    //Bulk appends all rows of a columnar batch for the given INSERT INTO sql with a single handoff 
+    //to the logger, instead of one per row as with PreparedStatement.addBatch. The batch arrays 
+    //must not be modified once passed in.
+    //
+    public void appendRows(String sql, ColumnBatch batch) throws SQLException {
+        String strippedSql = SyncLiteUtils.validateAppendRowsSql(sql, batch);
+        if (batch.getRowCount() == 0) {
+            return;
+        }
+        logRows(strippedSql, batch);
+        if (getUserAutoCommit()) {
+            commit();
+        }
+    }
+
+    protected void logRows(String sql, ColumnBatch batch) throws SQLException {
+        this.sqlLogger.logRows(commitId, sql, batch);
+    }
+
+    //
+    //Telemetry devices log through the sync event logger, which flushes in the caller thread. 
+    //Blocks like commit() and returns a completed future so that callers can use the same API 
+    //across device types.
+    //
+    public CompletableFuture<Void> commitAsync() throws SQLException {
+        commit();
+        return CompletableFuture.completedFuture(null);
+    }
+
     @Override
 	public void rollback() throws SQLException {
     	sqlLogger.rollback(commitId);
     	super.rollback();
     }
 
+    @Override
+    public void close() throws SQLException {
+    	if (this.sqlLogger != null) {
+    		//Drop the records staged for a txn left open, the database rolls it back
+    		this.sqlLogger.discardTxn(commitId);
+    	}
+    	super.close();
+    }
+
     protected void recordCommit() throws SQLException {
         commitLoggerPstmt.setLong(1, commitId);
         commitLoggerPstmt.setLong(2, this.sqlLogger.getOperationID());
@@ -17,7 +17,6 @@
 package io.synclite.logger;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.List;
 
 import org.sqlite.SQLiteConnection;
 import org.sqlite.jdbc4.JDBC4PreparedStatement;
@@ -27,23 +26,16 @@ public class TelemetryPreparedStatement extends JDBC4PreparedStatement {
 	private boolean isDDL = false;
 	public TelemetryPreparedStatement(SQLiteConnection conn, String sql) throws SQLException {
 		super(conn, sql);
-		List<String> subSqls = SyncLiteUtils.splitSqls(sql);
-		if (subSqls.size() > 1) {
+		ClassifiedSQL classifiedSql = SQLClassifier.classify(sql);
+		if (classifiedSql.getSubSqls().size() > 1) {
 			throw new SQLException("Unsupported SQL: SyncLite Telemetry supports a single SQL statement as part of a PreparedStatement, multiple specified  : " + sql);			
 		}
-		String stippedSql = subSqls.get(0).strip();
-		String[] tokens = stippedSql.split("\\s+");		
-		if (tokens[0].equalsIgnoreCase("INSERT") && tokens[1].equalsIgnoreCase("INTO")) {
-			SyncLiteUtils.validateInsertForTelemetryAndAppender(stippedSql);
-		} else if (tokens[0].equalsIgnoreCase("UPDATE")) {
-			SyncLiteUtils.validateUpdateForTelemetryAndAppender(stippedSql);			
-		} else if (tokens[0].equalsIgnoreCase("DELETE") && tokens[1].equalsIgnoreCase("FROM")) {
-			SyncLiteUtils.validateDeleteForTelemetryAndAppender(stippedSql);			
-		} else if ((tokens[0].equalsIgnoreCase("CREATE") || tokens[0].equalsIgnoreCase("DROP") || tokens[0].equalsIgnoreCase("ALTER")) &&
-				(tokens[1].equalsIgnoreCase("TABLE"))
-				) {
+		SQLKind kind = classifiedSql.getKind();
+		if ((kind == SQLKind.INSERT) || (kind == SQLKind.UPDATE) || (kind == SQLKind.DELETE)) {
+			classifiedSql.validateForTelemetryAndAppender();
+		} else if (kind.isTableDDL()) {
 			this.isDDL = true;
-		} else if (tokens[0].equalsIgnoreCase("SELECT")) {
+		} else if (kind == SQLKind.SELECT) {
 			//Allowed SQL
 		} else {
 			throw new SQLException("Unsupported SQL: " + sql);
@@ -70,27 +70,27 @@ public class TelemetryStatement extends JDBC4Statement {
 	@Override
 	public final boolean execute(String sql) throws SQLException {
 		boolean result = false;
-		List<String> sqls = SyncLiteUtils.splitSqls(sql);
+		List<ClassifiedSQL> sqls = SQLClassifier.classify(sql).getSubStatements();
 		for (int i=0; i<sqls.size(); ++i) {
 			result = executeSingleSQL(sqls.get(i));
 		}
 		return result;
 	}
 
-	private final boolean executeSingleSQL(String sql) throws SQLException {
+	private final boolean executeSingleSQL(ClassifiedSQL classifiedSql) throws SQLException {
+		String sql = classifiedSql.getSql();
 		boolean result = false;
-		String tokens[] = sql.trim().split("\\s+");
-		if (tokens[0].equalsIgnoreCase("INSERT") && tokens[1].equalsIgnoreCase("INTO")) {
+		SQLKind kind = classifiedSql.getKind();
+		if (kind == SQLKind.INSERT) {
 			result = executeInsert(sql);
-		} else if (tokens[0].equalsIgnoreCase("DELETE") && tokens[1].equalsIgnoreCase("FROM")) {
+		} else if (kind == SQLKind.DELETE) {
 			result = executeDelete(sql);
-		} else if (tokens[0].equalsIgnoreCase("COPY")) {
+		} else if (kind == SQLKind.COPY) {
 			result = executeCopySql(sql);
-		} else if ((tokens[0].equalsIgnoreCase("CREATE") || tokens[0].equalsIgnoreCase("DROP")) &&
-				(tokens[1].equalsIgnoreCase("TABLE"))
-		) {
+		} else if ((kind == SQLKind.CREATE_TABLE) || (kind == SQLKind.DROP_TABLE)) {
 				result = executeDDL(sql);
-		} else if (tokens[0].equalsIgnoreCase("ALTER") && tokens[1].equalsIgnoreCase("TABLE")) {
+		} else if (kind == SQLKind.ALTER_TABLE) {
+			String tokens[] = classifiedSql.getTokens();
 			if (tokens.length < 6) {
 				throw new SQLException("Invalid SQL : " + sql);
 			} else { 
@@ -100,11 +100,11 @@ public class TelemetryStatement extends JDBC4Statement {
 					result = executeDDL(sql);
 				}
 			}	
-		} else if (tokens[0].equalsIgnoreCase("REFRESH") && tokens[1].equalsIgnoreCase("TABLE")) {	
-			result = executeRefreshTable(sql, tokens);
-		} else if (tokens[0].equalsIgnoreCase("PUBLISH") && tokens[1].equalsIgnoreCase("COLUMN") && tokens[2].equalsIgnoreCase("LIST")) {	
-			result = executePublishColumnList(sql, tokens);
-		} else if (tokens[0].equalsIgnoreCase("UPDATE")) {
+		} else if (kind == SQLKind.REFRESH_TABLE) {	
+			result = executeRefreshTable(sql, classifiedSql.getTokens());
+		} else if (kind == SQLKind.PUBLISH_COLUMN_LIST) {	
+			result = executePublishColumnList(sql, classifiedSql.getTokens());
+		} else if (kind == SQLKind.UPDATE) {
 			throw new SQLException("Unsupported SQL : SyncLite telemetry device does not support SQL : " + sql + ". Supported SQLs are CREATE TABLE, DROP TABLE, ALTER TABLE, INSERT INTO, COPY, SELECT");
 		} else {
 			try {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//
+//Index of published txn files of a device keyed by the log segment they belong to.
+//Shippers, cleaner and fan out look up the txn files of a log segment here instead of 
+//scanning the device directory once per log segment.
+//The txn files themselves are the durable record, the index is rebuilt from them once at startup.
+//
+class TxnFileCatalog {
+
+	private final ConcurrentHashMap<Long, Set<Path>> txnFiles = new ConcurrentHashMap<Long, Set<Path>>();
+
+	final void add(long logSeqNum, Path txnFilePath) {
+		txnFiles.computeIfAbsent(logSeqNum, k -> ConcurrentHashMap.newKeySet()).add(txnFilePath);
+	}
+
+	final void remove(long logSeqNum, Path txnFilePath) {
+		Set<Path> files = txnFiles.get(logSeqNum);
+		if (files != null) {
+			files.remove(txnFilePath);
+		}
+	}
+
+	final List<Path> get(long logSeqNum) {
+		Set<Path> files = txnFiles.get(logSeqNum);
+		if ((files == null) || files.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Path> snapshot = new ArrayList<Path>(files);
+		Collections.sort(snapshot);
+		return snapshot;
+	}
+
+	final void removeSegment(long logSeqNum) {
+		txnFiles.remove(logSeqNum);
+	}
+
+	//Single scan of the device directory to pick up txn files published before the restart
+	final void load(Path syncLiteDirPath, LogSegmentPlacer logSegmentPlacer) throws SQLException {
+		txnFiles.clear();
+		if (!Files.exists(syncLiteDirPath)) {
+			return;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(syncLiteDirPath)) {
+			for (Path entry : stream) {
+				String fileName = entry.getFileName().toString();
+				int dotIdx = fileName.indexOf('.');
+				if (dotIdx <= 0) {
+					continue;
+				}
+				long logSeqNum;
+				try {
+					logSeqNum = Long.parseLong(fileName.substring(0, dotIdx));
+				} catch (NumberFormatException e) {
+					continue;
+				}
+				if (logSegmentPlacer.isTxnFileForLogSegment(logSeqNum, entry)) {
+					add(logSeqNum, entry);
+				}
+			}
+		} catch (IOException e) {
+			throw new SQLException("SyncLite : Failed to load txn files from device directory : " + syncLiteDirPath, e);
+		}
+	}
+}
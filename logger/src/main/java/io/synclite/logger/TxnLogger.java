@@ -18,6 +18,7 @@ package io.synclite.logger;
 
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.log4j.Logger;
 
@@ -47,6 +48,7 @@ abstract class TxnLogger extends SQLLogger {
 				} else if (restartTxnFate.equalsIgnoreCase("UNKNOWN")) {
 					if (this.allowsConcurrentWrites) {
 						TxnSQLStager.removeTxnFile(this.dbPath, this.logSegmentSequenceNumber.get(), restartSlaveCommitID);
+						this.logSegmentPlacer.getTxnFileCatalog().remove(this.logSegmentSequenceNumber.get(), SQLite.getTxnFilePath(this.dbPath, this.logSegmentSequenceNumber.get(), restartSlaveCommitID));
 					}
 					logRollbackAndFlush(restartSlaveCommitID);
 				}
@@ -64,8 +66,20 @@ abstract class TxnLogger extends SQLLogger {
 
 	protected abstract void logCommitAndFlush(long commitId) throws SQLException;
 
+	//Returns a future completed once the COMMIT record of given txn is flushed.
+	//Sync loggers flush in the caller thread and hence return an already completed future.
+	protected CompletableFuture<Void> logCommitAndFlushAsync(long commitId) throws SQLException {
+		logCommitAndFlush(commitId);
+		return CompletableFuture.completedFuture(null);
+	}
+
 	protected abstract void logRollbackAndFlush(long commitId) throws SQLException;
 
+	@Override
+	protected boolean supportsNetChangeCompaction() {
+		return (options.getDeviceType() == DeviceType.SQLITE);
+	}
+
 	protected final void logBeginTran(CommandLogRecord record) throws SQLException {
 		appendLogRecord(new CommandLogRecord(record.commitId, "BEGIN", null));
 	}
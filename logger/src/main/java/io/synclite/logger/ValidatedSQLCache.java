@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//
+//SQLs of a multi-writer device already validated against its SQLite schema shadow. Each entry 
+//remembers the schema version it was validated on and a DDL on the shadow bumps the version, 
+//so an entry added by a validation racing with a DDL is never trusted afterwards.
+//
+final class ValidatedSQLCache {
+
+	private static final int MAX_CACHED_SQLS = 4096;
+	private static final int MAX_CACHED_SQL_LENGTH = 4096;
+
+	//Prepares a sql on the schema shadow through the validating connection
+	@FunctionalInterface
+	interface SchemaValidator {
+		PreparedStatement prepare(String sql) throws SQLException;
+	}
+
+	private final AtomicLong schemaVersion = new AtomicLong(0);
+	private final ConcurrentHashMap<String, Long> validatedSqls = new ConcurrentHashMap<String, Long>();
+
+	//
+	//Validates sql by preparing it on the schema shadow, skipping the parse if the same sql was 
+	//validated since the last DDL on this device.
+	//
+	final void validate(String sql, SchemaValidator validator) throws SQLException {
+		long version = schemaVersion.get();
+		if (isValidated(sql, version)) {
+			return;
+		}
+		try (PreparedStatement pstmt = validator.prepare(sql)) {
+			//
+		}
+		add(sql, version);
+	}
+
+	private final boolean isValidated(String sql, long version) {
+		Long validatedVersion = validatedSqls.get(sql);
+		return (validatedVersion != null) && (validatedVersion == version);
+	}
+
+	private final void add(String sql, long version) {
+		if (sql.length() > MAX_CACHED_SQL_LENGTH) {
+			return;
+		}
+		if (validatedSqls.size() >= MAX_CACHED_SQLS) {
+			//Start over rather than track recency, repeated SQLs get back in on next execution
+			validatedSqls.clear();
+		}
+		validatedSqls.put(sql, version);
+	}
+
+	//Called after a DDL changed the schema shadow
+	final void invalidate() {
+		schemaVersion.incrementAndGet();
+		validatedSqls.clear();
+	}
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColumnarSegmentEncoderTest {
+
+	private static final int INLINED_ARG_CNT = 3;
+	private static final String INSERT_T = "INSERT INTO t(a, b, c) VALUES(?, ?, ?)";
+	private static final String INSERT_U = "INSERT INTO u(a, b, c) VALUES(?, ?, ?)";
+
+	@TempDir
+	Path tempDir;
+
+	private Connection conn;
+	private PreparedStatement logPstmt;
+	private long nextChangeNumber;
+	private String prevSql;
+	//Logged rows by change number, commit id followed by the args
+	private final Map<Long, Object[]> loggedRows = new HashMap<Long, Object[]>();
+
+	@BeforeEach
+	void createSegment() throws SQLException {
+		conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("0.sqllog"));
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute(SQLStager.createLogTableSqlTemplate.replace("$1", SyncLiteUtils.prepareArgList(INLINED_ARG_CNT)));
+			stmt.execute(SQLLogger.createMetadataTableSql);
+		}
+		logPstmt = conn.prepareStatement("INSERT INTO commandlog(change_number, commit_id, sql, arg_cnt, arg1, arg2, arg3) VALUES(?, ?, ?, ?, ?, ?, ?)");
+		nextChangeNumber = 0;
+	}
+
+	@AfterEach
+	void closeSegment() throws SQLException {
+		logPstmt.close();
+		conn.close();
+	}
+
+	//Logs the sql only if it differs from the preceding row, as the loggers do for batches
+	private long log(long commitId, String sql, Object... args) throws SQLException {
+		long changeNumber = nextChangeNumber++;
+		logPstmt.setLong(1, changeNumber);
+		logPstmt.setLong(2, commitId);
+		logPstmt.setString(3, sql.equals(prevSql) ? null : sql);
+		logPstmt.setInt(4, args.length);
+		for (int i = 0; i < INLINED_ARG_CNT; ++i) {
+			logPstmt.setObject(5 + i, (i < args.length) ? args[i] : null);
+		}
+		logPstmt.executeUpdate();
+		prevSql = sql;
+		Object[] row = new Object[args.length + 1];
+		row[0] = commitId;
+		System.arraycopy(args, 0, row, 1, args.length);
+		loggedRows.put(changeNumber, row);
+		return changeNumber;
+	}
+
+	private long encode() throws SQLException {
+		return ColumnarSegmentEncoder.encode(conn, INLINED_ARG_CNT);
+	}
+
+	private long count(String sql) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery(sql)) {
+				rs.next();
+				return rs.getLong(1);
+			}
+		}
+	}
+
+	@Test
+	void encodesRunIntoColumnBlockAndDecodesBack() throws SQLException {
+		for (int i = 0; i < 100; ++i) {
+			Double c = (i % 10 == 0) ? null : Double.valueOf(i * 0.5);
+			log((i < 50) ? 1 : 2, INSERT_T, (long) (i * i - 50), (i % 3 == 0) ? "red" : "blue", c);
+		}
+		//Last txn, which restart recovery may have to undo
+		for (int i = 0; i < 10; ++i) {
+			log(3, INSERT_T, (long) i, "green", 1.0);
+		}
+
+		assertEquals(100, encode());
+		assertEquals(10, count("SELECT count(*) FROM commandlog"));
+		assertEquals(100, count("SELECT min(change_number) FROM commandlog"));
+		assertEquals(1, count("SELECT count(*) FROM commandlog_block"));
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT value FROM metadata WHERE key = 'encoding'")) {
+				assertTrue(rs.next());
+				assertEquals(LogSegmentEncoding.COLUMNAR.toString(), rs.getString(1));
+			}
+		}
+
+		Map<Integer, String> encodings = columnEncodings(0);
+		assertEquals("RLE", encodings.get(0));
+		assertEquals("DELTA_BITPACK", encodings.get(1));
+		assertEquals("DICTIONARY", encodings.get(2));
+		assertEquals("PLAIN", encodings.get(3));
+
+		assertDecodesToLoggedRows(0);
+	}
+
+	@Test
+	void splitsRunsOnStatementChange() throws SQLException {
+		for (int i = 0; i < 70; ++i) {
+			log(1, INSERT_T, (long) i, "s" + i, i * 1.5);
+		}
+		for (int i = 0; i < 70; ++i) {
+			log(2, INSERT_U, 7L, null, null);
+		}
+		log(3, INSERT_T, 0L, "x", 0.0);
+
+		assertEquals(140, encode());
+		assertEquals(1, count("SELECT count(*) FROM commandlog"));
+		assertEquals(2, count("SELECT count(*) FROM commandlog_block"));
+
+		Map<Integer, String> encodings = columnEncodings(70);
+		assertEquals("RLE", encodings.get(1));
+		assertEquals("NULL", encodings.get(2));
+		assertEquals("NULL", encodings.get(3));
+		assertEquals("PLAIN", columnEncodings(0).get(2));
+
+		assertDecodesToLoggedRows(0);
+		assertDecodesToLoggedRows(70);
+	}
+
+	@Test
+	void leavesShortRunsAsRows() throws SQLException {
+		for (int i = 0; i < 30; ++i) {
+			log(1, INSERT_T, (long) i, "a", 1.0);
+		}
+		log(2, INSERT_T, 0L, "a", 1.0);
+
+		assertEquals(0, encode());
+		assertEquals(31, count("SELECT count(*) FROM commandlog"));
+		assertEquals(0, count("SELECT count(*) FROM metadata WHERE key = 'encoding'"));
+	}
+
+	@Test
+	void leavesBlobAndMixedTypeRunsAsRows() throws SQLException {
+		for (int i = 0; i < 70; ++i) {
+			log(1, INSERT_T, (long) i, new byte[] { (byte) i }, 1.0);
+		}
+		for (int i = 0; i < 70; ++i) {
+			log(2, INSERT_U, (i % 2 == 0) ? (Object) Long.valueOf(i) : (Object) ("v" + i), "a", 1.0);
+		}
+		log(3, INSERT_T, 0L, "a", 1.0);
+
+		assertEquals(0, encode());
+		assertEquals(141, count("SELECT count(*) FROM commandlog"));
+	}
+
+	@Test
+	void leavesNonInsertStatementsAsRows() throws SQLException {
+		for (int i = 0; i < 70; ++i) {
+			log(1, "UPDATE t SET a = ?, b = ? WHERE c = ?", (long) i, "a", 1.0);
+		}
+		log(2, INSERT_T, 0L, "a", 1.0);
+
+		assertEquals(0, encode());
+		assertEquals(71, count("SELECT count(*) FROM commandlog"));
+	}
+
+	private Map<Integer, String> columnEncodings(long blockId) throws SQLException {
+		Map<Integer, String> encodings = new HashMap<Integer, String>();
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT column_index, encoding FROM commandlog_block_column WHERE block_id = " + blockId)) {
+				while (rs.next()) {
+					encodings.put(rs.getInt(1), rs.getString(2));
+				}
+			}
+		}
+		return encodings;
+	}
+
+	private void assertDecodesToLoggedRows(long blockId) throws SQLException {
+		int rowCount;
+		int argCnt;
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT row_count, arg_cnt FROM commandlog_block WHERE block_id = " + blockId)) {
+				assertTrue(rs.next());
+				rowCount = rs.getInt(1);
+				argCnt = rs.getInt(2);
+			}
+		}
+		Object[][] columns = new Object[argCnt + 1][];
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT column_index, encoding, null_count, min_value, data FROM commandlog_block_column WHERE block_id = " + blockId)) {
+				while (rs.next()) {
+					ColumnDecoder decoder = new ColumnDecoder(rs.getBytes(5));
+					columns[rs.getInt(1)] = decoder.decode(rs.getString(2), rowCount, rs.getInt(3), rs.getObject(4));
+				}
+			}
+		}
+		for (int row = 0; row < rowCount; ++row) {
+			Object[] loggedRow = loggedRows.get(blockId + row);
+			for (int col = 0; col <= argCnt; ++col) {
+				assertValueEquals(loggedRow[col], columns[col][row]);
+			}
+		}
+	}
+
+	private static void assertValueEquals(Object expected, Object actual) {
+		if (expected == null) {
+			assertNull(actual);
+		} else if (expected instanceof byte[]) {
+			assertArrayEquals((byte[]) expected, (byte[]) actual);
+		} else if ((expected instanceof Integer) || (expected instanceof Long)) {
+			assertEquals(((Number) expected).longValue(), ((Number) actual).longValue());
+		} else {
+			assertEquals(expected, actual);
+		}
+	}
+
+	//Reads the column data layout documented on ColumnarSegmentEncoder
+	private static final class ColumnDecoder {
+		private final byte[] data;
+		private int pos;
+
+		private ColumnDecoder(byte[] data) {
+			this.data = (data != null) ? data : new byte[0];
+		}
+
+		private Object[] decode(String encoding, int rowCount, int nullCount, Object minValue) {
+			boolean[] isNull = new boolean[rowCount];
+			if (nullCount > 0) {
+				for (int i = 0; i < rowCount; ++i) {
+					isNull[i] = ((data[i / 8] >> (i % 8)) & 1) == 1;
+				}
+				pos = (rowCount + 7) / 8;
+			}
+			int valueCount = rowCount - nullCount;
+			List<Object> values = new ArrayList<Object>(valueCount);
+			switch (encoding) {
+			case "NULL":
+				break;
+			case "RLE":
+				while (values.size() < valueCount) {
+					long value = unZigZag(readVarLong());
+					long runLength = readVarLong();
+					for (long i = 0; i < runLength; ++i) {
+						values.add(value);
+					}
+				}
+				break;
+			case "DELTA_BITPACK": {
+				long value = unZigZag(readVarLong());
+				long minDelta = unZigZag(readVarLong());
+				int bitWidth = data[pos++] & 0xFF;
+				values.add(value);
+				for (long packed : readBitPacked(valueCount - 1, bitWidth)) {
+					value += minDelta + packed;
+					values.add(value);
+				}
+				break;
+			}
+			case "DICTIONARY": {
+				int entryCount = (int) readVarLong();
+				List<String> entries = new ArrayList<String>(entryCount);
+				for (int i = 0; i < entryCount; ++i) {
+					entries.add(readString());
+				}
+				int bitWidth = data[pos++] & 0xFF;
+				for (long index : readBitPacked(valueCount, bitWidth)) {
+					values.add(entries.get((int) index));
+				}
+				break;
+			}
+			case "PLAIN":
+				for (int i = 0; i < valueCount; ++i) {
+					values.add((minValue instanceof String) ? (Object) readString() : (Object) readDouble());
+				}
+				break;
+			default:
+				throw new AssertionError("Unknown encoding " + encoding);
+			}
+			assertEquals(data.length, pos);
+
+			Object[] column = new Object[rowCount];
+			int next = 0;
+			for (int i = 0; i < rowCount; ++i) {
+				column[i] = isNull[i] ? null : values.get(next++);
+			}
+			return column;
+		}
+
+		private long readVarLong() {
+			long value = 0;
+			int shift = 0;
+			while (true) {
+				int b = data[pos++] & 0xFF;
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+				shift += 7;
+			}
+		}
+
+		private static long unZigZag(long value) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		private String readString() {
+			int length = (int) readVarLong();
+			String value = new String(data, pos, length, StandardCharsets.UTF_8);
+			pos += length;
+			return value;
+		}
+
+		private double readDouble() {
+			long bits = 0;
+			for (int i = 0; i < 8; ++i) {
+				bits = (bits << 8) | (data[pos++] & 0xFF);
+			}
+			return Double.longBitsToDouble(bits);
+		}
+
+		private long[] readBitPacked(int count, int bitWidth) {
+			long[] values = new long[count];
+			long bitIndex = 0;
+			for (int i = 0; i < count; ++i) {
+				for (int bit = 0; bit < bitWidth; ++bit) {
+					long b = (data[pos + (int) (bitIndex / 8)] >> (bitIndex % 8)) & 1;
+					values[i] |= b << bit;
+					++bitIndex;
+				}
+			}
+			pos += (int) ((bitIndex + 7) / 8);
+			return values;
+		}
+	}
+}
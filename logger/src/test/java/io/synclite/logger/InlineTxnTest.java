@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.synclite.logger.TestDevice.LoggedRow;
+
+class InlineTxnTest {
+
+	private static final int INLINE_LOG_COUNT = 8;
+
+	@TempDir
+	Path tempDir;
+
+	private TestDevice device;
+
+	@BeforeEach
+	void startDevice() throws SQLException, IOException {
+		device = new TestDevice(DeviceType.H2, tempDir, options -> options.setInlineTxnLogCountThreshold(INLINE_LOG_COUNT));
+		device.start();
+		device.execute("CREATE TABLE t1(a INTEGER, b VARCHAR(64))");
+	}
+
+	@AfterEach
+	void closeDevice() throws SQLException {
+		device.close();
+	}
+
+	private void insertAndCommit(int first, int count) throws SQLException {
+		try (Connection conn = device.connect()) {
+			conn.setAutoCommit(false);
+			try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO t1(a, b) VALUES(?, ?)")) {
+				for (int a = first; a < first + count; ++a) {
+					pstmt.setInt(1, a);
+					pstmt.setString(2, "value-" + a);
+					pstmt.execute();
+				}
+			}
+			conn.commit();
+		}
+	}
+
+	@Test
+	void logsSmallTxnInLogSegment() throws SQLException {
+		insertAndCommit(1, 3);
+
+		long seqNum = device.currentLogSegmentSequenceNumber();
+		List<LoggedRow> rows = device.loggedRows(seqNum);
+		long commitId = TestDevice.lastCommitId(rows);
+		List<LoggedRow> commitRows = TestDevice.rowsOfCommit(rows, commitId);
+
+		assertEquals("BEGIN", commitRows.get(0).sql);
+		assertEquals("COMMIT", commitRows.get(commitRows.size() - 1).sql);
+		assertFalse(TestDevice.sqls(commitRows).contains("REPLAY_TXN"));
+		assertEquals(Arrays.asList(1L, 2L, 3L), TestDevice.args(commitRows));
+		assertFalse(Files.exists(device.txnFilePath(seqNum, commitId)));
+		assertEquals(3, device.queryLong("SELECT count(*) FROM t1"));
+	}
+
+	@Test
+	void publishesTxnOutgrowingThresholdAsTxnFile() throws SQLException {
+		insertAndCommit(1, INLINE_LOG_COUNT + 1);
+
+		long seqNum = device.currentLogSegmentSequenceNumber();
+		List<LoggedRow> rows = device.loggedRows(seqNum);
+		long commitId = TestDevice.lastCommitId(rows);
+		List<LoggedRow> commitRows = TestDevice.rowsOfCommit(rows, commitId);
+
+		assertEquals(Arrays.asList("BEGIN", "REPLAY_TXN", "COMMIT"), TestDevice.sqls(commitRows));
+		assertTrue(Files.exists(device.txnFilePath(seqNum, commitId)));
+		assertEquals(INLINE_LOG_COUNT + 1, device.queryLong("SELECT count(*) FROM t1"));
+	}
+
+	@Test
+	void inlinesEachSmallTxnOnItsOwn() throws SQLException {
+		insertAndCommit(1, INLINE_LOG_COUNT);
+		insertAndCommit(101, INLINE_LOG_COUNT);
+
+		List<LoggedRow> rows = device.loggedRows(device.currentLogSegmentSequenceNumber());
+		List<LoggedRow> commitRows = TestDevice.rowsOfCommit(rows, TestDevice.lastCommitId(rows));
+
+		assertEquals(INLINE_LOG_COUNT, TestDevice.args(commitRows).size());
+		assertEquals(101L, TestDevice.args(commitRows).get(0).longValue());
+		assertFalse(TestDevice.sqls(rows).contains("REPLAY_TXN"));
+	}
+
+	@Test
+	void dropsLogsOfRolledBackSmallTxn() throws SQLException {
+		try (Connection conn = device.connect()) {
+			conn.setAutoCommit(false);
+			try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO t1(a, b) VALUES(?, ?)")) {
+				pstmt.setInt(1, 1);
+				pstmt.setString(2, "value-1");
+				pstmt.execute();
+			}
+			conn.rollback();
+		}
+
+		List<LoggedRow> rows = device.loggedRows(device.currentLogSegmentSequenceNumber());
+		assertTrue(TestDevice.args(rows).isEmpty());
+		assertEquals(0, device.queryLong("SELECT count(*) FROM t1"));
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.synclite.logger.TestDevice.LoggedRow;
+
+//
+//Concurrent txns of a multi-writer device, inlined so that their logs land in the log segment
+//
+class InterleavedTxnTest {
+
+	private static final String INSERT = "INSERT INTO t1(a, b) VALUES(?, ?)";
+
+	@TempDir
+	Path tempDir;
+
+	private TestDevice device;
+
+	@BeforeEach
+	void startDevice() throws SQLException, IOException {
+		device = new TestDevice(DeviceType.H2, tempDir, options -> options.setInlineTxnLogCountThreshold(1000));
+		device.start();
+		device.execute("CREATE TABLE t1(a INTEGER, b VARCHAR(64))");
+	}
+
+	@AfterEach
+	void closeDevice() throws SQLException {
+		device.close();
+	}
+
+	private static void insert(PreparedStatement pstmt, int a) throws SQLException {
+		pstmt.setInt(1, a);
+		pstmt.setString(2, "value-" + a);
+		pstmt.execute();
+	}
+
+	//Logs of each txn are contiguous and in commit order
+	private static List<List<Long>> committedArgs(List<LoggedRow> rows) {
+		List<List<Long>> commits = new ArrayList<List<Long>>();
+		for (int i = 0; i < rows.size(); ++i) {
+			if (!"BEGIN".equals(rows.get(i).sql)) {
+				continue;
+			}
+			long commitId = rows.get(i).commitId;
+			List<LoggedRow> txnRows = new ArrayList<LoggedRow>();
+			int j = i + 1;
+			while ((j < rows.size()) && (rows.get(j).commitId == commitId) && !"COMMIT".equals(rows.get(j).sql)) {
+				txnRows.add(rows.get(j));
+				++j;
+			}
+			assertTrue(j < rows.size(), "txn " + commitId + " has no COMMIT");
+			assertEquals("COMMIT", rows.get(j).sql, "txn " + commitId + " interleaves with another txn");
+			List<Long> args = TestDevice.args(txnRows);
+			if (!args.isEmpty()) {
+				commits.add(args);
+			}
+			i = j;
+		}
+		return commits;
+	}
+
+	@Test
+	void logsInterleavedTxnsInCommitOrder() throws SQLException {
+		try (Connection conn1 = device.connect(); Connection conn2 = device.connect()) {
+			conn1.setAutoCommit(false);
+			conn2.setAutoCommit(false);
+			try (PreparedStatement pstmt1 = conn1.prepareStatement(INSERT); PreparedStatement pstmt2 = conn2.prepareStatement(INSERT)) {
+				insert(pstmt1, 1);
+				insert(pstmt2, 101);
+				insert(pstmt1, 2);
+				insert(pstmt2, 102);
+			}
+			conn2.commit();
+			conn1.commit();
+		}
+
+		List<LoggedRow> rows = device.loggedRows(device.currentLogSegmentSequenceNumber());
+		assertEquals(Arrays.asList(Arrays.asList(101L, 102L), Arrays.asList(1L, 2L)), committedArgs(rows));
+		assertEquals(4, device.queryLong("SELECT count(*) FROM t1"));
+	}
+
+	@Test
+	void rollbackOfInterleavedTxnLeavesOtherTxnIntact() throws SQLException {
+		try (Connection conn1 = device.connect(); Connection conn2 = device.connect()) {
+			conn1.setAutoCommit(false);
+			conn2.setAutoCommit(false);
+			try (PreparedStatement pstmt1 = conn1.prepareStatement(INSERT); PreparedStatement pstmt2 = conn2.prepareStatement(INSERT)) {
+				insert(pstmt1, 1);
+				insert(pstmt2, 101);
+				insert(pstmt1, 2);
+			}
+			conn2.rollback();
+			conn1.commit();
+		}
+
+		List<LoggedRow> rows = device.loggedRows(device.currentLogSegmentSequenceNumber());
+		assertEquals(Collections.singletonList(Arrays.asList(1L, 2L)), committedArgs(rows));
+		assertEquals(2, device.queryLong("SELECT count(*) FROM t1"));
+	}
+
+	@Test
+	void logsConcurrentWritersWithoutLosingTxns() throws Exception {
+		int writers = 4;
+		int txnsPerWriter = 25;
+		ExecutorService executor = Executors.newFixedThreadPool(writers);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int w = 0; w < writers; ++w) {
+				int base = w * 1000;
+				futures.add(executor.submit(() -> {
+					start.await();
+					try (Connection conn = device.connect()) {
+						conn.setAutoCommit(false);
+						try (PreparedStatement pstmt = conn.prepareStatement(INSERT)) {
+							for (int t = 0; t < txnsPerWriter; ++t) {
+								insert(pstmt, base + 2 * t);
+								insert(pstmt, base + 2 * t + 1);
+								conn.commit();
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<Void> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<List<Long>> commits = committedArgs(device.loggedRows(device.currentLogSegmentSequenceNumber()));
+		assertEquals(writers * txnsPerWriter, commits.size());
+		for (List<Long> args : commits) {
+			//Both rows of a txn stay together
+			assertEquals(2, args.size());
+			assertEquals(args.get(0) + 1, args.get(1).longValue());
+		}
+		assertEquals(writers * txnsPerWriter * 2, device.queryLong("SELECT count(*) FROM t1"));
+	}
+}
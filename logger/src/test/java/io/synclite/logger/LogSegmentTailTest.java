@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogSegmentTailTest {
+
+	@TempDir
+	Path tempDir;
+
+	private Connection conn;
+
+	@BeforeEach
+	void openSegment() throws SQLException {
+		conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("0.sqllog"));
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute(SQLLogger.createMetadataTableSql);
+		}
+	}
+
+	@AfterEach
+	void closeSegment() throws SQLException {
+		conn.close();
+	}
+
+	@Test
+	void tracksFirstChangeNumberOfEachTxn() {
+		LogSegmentTail tail = new LogSegmentTail();
+		tail.reset();
+		tail.track(5, 0, 2, 100);
+		tail.track(6, 3, 3, 10);
+		tail.track(5, 4, 5, 20);
+
+		assertEquals(0, tail.getTxnStartChangeNumber(5));
+		assertEquals(3, tail.getTxnStartChangeNumber(6));
+		assertEquals(130, tail.getByteCount());
+		assertTrue(tail.mayHaveLogs(5));
+		assertFalse(tail.mayHaveLogs(7));
+
+		tail.undo(6);
+		assertFalse(tail.mayHaveLogs(6));
+	}
+
+	@Test
+	void evictedTxnsMayHaveLogsAnywhere() {
+		LogSegmentTail tail = new LogSegmentTail();
+		tail.reset();
+		for (long commitId = 1; commitId <= 2000; ++commitId) {
+			tail.track(commitId, commitId * 10, commitId * 10, 1);
+		}
+
+		assertTrue(tail.mayHaveLogs(1));
+		assertEquals(0, tail.getTxnStartChangeNumber(1));
+		assertEquals(20000, tail.getTxnStartChangeNumber(2000));
+		assertFalse(tail.mayHaveLogs(2001));
+
+		//An evicted txn logging again is looked up from the segment start
+		tail.track(1, 30000, 30000, 1);
+		assertEquals(0, tail.getTxnStartChangeNumber(1));
+	}
+
+	@Test
+	void reloadTrustsTailDescribingLastRow() throws SQLException {
+		LogSegmentTail tail = new LogSegmentTail();
+		tail.reset();
+		tail.track(5, 0, 2, 100);
+		tail.track(6, 3, 4, 50);
+		tail.persist(conn);
+
+		LogSegmentTail reloaded = new LogSegmentTail();
+		try (Statement stmt = conn.createStatement()) {
+			reloaded.load(stmt, 6, 4);
+		}
+
+		assertEquals(3, reloaded.getTxnStartChangeNumber(6));
+		assertEquals(150, reloaded.getByteCount());
+		//Other txns of a reloaded segment are not tracked
+		assertTrue(reloaded.mayHaveLogs(5));
+		assertEquals(0, reloaded.getTxnStartChangeNumber(5));
+	}
+
+	@Test
+	void reloadIgnoresStaleTail() throws SQLException {
+		LogSegmentTail tail = new LogSegmentTail();
+		tail.reset();
+		tail.track(6, 3, 4, 50);
+		tail.persist(conn);
+
+		//Rows logged after the tail was persisted, as with a rolled back segment transaction
+		LogSegmentTail reloaded = new LogSegmentTail();
+		try (Statement stmt = conn.createStatement()) {
+			reloaded.load(stmt, 7, 9);
+		}
+
+		assertEquals(0, reloaded.getTxnStartChangeNumber(7));
+		assertEquals(-1, reloaded.getByteCount());
+		assertTrue(reloaded.mayHaveLogs(6));
+	}
+
+	@Test
+	void reloadWithoutPersistedTail() throws SQLException {
+		LogSegmentTail reloaded = new LogSegmentTail();
+		try (Statement stmt = conn.createStatement()) {
+			reloaded.load(stmt, 6, 4);
+		}
+
+		assertEquals(0, reloaded.getTxnStartChangeNumber(6));
+		assertEquals(-1, reloaded.getByteCount());
+	}
+
+	@Test
+	void reloadOfEmptySegment() throws SQLException {
+		LogSegmentTail reloaded = new LogSegmentTail();
+		try (Statement stmt = conn.createStatement()) {
+			reloaded.load(stmt, -1, -1);
+		}
+
+		assertEquals(0, reloaded.getByteCount());
+		assertFalse(reloaded.mayHaveLogs(1));
+	}
+
+	@Test
+	void resetForgetsUntrackedTxns() throws SQLException {
+		LogSegmentTail tail = new LogSegmentTail();
+		try (Statement stmt = conn.createStatement()) {
+			tail.load(stmt, 6, 4);
+		}
+		assertTrue(tail.mayHaveLogs(1));
+
+		tail.reset();
+		assertFalse(tail.mayHaveLogs(1));
+		assertFalse(tail.mayHaveLogs(6));
+		assertEquals(0, tail.getByteCount());
+	}
+}
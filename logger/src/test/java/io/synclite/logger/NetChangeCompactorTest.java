@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NetChangeCompactorTest {
+
+	private static final int INLINED_ARG_CNT = 3;
+	private static final String UPDATE_AB = "UPDATE t SET a = ?, b = ? WHERE id = ?";
+	private static final String UPDATE_A = "UPDATE t SET a = ? WHERE id = ?";
+	private static final String INSERT = "INSERT INTO t(id, a, b) VALUES(?, ?, ?)";
+	private static final String DELETE = "DELETE FROM t WHERE id = ?";
+
+	@TempDir
+	Path tempDir;
+
+	private Path dbPath;
+	private Connection conn;
+	private PreparedStatement logPstmt;
+	private long nextChangeNumber;
+
+	@BeforeEach
+	void createDeviceAndSegment() throws SQLException {
+		dbPath = tempDir.resolve("device.db");
+		try (Connection deviceConn = DriverManager.getConnection("jdbc:sqlite:" + dbPath)) {
+			try (Statement stmt = deviceConn.createStatement()) {
+				stmt.execute("CREATE TABLE t(id INTEGER PRIMARY KEY, a INTEGER, b INTEGER)");
+				stmt.execute("CREATE TABLE nokey(id INTEGER, a INTEGER)");
+			}
+		}
+		conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("0.sqllog"));
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute(SQLStager.createLogTableSqlTemplate.replace("$1", SyncLiteUtils.prepareArgList(INLINED_ARG_CNT)));
+		}
+		logPstmt = conn.prepareStatement("INSERT INTO commandlog(change_number, commit_id, sql, arg_cnt, arg1, arg2, arg3) VALUES(?, ?, ?, ?, ?, ?, ?)");
+		nextChangeNumber = 0;
+	}
+
+	@AfterEach
+	void closeSegment() throws SQLException {
+		logPstmt.close();
+		conn.close();
+	}
+
+	private long log(long commitId, String sql, Object... args) throws SQLException {
+		long changeNumber = nextChangeNumber++;
+		logPstmt.setLong(1, changeNumber);
+		logPstmt.setLong(2, commitId);
+		logPstmt.setString(3, sql);
+		logPstmt.setInt(4, args.length);
+		for (int i = 0; i < INLINED_ARG_CNT; ++i) {
+			logPstmt.setObject(5 + i, (i < args.length) ? args[i] : null);
+		}
+		logPstmt.executeUpdate();
+		return changeNumber;
+	}
+
+	private long logTxn(long commitId, String sql, Object... args) throws SQLException {
+		log(commitId, "BEGIN");
+		long changeNumber = log(commitId, sql, args);
+		log(commitId, "COMMIT");
+		return changeNumber;
+	}
+
+	private long compact() throws SQLException {
+		return NetChangeCompactor.compact(conn, dbPath, INLINED_ARG_CNT);
+	}
+
+	private List<Long> remainingChangeNumbers() throws SQLException {
+		List<Long> changeNumbers = new ArrayList<Long>();
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT change_number FROM commandlog ORDER BY change_number")) {
+				while (rs.next()) {
+					changeNumbers.add(rs.getLong(1));
+				}
+			}
+		}
+		return changeNumbers;
+	}
+
+	private String loggedSql(long changeNumber) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT sql FROM commandlog WHERE change_number = " + changeNumber)) {
+				return rs.next() ? rs.getString(1) : null;
+			}
+		}
+	}
+
+	@Test
+	void dropsUpdateOverwrittenByLaterTxn() throws SQLException {
+		long first = logTxn(1, UPDATE_AB, 1, 2, 10);
+		long second = logTxn(2, UPDATE_AB, 3, 4, 10);
+
+		assertEquals(1, compact());
+		List<Long> remaining = remainingChangeNumbers();
+		assertFalse(remaining.contains(first));
+		assertTrue(remaining.contains(second));
+		assertEquals(5, remaining.size());
+	}
+
+	@Test
+	void keepsUpdateOfColumnsNotOverwritten() throws SQLException {
+		logTxn(1, UPDATE_AB, 1, 2, 10);
+		logTxn(2, UPDATE_A, 3, 10);
+		logTxn(3, UPDATE_AB, 5, 6, 11);
+
+		assertEquals(0, compact());
+		assertEquals(9, remainingChangeNumbers().size());
+	}
+
+	@Test
+	void dropsInsertAndDeleteOfSameRow() throws SQLException {
+		long insert = logTxn(1, INSERT, 10, 1, 2);
+		long update = logTxn(2, UPDATE_A, 3, 10);
+		long delete = logTxn(3, DELETE, 10);
+		long otherRow = logTxn(4, DELETE, 11);
+
+		assertEquals(3, compact());
+		List<Long> remaining = remainingChangeNumbers();
+		assertFalse(remaining.contains(insert));
+		assertFalse(remaining.contains(update));
+		assertFalse(remaining.contains(delete));
+		assertTrue(remaining.contains(otherRow));
+	}
+
+	@Test
+	void appliesInterleavedTxnsInCommitOrder() throws SQLException {
+		log(1, "BEGIN");
+		log(2, "BEGIN");
+		long updateOfTxn2 = log(2, UPDATE_AB, 1, 2, 10);
+		long updateOfTxn1 = log(1, UPDATE_AB, 3, 4, 10);
+		log(1, "COMMIT");
+		log(2, "COMMIT");
+
+		//Txn 2 commits last, its update is the one the row ends up with
+		assertEquals(1, compact());
+		List<Long> remaining = remainingChangeNumbers();
+		assertFalse(remaining.contains(updateOfTxn1));
+		assertTrue(remaining.contains(updateOfTxn2));
+	}
+
+	@Test
+	void rolledBackTxnIsBarrier() throws SQLException {
+		logTxn(1, UPDATE_AB, 1, 2, 10);
+		log(2, "BEGIN");
+		log(2, UPDATE_AB, 3, 4, 10);
+		log(2, "ROLLBACK");
+		logTxn(3, UPDATE_AB, 5, 6, 10);
+
+		assertEquals(0, compact());
+		assertEquals(9, remainingChangeNumbers().size());
+	}
+
+	@Test
+	void leavesOpenTxnAsIs() throws SQLException {
+		logTxn(1, UPDATE_AB, 1, 2, 10);
+		log(2, "BEGIN");
+		log(2, UPDATE_AB, 3, 4, 10);
+
+		assertEquals(0, compact());
+		assertEquals(5, remainingChangeNumbers().size());
+	}
+
+	@Test
+	void unkeyedStatementIsBarrier() throws SQLException {
+		logTxn(1, UPDATE_AB, 1, 2, 10);
+		logTxn(2, "UPDATE nokey SET a = ? WHERE id = ?", 1, 10);
+		logTxn(3, UPDATE_AB, 3, 4, 10);
+
+		assertEquals(0, compact());
+		assertEquals(9, remainingChangeNumbers().size());
+	}
+
+	@Test
+	void stopsAtLastDDL() throws SQLException {
+		logTxn(1, UPDATE_AB, 1, 2, 10);
+		logTxn(2, UPDATE_AB, 3, 4, 10);
+		logTxn(3, "ALTER TABLE t ADD COLUMN c INTEGER");
+		long beforeLast = logTxn(4, UPDATE_AB, 5, 6, 10);
+		long last = logTxn(5, UPDATE_AB, 7, 8, 10);
+
+		assertEquals(1, compact());
+		List<Long> remaining = remainingChangeNumbers();
+		assertFalse(remaining.contains(beforeLast));
+		assertTrue(remaining.contains(last));
+		assertEquals(14, remaining.size());
+	}
+
+	@Test
+	void carriesSqlOfRemovedRowToNextRow() throws SQLException {
+		log(1, "BEGIN");
+		long removed = log(1, UPDATE_AB, 1, 2, 10);
+		long kept = log(1, null, 3, 4, 11);
+		log(1, "COMMIT");
+		logTxn(2, UPDATE_AB, 5, 6, 10);
+
+		assertEquals(1, compact());
+		List<Long> remaining = remainingChangeNumbers();
+		assertFalse(remaining.contains(removed));
+		assertEquals(UPDATE_AB, loggedSql(kept));
+	}
+
+	@Test
+	void nullSqlRowsAreCompactedAsTheirStatement() throws SQLException {
+		log(1, "BEGIN");
+		long first = log(1, UPDATE_AB, 1, 2, 10);
+		long second = log(1, null, 3, 4, 11);
+		log(1, "COMMIT");
+		log(2, "BEGIN");
+		log(2, UPDATE_AB, 5, 6, 11);
+		log(2, "COMMIT");
+
+		assertEquals(1, compact());
+		List<Long> remaining = remainingChangeNumbers();
+		assertTrue(remaining.contains(first));
+		assertFalse(remaining.contains(second));
+	}
+
+	@Test
+	void recognizesDDLByLeadingKeyword() {
+		for (String sql : Arrays.asList("CREATE TABLE x(a)", "  create index i on x(a)", "ALTER\tTABLE x ADD COLUMN b", "drop table x")) {
+			assertTrue(NetChangeCompactor.isDDL(sql), sql);
+		}
+		for (String sql : Arrays.asList("CREATED", "DROPPED x", "UPDATE t SET a = 1", "INSERT INTO create_log VALUES(1)", "ALTER")) {
+			assertFalse(NetChangeCompactor.isDDL(sql), sql);
+		}
+	}
+}
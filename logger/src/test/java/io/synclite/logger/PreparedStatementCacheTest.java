@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PreparedStatementCacheTest {
+
+	private static final String INSERT = "INSERT INTO t1(a, b) VALUES(?, ?)";
+
+	@TempDir
+	Path tempDir;
+
+	private TestDevice device;
+	private Connection conn;
+
+	@BeforeEach
+	void startDevice() throws SQLException, IOException {
+		device = new TestDevice(DeviceType.SQLITE, tempDir, options -> options.setPreparedStatementCacheSize(2));
+		device.start();
+		device.execute("CREATE TABLE IF NOT EXISTS t1(a INTEGER, b TEXT)");
+		conn = device.connect();
+	}
+
+	@AfterEach
+	void closeDevice() throws SQLException {
+		conn.close();
+		device.close();
+	}
+
+	@Test
+	void reusesStatementClosedByCaller() throws SQLException {
+		PreparedStatement first = conn.prepareStatement(INSERT);
+		first.setInt(1, 1);
+		first.setString(2, "one");
+		first.executeUpdate();
+		first.close();
+
+		PreparedStatement second = conn.prepareStatement(INSERT);
+		assertSame(first, second);
+		assertFalse(second.isClosed());
+		second.setInt(1, 2);
+		second.setString(2, "two");
+		second.executeUpdate();
+		second.close();
+
+		assertEquals(2, device.queryLong("SELECT count(*) FROM t1"));
+	}
+
+	@Test
+	void neverSharesStatementInUse() throws SQLException {
+		try (PreparedStatement first = conn.prepareStatement(INSERT)) {
+			try (PreparedStatement second = conn.prepareStatement(INSERT)) {
+				assertNotSame(first, second);
+			}
+		}
+	}
+
+	@Test
+	void rejectsUseAfterClose() throws SQLException {
+		PreparedStatement pstmt = conn.prepareStatement(INSERT);
+		pstmt.close();
+
+		assertTrue(pstmt.isClosed());
+		assertThrows(SQLException.class, () -> pstmt.setInt(1, 1));
+		assertThrows(SQLException.class, () -> pstmt.addBatch());
+		assertThrows(SQLException.class, () -> pstmt.executeUpdate());
+		assertThrows(SQLException.class, () -> pstmt.execute());
+		assertEquals(0, device.queryLong("SELECT count(*) FROM t1"));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedStatement() throws SQLException {
+		PreparedStatement first = conn.prepareStatement("SELECT a FROM t1 WHERE a = ?");
+		first.close();
+		PreparedStatement second = conn.prepareStatement("SELECT b FROM t1 WHERE a = ?");
+		second.close();
+		PreparedStatement third = conn.prepareStatement("SELECT a, b FROM t1 WHERE a = ?");
+		third.close();
+
+		assertNotSame(first, conn.prepareStatement("SELECT a FROM t1 WHERE a = ?"));
+		assertSame(third, conn.prepareStatement("SELECT a, b FROM t1 WHERE a = ?"));
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.synclite.logger.TestDevice.LoggedRow;
+
+//
+//Restart of a device on its current log segment, crashes are simulated by editing the segment while the device is closed
+//
+class RestartRecoveryTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TestDevice device;
+
+	@BeforeEach
+	void startDevice() throws SQLException, IOException {
+		device = new TestDevice(DeviceType.SQLITE, tempDir, options -> {});
+		device.start();
+		device.execute("CREATE TABLE IF NOT EXISTS t1(a INTEGER, b TEXT)");
+	}
+
+	@AfterEach
+	void closeDevice() throws SQLException {
+		device.close();
+	}
+
+	private void insertAndCommit(int first, int count) throws SQLException {
+		try (Connection conn = device.connect()) {
+			conn.setAutoCommit(false);
+			try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO t1(a, b) VALUES(?, ?)")) {
+				for (int a = first; a < first + count; ++a) {
+					pstmt.setInt(1, a);
+					pstmt.setString(2, "value-" + a);
+					pstmt.addBatch();
+				}
+				pstmt.executeBatch();
+			}
+			conn.commit();
+		}
+	}
+
+	private String metadataValue(long seqNum, String key) throws SQLException {
+		try (Connection conn = device.connectLogSegment(seqNum)) {
+			try (PreparedStatement pstmt = conn.prepareStatement("SELECT value FROM metadata WHERE key = ?")) {
+				pstmt.setString(1, key);
+				try (ResultSet rs = pstmt.executeQuery()) {
+					return rs.next() ? rs.getString(1) : null;
+				}
+			}
+		}
+	}
+
+	private void editLogSegment(long seqNum, String sql) throws SQLException {
+		try (Connection conn = device.connectLogSegment(seqNum)) {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(sql);
+			}
+		}
+	}
+
+	@Test
+	void reopensCurrentSegmentWithPersistedTail() throws SQLException {
+		insertAndCommit(1, 10);
+		long seqNum = device.currentLogSegmentSequenceNumber();
+		List<LoggedRow> rowsBefore = device.loggedRows(seqNum);
+		String tail = metadataValue(seqNum, "tail");
+		assertNotNull(tail);
+		LoggedRow lastRow = rowsBefore.get(rowsBefore.size() - 1);
+		assertTrue(tail.startsWith(lastRow.commitId + "," + lastRow.changeNumber + ","), tail);
+
+		device.restart();
+
+		assertEquals(seqNum, device.currentLogSegmentSequenceNumber());
+		assertEquals(tail, metadataValue(seqNum, "tail"));
+		assertEquals("NEW", metadataValue(seqNum, "status"));
+		assertEquals(rowsBefore.size(), device.loggedRows(seqNum).size());
+	}
+
+	@Test
+	void continuesLoggingAfterRestart() throws SQLException {
+		insertAndCommit(1, 10);
+		long seqNum = device.currentLogSegmentSequenceNumber();
+		List<LoggedRow> rowsBefore = device.loggedRows(seqNum);
+		long commitIdBefore = TestDevice.lastCommitId(rowsBefore);
+
+		device.restart();
+		insertAndCommit(11, 10);
+
+		List<LoggedRow> rows = device.loggedRows(seqNum);
+		long commitIdAfter = TestDevice.lastCommitId(rows);
+		assertTrue(commitIdAfter > commitIdBefore);
+		assertEquals(rowsBefore.get(rowsBefore.size() - 1).changeNumber + 1, TestDevice.rowsOfCommit(rows, commitIdAfter).get(0).changeNumber);
+		assertEquals(10, TestDevice.args(TestDevice.rowsOfCommit(rows, commitIdAfter)).size());
+		assertEquals(20, device.queryLong("SELECT count(*) FROM t1"));
+	}
+
+	@Test
+	void rollsBackLoggedTxnNotCommittedInDevice() throws SQLException {
+		insertAndCommit(1, 10);
+		long seqNum = device.currentLogSegmentSequenceNumber();
+		List<LoggedRow> rowsBefore = device.loggedRows(seqNum);
+		long lastChangeNumber = rowsBefore.get(rowsBefore.size() - 1).changeNumber;
+		long inDoubtCommitId = TestDevice.lastCommitId(rowsBefore) + 1;
+		device.close();
+
+		//Crash after logging the txn, before committing it on the device
+		editLogSegment(seqNum, "INSERT INTO commandlog(change_number, commit_id, sql, arg_cnt) VALUES(" + (lastChangeNumber + 1) + ", " + inDoubtCommitId + ", 'BEGIN', 0)");
+		editLogSegment(seqNum, "INSERT INTO commandlog(change_number, commit_id, sql, arg_cnt, arg1, arg2) VALUES(" + (lastChangeNumber + 2) + ", " + inDoubtCommitId + ", 'INSERT INTO t1(a, b) VALUES(?, ?)', 2, 99, 'value-99')");
+		device.start();
+
+		List<LoggedRow> inDoubtRows = TestDevice.rowsOfCommit(device.loggedRows(seqNum), inDoubtCommitId);
+		assertTrue(TestDevice.args(inDoubtRows).isEmpty());
+		assertFalse(TestDevice.sqls(inDoubtRows).contains("COMMIT"));
+		assertEquals(10, device.queryLong("SELECT count(*) FROM t1"));
+
+		insertAndCommit(11, 1);
+		List<LoggedRow> rows = device.loggedRows(seqNum);
+		assertEquals(11L, TestDevice.args(TestDevice.rowsOfCommit(rows, TestDevice.lastCommitId(rows))).get(0).longValue());
+	}
+
+	@Test
+	void completesCommitOfTxnCommittedInDevice() throws SQLException {
+		insertAndCommit(1, 10);
+		long seqNum = device.currentLogSegmentSequenceNumber();
+		List<LoggedRow> rowsBefore = device.loggedRows(seqNum);
+		LoggedRow commitRow = rowsBefore.get(rowsBefore.size() - 1);
+		assertEquals("COMMIT", commitRow.sql);
+		device.close();
+
+		//Crash after committing the txn on the device, before logging its COMMIT
+		editLogSegment(seqNum, "DELETE FROM commandlog WHERE change_number = " + commitRow.changeNumber);
+		device.start();
+
+		List<LoggedRow> rows = device.loggedRows(seqNum);
+		LoggedRow lastRow = rows.get(rows.size() - 1);
+		assertEquals("COMMIT", lastRow.sql);
+		assertEquals(commitRow.commitId, lastRow.commitId);
+		assertEquals(10, TestDevice.args(TestDevice.rowsOfCommit(rows, commitRow.commitId)).size());
+	}
+}
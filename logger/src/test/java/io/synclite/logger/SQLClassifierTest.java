@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SQLClassifierTest {
+
+	@Test
+	void classifiesStatementKinds() {
+		assertEquals(SQLKind.INSERT, SQLClassifier.classify("insert into t1 values(?, ?)").getKind());
+		assertEquals(SQLKind.OTHER, SQLClassifier.classify("INSERT OR REPLACE INTO t1 VALUES(?, ?)").getKind());
+		assertEquals(SQLKind.UPDATE, SQLClassifier.classify("UPDATE t1 SET a = ?").getKind());
+		assertEquals(SQLKind.DELETE, SQLClassifier.classify("\n\tDELETE   FROM t1").getKind());
+		assertEquals(SQLKind.SELECT, SQLClassifier.classify("SELECT * FROM t1").getKind());
+		assertEquals(SQLKind.CREATE_TABLE, SQLClassifier.classify("CREATE TABLE IF NOT EXISTS t1(a INTEGER)").getKind());
+		assertEquals(SQLKind.ALTER_TABLE, SQLClassifier.classify("ALTER TABLE t1 ADD COLUMN b TEXT").getKind());
+		assertEquals(SQLKind.DROP_TABLE, SQLClassifier.classify("DROP TABLE t1").getKind());
+		assertEquals(SQLKind.PUBLISH_COLUMN_LIST, SQLClassifier.classify("PUBLISH COLUMN LIST t1(a, b)").getKind());
+		assertEquals(SQLKind.OTHER, SQLClassifier.classify("CREATE INDEX i1 ON t1(a)").getKind());
+		assertEquals(SQLKind.OTHER, SQLClassifier.classify("").getKind());
+	}
+
+	@Test
+	void tokenizesOnWhitespace() {
+		ClassifiedSQL classifiedSql = SQLClassifier.classify("  UPDATE\tt1\r\nSET a = ?  ");
+		assertEquals("UPDATE\tt1\r\nSET a = ?", classifiedSql.getStrippedSql());
+		assertEquals(Arrays.asList("UPDATE", "t1", "SET", "a", "=", "?"), Arrays.asList(classifiedSql.getTokens()));
+		assertEquals(6, classifiedSql.getTokenCount());
+
+		//Callers get their own copy of the tokens
+		classifiedSql.getTokens()[0] = "DELETE";
+		assertEquals("UPDATE", classifiedSql.getTokens()[0]);
+	}
+
+	@Test
+	void extractsTableNameOfTableDDL() {
+		assertTrue("t1".equalsIgnoreCase(SQLClassifier.classify("CREATE TABLE IF NOT EXISTS main.t1(a INTEGER)").getTableNameInDDL()));
+		assertTrue("t2".equalsIgnoreCase(SQLClassifier.classify("ALTER TABLE t2 ADD COLUMN b").getTableNameInDDL()));
+		assertTrue("t3".equalsIgnoreCase(SQLClassifier.classify("DROP TABLE IF EXISTS t3").getTableNameInDDL()));
+		assertNull(SQLClassifier.classify("INSERT INTO t1 VALUES(1)").getTableNameInDDL());
+	}
+
+	@Test
+	void splitsSubStatements() {
+		ClassifiedSQL classifiedSql = SQLClassifier.classify("INSERT INTO t1 VALUES(';'); DELETE FROM t1;UPDATE t1 SET a = 1");
+		List<ClassifiedSQL> subStatements = classifiedSql.getSubStatements();
+		assertEquals(3, classifiedSql.getSubSqls().size());
+		assertEquals(3, subStatements.size());
+		assertEquals("INSERT INTO t1 VALUES(';')", subStatements.get(0).getSql());
+		assertEquals(SQLKind.INSERT, subStatements.get(0).getKind());
+		assertEquals(SQLKind.DELETE, subStatements.get(1).getKind());
+		assertEquals(SQLKind.UPDATE, subStatements.get(2).getKind());
+	}
+
+	@Test
+	void singleStatementIsItsOwnSubStatement() {
+		ClassifiedSQL classifiedSql = SQLClassifier.classify("DELETE FROM t1 WHERE a = ?");
+		assertEquals(1, classifiedSql.getSubStatements().size());
+		assertSame(classifiedSql, classifiedSql.getSubStatements().get(0));
+
+		//A trailing semicolon is not part of the classified statement
+		ClassifiedSQL terminated = SQLClassifier.classify("DELETE FROM t1 WHERE a = ?;");
+		assertEquals("DELETE FROM t1 WHERE a = ?", terminated.getStrippedSql());
+		assertEquals(SQLKind.DELETE, terminated.getKind());
+	}
+
+	@Test
+	void cachesShortSqlsOnly() {
+		String sql = "SELECT a FROM cached_t1 WHERE b = ?";
+		assertSame(SQLClassifier.classify(sql), SQLClassifier.classify(new String(sql)));
+
+		StringBuilder longSql = new StringBuilder("INSERT INTO t1 VALUES(0");
+		for (int i = 1; longSql.length() <= 4096; ++i) {
+			longSql.append(", ").append(i);
+		}
+		longSql.append(")");
+		ClassifiedSQL first = SQLClassifier.classify(longSql.toString());
+		assertNotSame(first, SQLClassifier.classify(longSql.toString()));
+		assertEquals(SQLKind.INSERT, first.getKind());
+	}
+
+	@Test
+	void remembersOnlyPassingSyntaxChecks() throws SQLException {
+		ClassifiedSQL valid = SQLClassifier.classify("INSERT INTO t1(a, b) VALUES(?, ?)");
+		valid.validateForTelemetryAndAppender();
+		valid.validateForTelemetryAndAppender();
+
+		ClassifiedSQL invalid = SQLClassifier.classify("UPDATE t1 SET a = a + 1 WHERE b IN (SELECT b FROM t2)");
+		assertThrows(SQLException.class, invalid::validateForTelemetryAndAppender);
+		assertThrows(SQLException.class, invalid::validateForTelemetryAndAppender);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+//
+//A device under a temp directory with a local FS destination and synchronous logging, for tests 
+//looking into the log segment of the device. Segment switches on time are pushed out of the way.
+//
+final class TestDevice {
+
+	//Sets test specific options on top of the defaults of the device
+	@FunctionalInterface
+	interface OptionsSetter {
+		void set(SyncLiteOptions options) throws SQLException;
+	}
+
+	//A commandlog row with its first arg only
+	static final class LoggedRow {
+		final long changeNumber;
+		final long commitId;
+		final String sql;
+		final int argCnt;
+		final Object arg1;
+
+		private LoggedRow(long changeNumber, long commitId, String sql, int argCnt, Object arg1) {
+			this.changeNumber = changeNumber;
+			this.commitId = commitId;
+			this.sql = sql;
+			this.argCnt = argCnt;
+			this.arg1 = arg1;
+		}
+	}
+
+	static {
+		try {
+			Class.forName("io.synclite.logger.SQLite");
+			Class.forName("io.synclite.logger.H2");
+		} catch (ClassNotFoundException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	final DeviceType deviceType;
+	final Path dbPath;
+	final String url;
+	private final Path stageDir;
+	private final OptionsSetter optionsSetter;
+
+	TestDevice(DeviceType deviceType, Path workDir, OptionsSetter optionsSetter) throws IOException {
+		this.deviceType = deviceType;
+		this.dbPath = workDir.toAbsolutePath().resolve("test.db");
+		this.stageDir = Files.createDirectories(workDir.resolve("stage"));
+		this.url = urlPrefix(deviceType) + dbPath;
+		this.optionsSetter = optionsSetter;
+	}
+
+	static String urlPrefix(DeviceType deviceType) {
+		switch (deviceType) {
+		case SQLITE:
+			return "jdbc:synclite_sqlite:";
+		case H2:
+			return "jdbc:synclite_h2:";
+		default:
+			throw new IllegalArgumentException("Unsupported test device type : " + deviceType);
+		}
+	}
+
+	void start() throws SQLException {
+		SyncLiteOptions options = new SyncLiteOptions();
+		options.setDestinationType(1, DestinationType.FS);
+		options.setLocalDataStageDirectory(1, stageDir);
+		options.setDeviceName("test");
+		options.disableAsyncLoggingForTxnDevice(true);
+		options.setLogSegmentSwitchDurationThresholdMs(3600000);
+		optionsSetter.set(options);
+		SyncLite.initialize(deviceType, dbPath, options);
+	}
+
+	void close() throws SQLException {
+		SyncLite.closeDevice(dbPath);
+	}
+
+	void restart() throws SQLException {
+		close();
+		start();
+	}
+
+	Connection connect() throws SQLException {
+		return DriverManager.getConnection(url);
+	}
+
+	void execute(String sql) throws SQLException {
+		try (Connection conn = connect()) {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(sql);
+			}
+		}
+	}
+
+	long queryLong(String sql) throws SQLException {
+		try (Connection conn = connect()) {
+			try (Statement stmt = conn.createStatement()) {
+				try (ResultSet rs = stmt.executeQuery(sql)) {
+					rs.next();
+					return rs.getLong(1);
+				}
+			}
+		}
+	}
+
+	long currentLogSegmentSequenceNumber() throws SQLException {
+		return SQLLogger.findInstance(dbPath).getCurrentLogSegmentSequenceNumber();
+	}
+
+	Path logSegmentPath(long seqNum) {
+		return SyncLite.getLogSegmentPath(dbPath, 0, seqNum);
+	}
+
+	Path txnFilePath(long seqNum, long commitId) {
+		return SyncLite.getTxnFilePath(dbPath, seqNum, commitId);
+	}
+
+	Connection connectLogSegment(long seqNum) throws SQLException {
+		return DriverManager.getConnection("jdbc:sqlite:" + logSegmentPath(seqNum));
+	}
+
+	List<LoggedRow> loggedRows(long seqNum) throws SQLException {
+		List<LoggedRow> rows = new ArrayList<LoggedRow>();
+		try (Connection conn = connectLogSegment(seqNum)) {
+			try (Statement stmt = conn.createStatement()) {
+				try (ResultSet rs = stmt.executeQuery("SELECT change_number, commit_id, sql, arg_cnt, arg1 FROM commandlog ORDER BY change_number")) {
+					while (rs.next()) {
+						rows.add(new LoggedRow(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getInt(4), rs.getObject(5)));
+					}
+				}
+			}
+		}
+		return rows;
+	}
+
+	static List<LoggedRow> rowsOfCommit(List<LoggedRow> rows, long commitId) {
+		List<LoggedRow> commitRows = new ArrayList<LoggedRow>();
+		for (LoggedRow row : rows) {
+			if (row.commitId == commitId) {
+				commitRows.add(row);
+			}
+		}
+		return commitRows;
+	}
+
+	//Commit id of the last txn committed in the log segment
+	static long lastCommitId(List<LoggedRow> rows) {
+		for (int i = rows.size() - 1; i >= 0; --i) {
+			if ("COMMIT".equals(rows.get(i).sql)) {
+				return rows.get(i).commitId;
+			}
+		}
+		return -1;
+	}
+
+	static List<String> sqls(List<LoggedRow> rows) {
+		List<String> sqls = new ArrayList<String>();
+		for (LoggedRow row : rows) {
+			sqls.add(row.sql);
+		}
+		return sqls;
+	}
+
+	//First arg of each row logged for a statement with args
+	static List<Long> args(List<LoggedRow> rows) {
+		List<Long> args = new ArrayList<Long>();
+		for (LoggedRow row : rows) {
+			if (row.argCnt > 0) {
+				args.add(((Number) row.arg1).longValue());
+			}
+		}
+		return args;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2024 mahendra.chavan@synclite.io, all rights reserved.
+ *
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied.  See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.synclite.logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ValidatedSQLCacheTest {
+
+	private final ValidatedSQLCache cache = new ValidatedSQLCache();
+	private final AtomicInteger prepareCount = new AtomicInteger();
+
+	private final ValidatedSQLCache.SchemaValidator countingValidator = sql -> {
+		prepareCount.incrementAndGet();
+		return null;
+	};
+
+	@Test
+	void validatesSqlOnce() throws SQLException {
+		cache.validate("INSERT INTO t1 VALUES(?)", countingValidator);
+		cache.validate("INSERT INTO t1 VALUES(?)", countingValidator);
+		assertEquals(1, prepareCount.get());
+
+		cache.validate("INSERT INTO t2 VALUES(?)", countingValidator);
+		assertEquals(2, prepareCount.get());
+	}
+
+	@Test
+	void revalidatesAfterInvalidate() throws SQLException {
+		cache.validate("INSERT INTO t1 VALUES(?)", countingValidator);
+		cache.invalidate();
+		cache.validate("INSERT INTO t1 VALUES(?)", countingValidator);
+		assertEquals(2, prepareCount.get());
+	}
+
+	@Test
+	void doesNotCacheFailedValidation() {
+		ValidatedSQLCache.SchemaValidator failingValidator = sql -> {
+			prepareCount.incrementAndGet();
+			throw new SQLException("no such table: t9");
+		};
+		assertThrows(SQLException.class, () -> cache.validate("INSERT INTO t9 VALUES(?)", failingValidator));
+		assertThrows(SQLException.class, () -> cache.validate("INSERT INTO t9 VALUES(?)", failingValidator));
+		assertEquals(2, prepareCount.get());
+	}
+
+	@Test
+	void doesNotTrustValidationRacingWithDDL() throws SQLException {
+		//A DDL lands on the schema shadow while the sql is being validated
+		ValidatedSQLCache.SchemaValidator racingValidator = sql -> {
+			prepareCount.incrementAndGet();
+			cache.invalidate();
+			return null;
+		};
+		cache.validate("INSERT INTO t1 VALUES(?)", racingValidator);
+		cache.validate("INSERT INTO t1 VALUES(?)", countingValidator);
+		cache.validate("INSERT INTO t1 VALUES(?)", countingValidator);
+		assertEquals(2, prepareCount.get());
+	}
+
+	@Test
+	void doesNotCacheLongSqls() throws SQLException {
+		StringBuilder longSql = new StringBuilder("INSERT INTO t1 VALUES(0");
+		for (int i = 1; longSql.length() <= 4096; ++i) {
+			longSql.append(", ").append(i);
+		}
+		longSql.append(")");
+		cache.validate(longSql.toString(), countingValidator);
+		cache.validate(longSql.toString(), countingValidator);
+		assertEquals(2, prepareCount.get());
+	}
+}